@@ -0,0 +1,93 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Corpus determinístico para os benchmarks: respostas sintéticas em português
+// (sílabas comuns) e mensagens de chat a partir de chat-pt.txt, ou do arquivo em -Dchat.corpus
+// (uma mensagem por linha, como o exportado da trilha de auditoria por AuditLogTool messages).
+final class ChatCorpus {
+
+    private static final String[] SYLLABLES = {
+        "ca", "sa", "po", "ta", "li", "vro", "me", "de", "ra", "ban", "co", "pra", "ia",
+        "flo", "re", "ven", "to", "chu", "va", "mo", "ne", "ga", "pe", "dra",
+        "cor", "ri", "da", "ma", "lha", "sol", "lu", "a", "ter", "ve", "lo", "bre"
+    };
+
+    private static final long SEED = 42;
+
+    private ChatCorpus() {
+    }
+
+    // Palavras de 2 ou 3 sílabas e 4 a 8 letras (dezenas de milhares possíveis),
+    // sem repetição, na mesma ordem a cada execução
+    static List<String> answers(int count) {
+        Random random = new Random(SEED);
+        Set<String> answers = new LinkedHashSet<>();
+        while (answers.size() < count) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(2);
+            for (int i = 0; i < syllables; i++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (word.length() >= 4 && word.length() <= 8) {
+                answers.add(word.toString());
+            }
+        }
+        return new ArrayList<>(answers);
+    }
+
+    // Mensagens do modelo com as marcações trocadas por respostas (e suas ofuscações) do conjunto
+    static List<String> messages(List<String> answers, int count) {
+        List<String> templates = templates();
+        Random random = new Random(SEED);
+        List<String> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String answer = answers.get(random.nextInt(answers.size()));
+            String template = templates.get(random.nextInt(templates.size()));
+            messages.add(template
+                    .replace("{answer}", answer)
+                    .replace("{spaced}", MatchKind.SPACED.variantOf(answer))
+                    .replace("{doubled}", MatchKind.DOUBLED.variantOf(answer))
+                    .replace("{leet}", MatchKind.LEET.variantOf(answer))
+                    .replace("{reversed}", MatchKind.REVERSED.variantOf(answer)));
+        }
+        return messages;
+    }
+
+    private static List<String> templates() {
+        String corpus = System.getProperty("chat.corpus");
+        InputStream in;
+        try {
+            in = corpus != null ? Files.newInputStream(Path.of(corpus)) : ChatCorpus.class.getResourceAsStream("/chat-pt.txt");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (in == null) {
+            throw new IllegalStateException("chat-pt.txt not found on the classpath");
+        }
+        List<String> templates = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    templates.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return templates;
+    }
+}
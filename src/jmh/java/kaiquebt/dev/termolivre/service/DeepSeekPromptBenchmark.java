@@ -0,0 +1,55 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+// Montagem do prompt e leitura da resposta da DeepSeek, sem rede
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeepSeekPromptBenchmark {
+
+    @Param({"1", "10"})
+    public int batchSize;
+
+    private final DeepSeekAiProvider provider = new DeepSeekAiProvider();
+    private List<String> batch;
+    private String response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        batch = ChatCorpus.messages(ChatCorpus.answers(100), batchSize);
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < batchSize; i++) {
+            joiner.add(i % 7 == 0 ? "true" : "false");
+        }
+        response = joiner.toString();
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return provider.buildPrompt(batch);
+    }
+
+    @Benchmark
+    public List<Boolean> parseAiResponse() {
+        return provider.parseAiResponse(response, batchSize);
+    }
+}
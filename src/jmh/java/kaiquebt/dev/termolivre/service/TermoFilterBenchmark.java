@@ -0,0 +1,112 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Caminho quente da moderação com uma IA que responde na hora ("seguro"),
+// para medir só o custo local: normalização, regras, cache e montagem dos lotes.
+// Rodar com -prof gc para ver a taxa de alocação.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TermoFilterBenchmark {
+
+    private static final int CORPUS_SIZE = 4096;
+    private static final int BATCH_SIZE = 20;
+
+    @Param({"10", "100", "1000", "5000"})
+    public int answerCount;
+
+    private List<String> answers;
+    private String[] messages;
+    private List<String> batches;
+    private TermoFilter filter;
+    private PrintStream originalOut;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        final StringBuilder buffer = new StringBuilder(256);
+
+        String nextMessage(String[] messages) {
+            String message = messages[next];
+            next = (next + 1) & (messages.length - 1);
+            return message;
+        }
+
+        List<String> nextBatch(List<String> batches) {
+            int from = next;
+            next = (next + BATCH_SIZE) % (batches.size() - BATCH_SIZE);
+            return batches.subList(from, from + BATCH_SIZE);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        answers = ChatCorpus.answers(answerCount);
+        batches = List.copyOf(ChatCorpus.messages(answers, CORPUS_SIZE));
+        messages = batches.toArray(new String[0]);
+        AiProvider safeAi = batch -> Collections.nCopies(batch.size(), false);
+        filter = new TermoFilter(safeAi, new VerdictCache());
+        filter.updateAnswers(answers);
+
+        // isMessageSafe ainda escreve no stdout; descartamos para não medir o terminal
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public boolean isMessageSafe(Cursor cursor) {
+        return filter.isMessageSafe(cursor.nextMessage(messages));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<Boolean> areMessagesSafe(Cursor cursor) {
+        return filter.areMessagesSafe(cursor.nextBatch(batches));
+    }
+
+    // Só as regras locais: resposta direta e todas as ofuscações
+    @Benchmark
+    public AnswerMatcher.Match findAnswer(Cursor cursor) {
+        return filter.findAnswer(cursor.nextMessage(messages));
+    }
+
+    // O que cleanMessage faz por mensagem, com o buffer reaproveitado
+    @Benchmark
+    public CharSequence cleanMessage(Cursor cursor) {
+        return MessageNormalizer.normalize(cursor.nextMessage(messages), cursor.buffer);
+    }
+
+    // Custo de uma troca de respostas; roda fora do caminho quente, mas cresce com o conjunto
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public CompiledAnswerSet compileAnswerSet() {
+        return CompiledAnswerSet.compile(answers);
+    }
+}
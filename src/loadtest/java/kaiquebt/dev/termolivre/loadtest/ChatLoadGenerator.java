@@ -0,0 +1,94 @@
+package kaiquebt.dev.termolivre.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Gera o chat no IRC local seguindo o formato de carga configurado.
+// Uma parte das mensagens contém uma resposta padrão (bloqueada pelas regras)
+// e outra o marcador que o mock da DeepSeek considera spoiler.
+class ChatLoadGenerator {
+
+    private static final List<String> SYNTHETIC = List.of(
+            "boa noite chat", "KEKW", "kkkkkkkkk", "essa foi difícil", "quase acertei hoje",
+            "alguém sabe a de ontem?", "PogChamp", "começa com vogal", "o quarteto tá impossível",
+            "tenta uma palavra com R", "primeira vez aqui", "que jogada", "eita", "sextou chat");
+
+    // Respostas padrão do TermoFilter: a mensagem cai nas regras locais
+    private static final List<String> RULE_HITS = List.of("casa", "porta", "livro", "mesa", "praia");
+
+    private final LoadTestConfig config;
+    private final MockIrcServer irc;
+    private final StompLatencyProbe probe;
+    private final List<String> channels;
+    private final List<String> texts;
+    private final Random random = new Random(42);
+
+    ChatLoadGenerator(LoadTestConfig config, MockIrcServer irc, StompLatencyProbe probe) throws IOException {
+        this.config = config;
+        this.irc = irc;
+        this.probe = probe;
+        this.channels = config.channelNames();
+        this.texts = config.replayFile == null ? SYNTHETIC : replayLines(Path.of(config.replayFile));
+    }
+
+    // Bloqueia até o fim da duração; retorna quantas mensagens foram enviadas
+    long run() {
+        long start = System.nanoTime();
+        long durationNanos = TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        long sent = 0;
+        long elapsed;
+        while ((elapsed = System.nanoTime() - start) < durationNanos) {
+            long target = targetCount(elapsed / 1e9);
+            while (sent < target) {
+                send(sent++);
+            }
+            LockSupport.parkNanos(500_000);
+        }
+        return sent;
+    }
+
+    // Mensagens acumuladas que deveriam ter saído até o segundo t
+    long targetCount(double t) {
+        return switch (config.shape) {
+            case STEADY -> (long) (config.rate * t);
+            case RAMP -> (long) (config.rate * t * t / (2.0 * config.durationSeconds));
+            case BURST -> (long) (config.rate * t) + (long) config.burstSize * (long) (t / config.burstEverySeconds);
+        };
+    }
+
+    private void send(long seq) {
+        String channel = channels.get((int) (seq % channels.size()));
+        String text = texts.get((int) (seq % texts.size()));
+        if (random.nextDouble() < config.uniqueRate) {
+            text = text + " " + seq;
+        }
+        double roll = random.nextDouble();
+        if (roll < config.ruleHitRate) {
+            text = text + " " + RULE_HITS.get(random.nextInt(RULE_HITS.size()));
+        } else if (roll < config.ruleHitRate + config.aiHitRate) {
+            text = text + " " + MockDeepSeekServer.SPOILER_MARKER;
+        }
+        String id = "lt-" + seq;
+        probe.expect(id);
+        irc.sendPrivmsg(channel, "viewer" + (seq % 500), id, System.currentTimeMillis(), text);
+    }
+
+    // Uma mensagem por linha; aceita também o formato "usuário: mensagem"
+    private static List<String> replayLines(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> line.matches("^[A-Za-z0-9_]{1,25}: .*") ? line.substring(line.indexOf(": ") + 2) : line)
+                .toList();
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("Replay file has no messages: " + file);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,165 @@
+package kaiquebt.dev.termolivre.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import kaiquebt.dev.termolivre.TermolivreApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Teste de carga de ponta a ponta sem Twitch nem DeepSeek reais:
+// IRC local -> ChatService -> moderação -> mock da DeepSeek -> broker STOMP -> espectador sem navegador.
+// A aplicação sobe neste mesmo processo, apontando para os mocks, e o relatório vai para target/loadtest.
+//
+// ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="--rate=200 --duration=60 --shape=burst --label=main"
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        List<String> channels = config.channelNames();
+
+        List<MockDeepSeekServer> endpoints = new ArrayList<>();
+        try (MockIrcServer irc = new MockIrcServer(channels.size());
+             MockDeepSeekServer deepSeek = new MockDeepSeekServer(config);
+             StompLatencyProbe probe = new StompLatencyProbe()) {
+            for (long latency : config.aiEndpointLatenciesMs) {
+                endpoints.add(new MockDeepSeekServer(config, latency));
+            }
+
+            ConfigurableApplicationContext app = startApplication(config, irc, deepSeek, endpoints, channels);
+            try {
+                if (!irc.awaitJoins(30, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Application did not join every channel on the local IRC server");
+                }
+                int port = Integer.parseInt(app.getEnvironment().getProperty("local.server.port"));
+                probe.connect(port, channels);
+
+                System.out.printf("Sending %s load at %.0f msg/s to %d channel(s) for %d s%n",
+                        config.shape, config.rate, channels.size(), config.durationSeconds);
+                long start = System.nanoTime();
+                long sent = config.durationSeconds > 0 ? new ChatLoadGenerator(config, irc, probe).run() : 0;
+                double sendSeconds = (System.nanoTime() - start) / 1e9;
+
+                // Espera as mensagens atrasadas (lote da IA, orçamento de latência) antes de contar perdas
+                long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.drainSeconds);
+                while (probe.getDelivered() < sent && System.nanoTime() < drainDeadline) {
+                    Thread.sleep(100);
+                }
+
+                Map<String, Object> report = report(config, sent, sendSeconds, probe, deepSeek, endpoints);
+                writeReport(config, report);
+            } finally {
+                SpringApplication.exit(app);
+            }
+        } finally {
+            endpoints.forEach(MockDeepSeekServer::close);
+        }
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config, MockIrcServer irc,
+                                                                   MockDeepSeekServer deepSeek,
+                                                                   List<MockDeepSeekServer> endpoints, List<String> channels) {
+        // O restart do devtools relançaria este main; precisa ser desligado antes de subir o contexto
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Argumentos de linha de comando têm precedência sobre o application.properties local
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("twitch.chat.server", irc.getUrl());
+        properties.put("twitch.channels", String.join(",", channels));
+        properties.put("deepseek.api.url", deepSeek.getUrl());
+        properties.put("deepseek.api.key", "loadtest");
+        for (int i = 0; i < endpoints.size(); i++) {
+            properties.put("moderation.ai.endpoints[" + i + "].url", endpoints.get(i).getUrl());
+            properties.put("moderation.ai.endpoints[" + i + "].name", "mock-" + i + "-" + config.aiEndpointLatenciesMs.get(i) + "ms");
+        }
+        properties.putAll(config.appProperties);
+
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return new SpringApplicationBuilder(TermolivreApplication.class).run(args.toArray(new String[0]));
+    }
+
+    private static Map<String, Object> report(LoadTestConfig config, long sent, double sendSeconds,
+                                              StompLatencyProbe probe, MockDeepSeekServer deepSeek,
+                                              List<MockDeepSeekServer> endpoints) {
+        long delivered = probe.getDelivered();
+        long[] latencies = probe.getLatencies().sorted();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.label);
+        report.put("finishedAt", LocalDateTime.now().toString());
+        report.put("config", config.describe());
+
+        Map<String, Object> delivery = new LinkedHashMap<>();
+        delivery.put("sent", sent);
+        delivery.put("delivered", delivered);
+        delivery.put("lost", sent - delivered);
+        delivery.put("lossRate", sent == 0 ? 0.0 : (double) (sent - delivered) / sent);
+        delivery.put("blocked", probe.blocked.get());
+        delivery.put("held", probe.held.get());
+        delivery.put("updates", probe.updates.get());
+        delivery.put("duplicates", probe.duplicates.get());
+        delivery.put("frames", probe.frames.get());
+        delivery.put("sendRatePerSecond", sent / sendSeconds);
+        delivery.put("deliveredPerSecond", delivered / sendSeconds);
+        report.put("delivery", delivery);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50Ms", percentileMillis(latencies, 0.50));
+        latency.put("p90Ms", percentileMillis(latencies, 0.90));
+        latency.put("p99Ms", percentileMillis(latencies, 0.99));
+        latency.put("p999Ms", percentileMillis(latencies, 0.999));
+        latency.put("maxMs", latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+        report.put("endToEndLatency", latency);
+
+        Map<String, Object> ai = new LinkedHashMap<>();
+        // Com vários endpoints o mock principal fica sem tráfego; soma os de todos
+        List<MockDeepSeekServer> servers = new ArrayList<>(endpoints);
+        servers.add(deepSeek);
+        ai.put("requests", servers.stream().mapToLong(server -> server.requests.get()).sum());
+        ai.put("messages", servers.stream().mapToLong(server -> server.messages.get()).sum());
+        ai.put("injectedErrors", servers.stream().mapToLong(server -> server.injectedErrors.get()).sum());
+        ai.put("injectedMalformed", servers.stream().mapToLong(server -> server.injectedMalformed.get()).sum());
+        if (!endpoints.isEmpty()) {
+            ai.put("requestsPerEndpoint", endpoints.stream().map(server -> server.requests.get()).toList());
+        }
+        report.put("mockAi", ai);
+        return report;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static void writeReport(LoadTestConfig config, Map<String, Object> report) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path directory = Path.of(config.reportDir);
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = directory.resolve(config.label + "-" + timestamp + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+
+        System.out.println();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("delivery", report.get("delivery"));
+        summary.put("endToEndLatency", report.get("endToEndLatency"));
+        summary.put("mockAi", report.get("mockAi"));
+        System.out.println(objectMapper.writeValueAsString(summary));
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+}
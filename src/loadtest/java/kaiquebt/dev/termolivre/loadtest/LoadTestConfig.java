@@ -0,0 +1,119 @@
+package kaiquebt.dev.termolivre.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Opções do harness no formato --chave=valor; --app.<propriedade>=valor vai direto para a aplicação
+class LoadTestConfig {
+
+    enum Shape {
+        // Taxa constante
+        STEADY,
+        // De zero até a taxa ao longo da duração
+        RAMP,
+        // Taxa constante mais rajadas periódicas, como numa raid
+        BURST
+    }
+
+    String label = "local";
+    int channels = 1;
+    double rate = 50;
+    int durationSeconds = 30;
+    int drainSeconds = 10;
+    Shape shape = Shape.STEADY;
+    int burstSize = 200;
+    int burstEverySeconds = 10;
+    String replayFile;
+    double ruleHitRate = 0.05;
+    double aiHitRate = 0.02;
+    // Mensagens com texto inédito; as repetidas são respondidas pelo cache de vereditos
+    double uniqueRate = 0.5;
+    long aiLatencyMs = 300;
+    long aiJitterMs = 200;
+    double aiErrorRate = 0.01;
+    double aiMalformedRate = 0.01;
+    // Um mock por valor, cada um com sua latência base, atrás do HedgedAiProvider; vazio usa um só
+    final List<Long> aiEndpointLatenciesMs = new ArrayList<>();
+    String reportDir = "target/loadtest";
+    final Map<String, String> appProperties = new LinkedHashMap<>();
+
+    static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (key.startsWith("app.")) {
+                config.appProperties.put(key.substring(4), value);
+                continue;
+            }
+            switch (key) {
+                case "label" -> config.label = value;
+                case "channels" -> config.channels = Integer.parseInt(value);
+                case "rate" -> config.rate = Double.parseDouble(value);
+                case "duration" -> config.durationSeconds = Integer.parseInt(value);
+                case "drain" -> config.drainSeconds = Integer.parseInt(value);
+                case "shape" -> config.shape = Shape.valueOf(value.toUpperCase(Locale.ROOT));
+                case "burst-size" -> config.burstSize = Integer.parseInt(value);
+                case "burst-every" -> config.burstEverySeconds = Integer.parseInt(value);
+                case "replay" -> config.replayFile = value;
+                case "rule-hit-rate" -> config.ruleHitRate = Double.parseDouble(value);
+                case "ai-hit-rate" -> config.aiHitRate = Double.parseDouble(value);
+                case "unique-rate" -> config.uniqueRate = Double.parseDouble(value);
+                case "ai-latency-ms" -> config.aiLatencyMs = Long.parseLong(value);
+                case "ai-jitter-ms" -> config.aiJitterMs = Long.parseLong(value);
+                case "ai-error-rate" -> config.aiErrorRate = Double.parseDouble(value);
+                case "ai-malformed-rate" -> config.aiMalformedRate = Double.parseDouble(value);
+                case "ai-endpoint-latencies" -> {
+                    for (String latency : value.split(",")) {
+                        config.aiEndpointLatenciesMs.add(Long.parseLong(latency.trim()));
+                    }
+                }
+                case "report-dir" -> config.reportDir = value;
+                default -> throw new IllegalArgumentException("Unknown option --" + key);
+            }
+        }
+        if (config.channels < 1 || config.rate <= 0 || config.durationSeconds < 1) {
+            throw new IllegalArgumentException("channels, rate and duration must be positive");
+        }
+        return config;
+    }
+
+    List<String> channelNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= channels; i++) {
+            names.add("loadtest_" + i);
+        }
+        return names;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("channels", channels);
+        description.put("rate", rate);
+        description.put("durationSeconds", durationSeconds);
+        description.put("shape", shape);
+        if (shape == Shape.BURST) {
+            description.put("burstSize", burstSize);
+            description.put("burstEverySeconds", burstEverySeconds);
+        }
+        description.put("replayFile", replayFile);
+        description.put("ruleHitRate", ruleHitRate);
+        description.put("aiHitRate", aiHitRate);
+        description.put("uniqueRate", uniqueRate);
+        description.put("aiLatencyMs", aiLatencyMs);
+        description.put("aiJitterMs", aiJitterMs);
+        description.put("aiErrorRate", aiErrorRate);
+        description.put("aiMalformedRate", aiMalformedRate);
+        if (!aiEndpointLatenciesMs.isEmpty()) {
+            description.put("aiEndpointLatenciesMs", aiEndpointLatenciesMs);
+        }
+        description.put("appProperties", appProperties);
+        return description;
+    }
+}
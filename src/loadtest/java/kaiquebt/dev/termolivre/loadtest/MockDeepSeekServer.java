@@ -0,0 +1,176 @@
+package kaiquebt.dev.termolivre.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Endpoint de chat completions no formato da DeepSeek, com latência, erros e respostas
+// malformadas configuráveis. Marca como "true" as mensagens com o marcador de spoiler.
+// Com "stream": true responde em SSE, espalhando a mesma latência entre os vereditos, como um modelo gerando tokens.
+class MockDeepSeekServer implements Closeable {
+
+    static final String SPOILER_MARKER = "[spoiler]";
+
+    // Uma linha por mensagem no prompt de DeepSeekAiProvider.buildPrompt: 1. "texto"
+    private static final Pattern PROMPT_LINE = Pattern.compile("(?m)^\\d+\\. \"(.*)\"$");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadTestConfig config;
+    private final long latencyMs;
+
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong messages = new AtomicLong();
+    final AtomicLong injectedErrors = new AtomicLong();
+    final AtomicLong injectedMalformed = new AtomicLong();
+
+    MockDeepSeekServer(LoadTestConfig config) throws IOException {
+        this(config, config.aiLatencyMs);
+    }
+
+    MockDeepSeekServer(LoadTestConfig config, long latencyMs) throws IOException {
+        this.config = config;
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // A latência simulada dorme na thread; um pool grande evita que ela vire fila aqui
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-deepseek");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/chat/completions", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/chat/completions";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            requests.incrementAndGet();
+            JsonNode request = objectMapper.readTree(in);
+            List<String> prompts = promptMessages(request);
+            messages.addAndGet(prompts.size());
+            boolean stream = request.path("stream").asBoolean(false);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long latency = latencyMs + (config.aiJitterMs > 0 ? random.nextLong(config.aiJitterMs + 1) : 0);
+            if (latency > 0 && !stream) {
+                Thread.sleep(latency);
+            }
+
+            if (random.nextDouble() < config.aiErrorRate) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, 500, "{\"error\":\"injected\"}");
+                return;
+            }
+
+            StringBuilder verdicts = new StringBuilder();
+            for (String prompt : prompts) {
+                if (verdicts.length() > 0) {
+                    verdicts.append(',');
+                }
+                verdicts.append(prompt.contains(SPOILER_MARKER));
+            }
+            String content = verdicts.toString();
+            if (random.nextDouble() < config.aiMalformedRate) {
+                injectedMalformed.incrementAndGet();
+                content = malformed(content, random);
+                if (content == null && !stream) {
+                    respond(exchange, 200, "{\"choices\": [");
+                    return;
+                }
+            }
+            if (stream) {
+                streamVerdicts(exchange, content, latency);
+                return;
+            }
+            Map<String, Object> body = Map.of("choices", List.of(Map.of("message", Map.of("role", "assistant", "content", content))));
+            respond(exchange, 200, objectMapper.writeValueAsString(body));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Variações que a IA real já devolveu: texto solto, contagem errada ou JSON cortado (null)
+    private String malformed(String content, ThreadLocalRandom random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> "Claro! Aqui está: " + content;
+            case 1 -> content.contains(",") ? content.substring(0, content.lastIndexOf(',')) : content + ",true";
+            default -> null;
+        };
+    }
+
+    // Um evento por palavra da resposta; content null simula a conexão caindo no meio
+    private void streamVerdicts(HttpExchange exchange, String content, long latency) throws IOException, InterruptedException {
+        String[] words = (content == null ? "true,false" : content).split("(?<=,)");
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (int i = 0; i < words.length; i++) {
+            Thread.sleep(latency / words.length);
+            if (content == null && i == words.length - 1) {
+                out.write("data: {\"choices\": [".getBytes(StandardCharsets.UTF_8));
+                out.close();
+                return;
+            }
+            Map<String, Object> chunk = Map.of("choices", List.of(Map.of("delta", Map.of("content", words[i]))));
+            out.write(("data: " + objectMapper.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.close();
+    }
+
+    private List<String> promptMessages(JsonNode request) {
+        List<String> prompts = new ArrayList<>();
+        for (JsonNode message : request.path("messages")) {
+            if ("user".equals(message.path("role").asText())) {
+                Matcher matcher = PROMPT_LINE.matcher(message.path("content").asText());
+                while (matcher.find()) {
+                    prompts.add(matcher.group(1));
+                }
+            }
+        }
+        return prompts;
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
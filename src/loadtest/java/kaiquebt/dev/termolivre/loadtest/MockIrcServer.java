@@ -0,0 +1,274 @@
+package kaiquebt.dev.termolivre.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Servidor IRC sobre WebSocket (ws://) com o mínimo que o twitch4j usa: login anônimo,
+// JOIN, PING/PONG e PRIVMSG com as tags da Twitch. Implementa só o básico do RFC 6455,
+// sem extensões, o suficiente para uma conexão local do harness.
+class MockIrcServer implements Closeable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Set<String> joinedChannels = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch joined;
+    private final Thread acceptor;
+
+    MockIrcServer(int expectedChannels) throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.joined = new CountDownLatch(expectedChannels);
+        this.acceptor = new Thread(this::acceptLoop, "mock-irc-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    String getUrl() {
+        return "ws://localhost:" + serverSocket.getLocalPort();
+    }
+
+    boolean awaitJoins(long timeout, TimeUnit unit) throws InterruptedException {
+        return joined.await(timeout, unit);
+    }
+
+    // Envia uma mensagem de chat como se viesse da Twitch
+    void sendPrivmsg(String channel, String user, String id, long sentAtMillis, String text) {
+        String line = "@badge-info=;badges=;color=#1E90FF;display-name=" + user
+                + ";emotes=;first-msg=0;flags=;id=" + id + ";mod=0;returning-chatter=0;room-id=1000"
+                + ";subscriber=0;tmi-sent-ts=" + sentAtMillis + ";turbo=0;user-id=" + Math.abs(user.hashCode())
+                + ";user-type= :" + user + "!" + user + "@" + user + ".tmi.twitch.tv PRIVMSG #" + channel + " :" + text;
+        for (Connection connection : connections) {
+            connection.sendLine(line);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                Thread reader = new Thread(connection::run, "mock-irc-connection");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("mock IRC accept failed: " + e);
+                }
+            }
+        }
+    }
+
+    private final class Connection implements Closeable {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private String nick = "justinfan";
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        void run() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                handshake(in);
+                connections.add(this);
+                ByteArrayOutputStream message = new ByteArrayOutputStream();
+                while (true) {
+                    int first = read(in);
+                    int second = read(in);
+                    boolean fin = (first & 0x80) != 0;
+                    int opcode = first & 0x0F;
+                    long length = second & 0x7F;
+                    if (length == 126) {
+                        length = (read(in) << 8) | read(in);
+                    } else if (length == 127) {
+                        length = 0;
+                        for (int i = 0; i < 8; i++) {
+                            length = (length << 8) | read(in);
+                        }
+                    }
+                    byte[] mask = new byte[4];
+                    boolean masked = (second & 0x80) != 0;
+                    if (masked) {
+                        readFully(in, mask);
+                    }
+                    byte[] payload = new byte[(int) length];
+                    readFully(in, payload);
+                    if (masked) {
+                        for (int i = 0; i < payload.length; i++) {
+                            payload[i] ^= mask[i & 3];
+                        }
+                    }
+
+                    if (opcode == 0x8) {
+                        writeFrame(0x8, payload);
+                        return;
+                    } else if (opcode == 0x9) {
+                        writeFrame(0xA, payload);
+                    } else if (opcode == 0x1 || opcode == 0x0) {
+                        message.write(payload);
+                        if (fin) {
+                            for (String line : message.toString(StandardCharsets.UTF_8).split("\r?\n")) {
+                                if (!line.isBlank()) {
+                                    onLine(line.trim());
+                                }
+                            }
+                            message.reset();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Conexão encerrada pelo cliente ou pelo close()
+            } finally {
+                connections.remove(this);
+                close();
+            }
+        }
+
+        private void onLine(String line) {
+            String upper = line.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("NICK ")) {
+                nick = line.substring(5).trim();
+                sendLine(":tmi.twitch.tv 001 " + nick + " :Welcome, GLHF!");
+                sendLine(":tmi.twitch.tv 376 " + nick + " :>");
+            } else if (upper.startsWith("CAP REQ")) {
+                sendLine(":tmi.twitch.tv CAP * ACK " + line.substring(line.indexOf(':')));
+            } else if (upper.startsWith("PING")) {
+                sendLine("PONG :tmi.twitch.tv");
+            } else if (upper.startsWith("JOIN ")) {
+                for (String target : line.substring(5).trim().split(",")) {
+                    String channel = target.startsWith("#") ? target.substring(1) : target;
+                    sendLine(":" + nick + "!" + nick + "@" + nick + ".tmi.twitch.tv JOIN #" + channel);
+                    sendLine(":" + nick + ".tmi.twitch.tv 366 " + nick + " #" + channel + " :End of /NAMES list");
+                    sendLine("@emote-only=0;followers-only=-1;r9k=0;room-id=1000;slow=0;subs-only=0 :tmi.twitch.tv ROOMSTATE #" + channel);
+                    if (joinedChannels.add(channel)) {
+                        joined.countDown();
+                    }
+                }
+            }
+        }
+
+        void sendLine(String line) {
+            try {
+                writeFrame(0x1, (line + "\r\n").getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private synchronized void writeFrame(int opcode, byte[] payload) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 10);
+            frame.write(0x80 | opcode);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else if (payload.length <= 0xFFFF) {
+                frame.write(126);
+                frame.write(payload.length >>> 8);
+                frame.write(payload.length & 0xFF);
+            } else {
+                frame.write(127);
+                for (int i = 7; i >= 0; i--) {
+                    frame.write((int) ((long) payload.length >>> (8 * i)) & 0xFF);
+                }
+            }
+            frame.write(payload);
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+
+        private void handshake(InputStream in) throws IOException {
+            String key = null;
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    String header = line.toString().trim();
+                    if (header.isEmpty()) {
+                        break;
+                    }
+                    int colon = header.indexOf(':');
+                    if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+                        key = header.substring(colon + 1).trim();
+                    }
+                    line.setLength(0);
+                } else {
+                    line.append((char) c);
+                }
+            }
+            if (key == null) {
+                throw new IOException("Not a WebSocket handshake");
+            }
+            String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + accept(key) + "\r\n\r\n";
+            out.write(response.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private String accept(String key) {
+            try {
+                MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+                return Base64.getEncoder().encodeToString(sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private int read(InputStream in) throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            return b;
+        }
+
+        private void readFully(InputStream in, byte[] buffer) throws IOException {
+            int offset = 0;
+            while (offset < buffer.length) {
+                int n = in.read(buffer, offset, buffer.length - offset);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                offset += n;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Já fechado
+            }
+        }
+    }
+}
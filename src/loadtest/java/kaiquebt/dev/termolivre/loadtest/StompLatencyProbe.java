@@ -0,0 +1,141 @@
+package kaiquebt.dev.termolivre.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Espectador sem navegador: assina os tópicos de cada canal pelo mesmo SockJS da página
+// e mede o tempo entre o envio no IRC local e a primeira publicação de cada mensagem.
+class StompLatencyProbe implements AutoCloseable {
+
+    static final String BLOCKED_CONTENT = "Usuário tentou dizer a resposta!";
+    static final String HELD_CONTENT = "Mensagem em análise...";
+
+    private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> delivered = new ConcurrentHashMap<>();
+    private final LatencyRecorder latencies = new LatencyRecorder();
+
+    final AtomicLong blocked = new AtomicLong();
+    final AtomicLong held = new AtomicLong();
+    final AtomicLong updates = new AtomicLong();
+    final AtomicLong duplicates = new AtomicLong();
+    final AtomicLong frames = new AtomicLong();
+
+    private WebSocketStompClient client;
+    private StompSession session;
+
+    void connect(int port, List<String> channels) throws Exception {
+        client = new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        client.setInboundMessageSizeLimit(4 * 1024 * 1024);
+        session = client.connectAsync("ws://localhost:" + port + "/ws-chat", new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+        for (String channel : channels) {
+            session.subscribe("/topic/" + channel + "/messages", handler(this::onMessage));
+            session.subscribe("/topic/" + channel + "/message-updates", handler(update -> updates.incrementAndGet()));
+        }
+    }
+
+    // Chamado pelo gerador logo antes de enviar a mensagem ao IRC
+    void expect(String id) {
+        sentAt.put(id, System.nanoTime());
+    }
+
+    long getSent() {
+        return sentAt.size();
+    }
+
+    long getDelivered() {
+        return delivered.size();
+    }
+
+    LatencyRecorder getLatencies() {
+        return latencies;
+    }
+
+    private void onMessage(JsonNode message) {
+        long now = System.nanoTime();
+        String id = message.path("id").asText();
+        Long sent = sentAt.get(id);
+        if (sent == null) {
+            return;
+        }
+        if (delivered.putIfAbsent(id, Boolean.TRUE) != null) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        latencies.record(now - sent);
+        String content = message.path("content").asText();
+        if (BLOCKED_CONTENT.equals(content)) {
+            blocked.incrementAndGet();
+        } else if (HELD_CONTENT.equals(content)) {
+            held.incrementAndGet();
+        }
+    }
+
+    private StompFrameHandler handler(java.util.function.Consumer<JsonNode> consumer) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                frames.incrementAndGet();
+                JsonNode body = (JsonNode) payload;
+                // Com o envio agrupado ligado, um frame traz um array
+                if (body.isArray()) {
+                    body.forEach(consumer);
+                } else {
+                    consumer.accept(body);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    // Latências em nanos num array que cresce; ordenado só na hora do relatório
+    static class LatencyRecorder {
+
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
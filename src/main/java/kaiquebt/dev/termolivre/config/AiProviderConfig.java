@@ -0,0 +1,81 @@
+package kaiquebt.dev.termolivre.config;
+
+import kaiquebt.dev.termolivre.service.AiProvider;
+import kaiquebt.dev.termolivre.service.DeepSeekAiProvider;
+import kaiquebt.dev.termolivre.service.HedgedAiProvider;
+import kaiquebt.dev.termolivre.service.ModerationMetrics;
+import kaiquebt.dev.termolivre.service.NgramClassifier;
+import kaiquebt.dev.termolivre.service.TieredAiProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Com um modelo treinado (ClassifierTool), o filtro passa a falar com o classificador local
+// e só a faixa incerta segue para a IA remota. Com moderation.ai.endpoints, a IA remota vira
+// o HedgedAiProvider sobre esses endpoints. Sem nenhum dos dois, nada muda.
+@Configuration
+public class AiProviderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiProviderConfig.class);
+
+    // moderation.ai.endpoints[i].url (obrigatório), .key, .model e .name; vazios usam os de deepseek.api.*
+    public record Endpoint(String name, String url, String key, String model) {
+    }
+
+    @Bean
+    @ConditionalOnProperty("moderation.ai.endpoints[0].url")
+    public HedgedAiProvider hedgedAiProvider(DeepSeekAiProvider deepSeek, ModerationMetrics metrics, Environment environment,
+                                             @Value("${moderation.ai.hedge.percentile:0.95}") double hedgePercentile,
+                                             @Value("${moderation.ai.hedge.min-delay-ms:100}") long minHedgeDelayMs,
+                                             @Value("${moderation.ai.hedge.initial-delay-ms:1000}") long initialHedgeDelayMs,
+                                             @Value("${moderation.ai.eject.failures:3}") int failuresToEject,
+                                             @Value("${moderation.ai.eject.duration-ms:10000}") long ejectMs) {
+        List<Endpoint> configured = Binder.get(environment)
+                .bind("moderation.ai.endpoints", Bindable.listOf(Endpoint.class))
+                .orElse(List.of());
+        List<HedgedAiProvider.Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < configured.size(); i++) {
+            Endpoint endpoint = configured.get(i);
+            if (endpoint.url() == null || endpoint.url().isBlank()) {
+                throw new IllegalArgumentException("moderation.ai.endpoints[" + i + "].url is required");
+            }
+            String name = endpoint.name() != null && !endpoint.name().isBlank() ? endpoint.name() : "endpoint-" + i;
+            endpoints.add(new HedgedAiProvider.Endpoint(name,
+                    deepSeek.forEndpoint(name, endpoint.url(), endpoint.key(), endpoint.model())));
+        }
+        logger.info("AI requests spread over {} endpoints {}; hedging at p{} (min {} ms)", endpoints.size(),
+                endpoints.stream().map(HedgedAiProvider.Endpoint::getName).toList(),
+                Math.round(hedgePercentile * 100), minHedgeDelayMs);
+        return new HedgedAiProvider(endpoints, hedgePercentile, minHedgeDelayMs, initialHedgeDelayMs,
+                failuresToEject, ejectMs, deepSeek.getDegradedPolicy(), metrics);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty("moderation.classifier.model-file")
+    public TieredAiProvider tieredAiProvider(DeepSeekAiProvider deepSeek, ObjectProvider<HedgedAiProvider> hedged,
+                                             ModerationMetrics metrics,
+                                             @Value("${moderation.classifier.model-file}") String modelFile,
+                                             @Value("${moderation.classifier.safe-below:0.05}") double safeBelow,
+                                             @Value("${moderation.classifier.unsafe-above:0.95}") double unsafeAbove) throws IOException {
+        NgramClassifier classifier = NgramClassifier.load(Path.of(modelFile));
+        logger.info("Local classifier loaded from {} ({} bits); safe below {}, unsafe from {}",
+                modelFile, classifier.getBits(), safeBelow, unsafeAbove);
+        HedgedAiProvider endpoints = hedged.getIfAvailable();
+        AiProvider remote = endpoints != null ? endpoints : deepSeek;
+        return new TieredAiProvider(classifier, remote, safeBelow, unsafeAbove, metrics);
+    }
+}
@@ -0,0 +1,21 @@
+package kaiquebt.dev.termolivre.config;
+
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+
+// O que fazer quando um cliente lento acumula mais que o limite do buffer de envio
+public enum OverflowPolicy {
+    // Descarta os frames mais antigos ainda não enviados e mantém a conexão
+    DROP_OLDEST(OverflowStrategy.DROP),
+    // Fecha a sessão; o cliente precisa reconectar
+    DISCONNECT(OverflowStrategy.TERMINATE);
+
+    private final OverflowStrategy strategy;
+
+    OverflowPolicy(OverflowStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public OverflowStrategy getStrategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,36 @@
+package kaiquebt.dev.termolivre.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+// Equivalente a @EnableWebSocketMessageBroker, mas escolhendo o que acontece quando
+// o buffer de envio de uma sessão estoura. O padrão do Spring sempre fecha a sessão;
+// com DROP_OLDEST um navegador lento perde frames antigos em vez de travar o broker.
+@Configuration
+public class WebSocketBrokerConfiguration extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Value("${websocket.overflow-policy:DISCONNECT}")
+    private OverflowPolicy overflowPolicy;
+
+    @Bean
+    @Override
+    public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+                                                        AbstractSubscribableChannel clientOutboundChannel) {
+        SubProtocolWebSocketHandler handler = new SubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel) {
+            @Override
+            protected WebSocketSession decorateSession(WebSocketSession session) {
+                return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(),
+                        getSendBufferSizeLimit(), overflowPolicy.getStrategy());
+            }
+        };
+        handler.setPhase(getPhase());
+        return handler;
+    }
+}
@@ -0,0 +1,100 @@
+package kaiquebt.dev.termolivre.controller;
+
+import kaiquebt.dev.termolivre.model.AnswerSetInfo;
+import kaiquebt.dev.termolivre.service.AnswerSetLoader;
+import kaiquebt.dev.termolivre.service.ChannelModeration;
+import kaiquebt.dev.termolivre.service.ChannelRegistry;
+import kaiquebt.dev.termolivre.service.CompiledAnswerSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final ChannelRegistry channels;
+    private final AnswerSetLoader answerSetLoader;
+
+    // Quando configurado, exigido no header X-Admin-Token
+    @Value("${admin.token:}")
+    private String adminToken;
+
+    public AdminController(ChannelRegistry channels, AnswerSetLoader answerSetLoader) {
+        this.channels = channels;
+        this.answerSetLoader = answerSetLoader;
+    }
+
+    // Sem canal no caminho, vale o canal padrão
+    @GetMapping({"/answers", "/channels/{channel}/answers"})
+    public AnswerSetInfo getAnswers(@RequestHeader(value = "X-Admin-Token", required = false) String token,
+                                    @PathVariable(required = false) String channel) {
+        checkToken(token);
+        return toInfo(resolveChannel(channel).getFilter().getAnswerSet());
+    }
+
+    @PutMapping({"/answers", "/channels/{channel}/answers"})
+    public AnswerSetInfo replaceAnswers(@RequestHeader(value = "X-Admin-Token", required = false) String token,
+                                        @PathVariable(required = false) String channel,
+                                        @RequestBody List<String> answers) {
+        checkToken(token);
+        ChannelModeration moderation = resolveChannel(channel);
+        try {
+            return toInfo(answerSetLoader.replace(moderation.getChannel(), answers));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping({"/answers/reload", "/channels/{channel}/answers/reload"})
+    public AnswerSetInfo reloadAnswers(@RequestHeader(value = "X-Admin-Token", required = false) String token,
+                                       @PathVariable(required = false) String channel) {
+        checkToken(token);
+        ChannelModeration moderation = resolveChannel(channel);
+        try {
+            return toInfo(answerSetLoader.reload(moderation.getChannel()));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not read answers file");
+        }
+    }
+
+    private ChannelModeration resolveChannel(String channel) {
+        if (channel == null) {
+            return channels.getDefault();
+        }
+        ChannelModeration moderation = channels.get(channel);
+        if (moderation == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown channel " + channel);
+        }
+        return moderation;
+    }
+
+    private void checkToken(String token) {
+        if (adminToken == null || adminToken.isEmpty()) {
+            return;
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    private AnswerSetInfo toInfo(CompiledAnswerSet answerSet) {
+        return new AnswerSetInfo(answerSet.getVersion(), answerSet.getAnswers());
+    }
+}
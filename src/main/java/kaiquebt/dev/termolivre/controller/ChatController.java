@@ -1,41 +1,103 @@
 package kaiquebt.dev.termolivre.controller;
 
-import kaiquebt.dev.termolivre.service.ChatService;
-import kaiquebt.dev.termolivre.service.TermoFilter;
+import kaiquebt.dev.termolivre.service.AiFallbackException;
+import kaiquebt.dev.termolivre.service.AuditLog;
+import kaiquebt.dev.termolivre.service.ChannelModeration;
+import kaiquebt.dev.termolivre.service.ChannelRegistry;
+import kaiquebt.dev.termolivre.service.ChatBroadcaster;
 import kaiquebt.dev.termolivre.model.ChatMessage;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class ChatController {
 
-    private final ChatService chatService;
-    
-    @Autowired
-    private TermoFilter termoFilter;
+    private final ChannelRegistry channels;
+    private final ChatBroadcaster broadcaster;
+    private final AuditLog auditLog;
 
-    public ChatController(ChatService chatService) {
-        this.chatService = chatService;
+    public ChatController(ChannelRegistry channels, ChatBroadcaster broadcaster, AuditLog auditLog) {
+        this.channels = channels;
+        this.broadcaster = broadcaster;
+        this.auditLog = auditLog;
     }
 
     @GetMapping("/")
-    public String chatPage(Model model) {
-        model.addAttribute("channel", chatService.getChatChannel());
+    public String chatPage(@RequestParam(value = "channel", required = false) String channel, Model model) {
+        ChannelModeration moderation = channels.get(channel);
+        if (moderation == null) {
+            moderation = channels.getDefault();
+        }
+        model.addAttribute("channel", moderation.getChannel());
         return "chat";
     }
 
+    // Últimas mensagens do canal, da mais antiga para a mais nova
+    @GetMapping("/channels/{channel}/messages")
+    @ResponseBody
+    public List<ChatMessage> recentMessages(@PathVariable String channel) {
+        ChannelModeration moderation = channels.get(channel);
+        if (moderation == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown channel " + channel);
+        }
+        return moderation.getRecentMessages().snapshot();
+    }
+
+    // Respondido direto para a sessão que assina /app/{canal}/backlog, ao conectar ou reconectar
+    @SubscribeMapping("/{channel}/backlog")
+    public List<ChatMessage> backlog(@DestinationVariable String channel) {
+        ChannelModeration moderation = channels.get(channel);
+        return moderation == null ? List.of() : moderation.getRecentMessages().snapshot();
+    }
+
     @MessageMapping("/chat")
-    @SendTo("/topic/messages")
-    public ChatMessage handleChatMessage(ChatMessage message) {
-        // Verificar se o conteúdo da mensagem é seguro
-        if (!termoFilter.isMessageSafe(message.getContent())) {
-            // Substituir por mensagem de deletada
-            return new ChatMessage("this message was deleted", message.getSender(), message.getTimestamp());
+    public void handleChatMessage(ChatMessage message) {
+        handleChannelChatMessage(channels.getDefault().getChannel(), message);
+    }
+
+    @MessageMapping("/{channel}/chat")
+    public void handleChannelChatMessage(@DestinationVariable String channel, ChatMessage message) {
+        // Só canais acompanhados por esta instância têm destino
+        ChannelModeration moderation = channels.get(channel);
+        if (moderation == null) {
+            return;
+        }
+        // Id sempre do servidor: um id escolhido pelo cliente poderia colidir com (e atualizar) o de outra mensagem
+        message.setId(UUID.randomUUID().toString());
+        if (message.getTimestamp() == 0) {
+            message.setTimestamp(System.currentTimeMillis());
         }
-        return message;
+        // Verificar se o conteúdo da mensagem é seguro sem prender a thread do broker
+        long receivedAt = System.nanoTime();
+        CompletableFuture<Boolean> verdict = moderation.getFilter()
+                .isEachMessageSafeAsync(Collections.singletonList(message.getContent())).get(0);
+        verdict.handle((modelSafe, error) -> {
+            // Sem veredito do modelo: vale o fallback, registrado como tal
+            boolean safe = error == null ? modelSafe : !AiFallbackException.unsafeVerdict(error);
+            AuditLog.Decision decision = error == null ? AuditLog.Decision.CLIENT : AuditLog.fallbackDecision(error);
+            auditLog.record(decision, moderation.getChannel(), message.getId(), null, safe,
+                    System.nanoTime() - receivedAt, moderation.getFilter().getAnswerSet().getVersion(), message.getContent());
+            if (!safe) {
+                // Substituir por mensagem de deletada
+                message.setContent("this message was deleted");
+            }
+            moderation.getRecentMessages().add(message);
+            broadcaster.sendMessage(moderation.getMessagesDestination(), message);
+            return null;
+        });
     }
 }
@@ -0,0 +1,15 @@
+package kaiquebt.dev.termolivre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSetInfo {
+    private long version;
+    private Set<String> answers;
+}
@@ -0,0 +1,16 @@
+package kaiquebt.dev.termolivre.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Enviado em /user/queue/errors para a sessão que teve uma mensagem recusada
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatError {
+    // too_large, rate_limited ou overloaded
+    private String reason;
+    // Quanto esperar antes de tentar de novo; 0 quando não adianta (mensagem grande demais)
+    private long retryAfterMs;
+}
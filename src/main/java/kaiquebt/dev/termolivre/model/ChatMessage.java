@@ -1,16 +1,35 @@
 package kaiquebt.dev.termolivre.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonPropertyOrder({"id", "sender", "content", "timestamp", "repeats", "senders"})
 public class ChatMessage {
     private String content;
     private String sender;
-    private LocalDateTime timestamp;
+    // Epoch millis: mais curto no fio que a data ISO e sem fuso ambíguo
+    private long timestamp;
+    // Identifica a mensagem para atualizações posteriores (retratação, liberação)
+    private String id;
+    // Cópias absorvidas por esta mensagem durante um flood, e de quantos usuários; 0 fora do fio
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int repeats;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int senders;
+
+    public ChatMessage(String content, String sender, long timestamp) {
+        this(content, sender, timestamp, UUID.randomUUID().toString());
+    }
+
+    public ChatMessage(String content, String sender, long timestamp, String id) {
+        this(content, sender, timestamp, id, 0, 0);
+    }
 }
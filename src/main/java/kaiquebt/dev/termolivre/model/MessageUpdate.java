@@ -0,0 +1,28 @@
+package kaiquebt.dev.termolivre.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Substitui o conteúdo de uma mensagem já publicada, quando o veredito da IA chega atrasado,
+// ou atualiza a contagem de repetições de um flood (aí sem conteúdo)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageUpdate {
+    private String id;
+    // null mantém o conteúdo exibido
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String content;
+    // true quando a mensagem foi retirada por conter a resposta
+    private boolean retracted;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int repeats;
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private int senders;
+
+    public MessageUpdate(String id, String content, boolean retracted) {
+        this(id, content, retracted, 0, 0);
+    }
+}
@@ -0,0 +1,51 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Quantas mensagens cabem num lote para a IA, ajustado pelo que a API mostra:
+// cresce um a um enquanto as respostas chegam dentro do alvo e alinhadas,
+// cai pela metade quando ficam lentas, falham ou voltam com a contagem errada.
+class AdaptiveBatchSize {
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyNanos;
+    private final AtomicInteger size;
+
+    AdaptiveBatchSize(int initialSize, int minSize, int maxSize, long targetLatencyMillis) {
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.size = new AtomicInteger(clamp(initialSize));
+    }
+
+    int current() {
+        return size.get();
+    }
+
+    void onResponse(long latencyNanos) {
+        if (latencyNanos > targetLatencyNanos) {
+            shrink();
+        } else {
+            size.updateAndGet(current -> clamp(current + 1));
+        }
+    }
+
+    // Lotes longos confundem o modelo na contagem; erro ou timeout também pede lotes menores
+    void onMismatch() {
+        shrink();
+    }
+
+    void onFailure() {
+        shrink();
+    }
+
+    private void shrink() {
+        size.updateAndGet(current -> clamp(current / 2));
+    }
+
+    private int clamp(int value) {
+        return Math.min(maxSize, Math.max(minSize, value));
+    }
+}
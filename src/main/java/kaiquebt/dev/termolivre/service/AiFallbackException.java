@@ -0,0 +1,71 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+// Mensagem que ficou sem veredito do modelo: erro ou resposta incompleta da API, mensagem longa demais,
+// disjuntor aberto, bulkhead ou fila cheia. O futuro do veredito termina com esta exceção em vez de um
+// valor, para o fallback não ir para o cache como se a IA tivesse respondido; unsafe é o que vale no lugar.
+public class AiFallbackException extends RuntimeException {
+
+    private final String reason;
+    private final boolean unsafe;
+    private final boolean degraded;
+
+    public AiFallbackException(String reason, boolean unsafe) {
+        this(reason, unsafe, null);
+    }
+
+    public AiFallbackException(String reason, boolean unsafe, Throwable cause) {
+        this(reason, unsafe, false, cause);
+    }
+
+    private AiFallbackException(String reason, boolean unsafe, boolean degraded, Throwable cause) {
+        // Sem stack trace: numa queda da API sai uma por mensagem
+        super("No AI verdict: " + reason, cause, false, false);
+        this.reason = reason;
+        this.unsafe = unsafe;
+        this.degraded = degraded;
+    }
+
+    // Nem tentou a API (disjuntor aberto, bulkhead cheio): o veredito é o da política degradada
+    public static AiFallbackException degraded(String reason, boolean unsafe) {
+        return new AiFallbackException(reason, unsafe, true, null);
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public boolean isUnsafe() {
+        return unsafe;
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    // A exceção que terminou um futuro de veredito; erros inesperados viram fallback seguro
+    public static AiFallbackException of(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof AiFallbackException fallback ? fallback : new AiFallbackException("error", false, cause);
+    }
+
+    // false para erros inesperados (bug, não queda da IA), que merecem log próprio
+    public static boolean isFallback(Throwable error) {
+        return unwrap(error) instanceof AiFallbackException;
+    }
+
+    // Veredito a aplicar quando o futuro terminou com erro (true = bloquear)
+    public static boolean unsafeVerdict(Throwable error) {
+        return of(error).isUnsafe();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -1,7 +1,47 @@
 package kaiquebt.dev.termolivre.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface AiProvider {
     List<Boolean> analyzeMessagesForTermoAnswers(List<String> messages);
+
+    // Variante não bloqueante: junta os vereditos de analyzeEachMessageAsync na ordem das mensagens,
+    // com o veredito de fallback no lugar das que ficaram sem resposta do modelo
+    default CompletableFuture<List<Boolean>> analyzeMessagesForTermoAnswersAsync(List<String> messages) {
+        List<CompletableFuture<Boolean>> each = analyzeEachMessageAsync(messages);
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(each.size());
+        for (CompletableFuture<Boolean> verdict : each) {
+            verdicts.add(verdict.exceptionally(AiFallbackException::unsafeVerdict));
+        }
+        return collect(verdicts);
+    }
+
+    // Um futuro por mensagem, na mesma ordem. Provedores que fazem I/O devem sobrescrever; os que
+    // recebem o veredito aos poucos (streaming) liberam cada um assim que chega.
+    // Sem veredito do modelo para uma mensagem, o futuro dela termina com AiFallbackException
+    default List<CompletableFuture<Boolean>> analyzeEachMessageAsync(List<String> messages) {
+        CompletableFuture<List<Boolean>> batch = CompletableFuture.supplyAsync(() -> analyzeMessagesForTermoAnswers(messages));
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            int index = i;
+            verdicts.add(batch.thenApply(results -> {
+                if (index >= results.size()) {
+                    throw new AiFallbackException("missing", false);
+                }
+                return results.get(index);
+            }));
+        }
+        return verdicts;
+    }
+
+    // Completa com a lista quando o último veredito chega
+    static CompletableFuture<List<Boolean>> collect(List<CompletableFuture<Boolean>> verdicts) {
+        return CompletableFuture.allOf(verdicts.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<Boolean> results = new ArrayList<>(verdicts.size());
+            verdicts.forEach(verdict -> results.add(verdict.join()));
+            return results;
+        });
+    }
 }
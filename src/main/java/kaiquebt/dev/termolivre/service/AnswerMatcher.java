@@ -0,0 +1,236 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Autômato Aho-Corasick compilado a partir do conjunto de respostas.
+// Construído uma única vez; cada mensagem limpa é varrida em uma só passada,
+// independente de quantas respostas estão carregadas.
+// A trie é esparsa (filhos em lista encadeada, raiz em tabela direta) para que
+// dicionários de milhares de palavras compilem rápido e ocupem pouca memória.
+public final class AnswerMatcher {
+
+    public record Match(String answer, MatchKind kind, String pattern, int start, int end) {
+    }
+
+    private record Pattern(String text, String answer, MatchKind kind) {
+    }
+
+    // Só caracteres ASCII entram nos padrões; o resto leva de volta à raiz
+    private static final int ASCII = 128;
+    private static final int NONE = -1;
+
+    private final int[] rootNext;
+    private final char[] label;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] fail;
+    private final int[] outputLink;
+    private final int[] firstPattern;
+    private final int[] nextPattern;
+    private final Pattern[] patterns;
+
+    private AnswerMatcher(Builder builder) {
+        this.rootNext = builder.rootNext;
+        this.label = Arrays.copyOf(builder.label, builder.nodeCount);
+        this.firstChild = Arrays.copyOf(builder.firstChild, builder.nodeCount);
+        this.nextSibling = Arrays.copyOf(builder.nextSibling, builder.nodeCount);
+        this.fail = Arrays.copyOf(builder.fail, builder.nodeCount);
+        this.outputLink = Arrays.copyOf(builder.outputLink, builder.nodeCount);
+        this.firstPattern = Arrays.copyOf(builder.firstPattern, builder.nodeCount);
+        this.nextPattern = builder.nextPattern;
+        this.patterns = builder.patterns.toArray(new Pattern[0]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return patterns.length;
+    }
+
+    public boolean matches(CharSequence text) {
+        return find(text) != null;
+    }
+
+    public Match find(CharSequence text) {
+        if (text == null || patterns.length == 0) {
+            return null;
+        }
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= ASCII) {
+                state = 0;
+                continue;
+            }
+            state = step(state, c);
+
+            // Percorre a cadeia de estados com saída (sufixos que também são padrões)
+            for (int s = firstPattern[state] != NONE ? state : outputLink[state]; s > 0; s = outputLink[s]) {
+                for (int id = firstPattern[s]; id != NONE; id = nextPattern[id]) {
+                    Pattern pattern = patterns[id];
+                    int start = i - pattern.text().length() + 1;
+                    int end = i + 1;
+                    if (!pattern.kind().isWholeWord() || isWordBoundary(text, start, end)) {
+                        return new Match(pattern.answer(), pattern.kind(), pattern.text(), start, end);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private int step(int state, char c) {
+        while (state != 0) {
+            int next = child(firstChild, nextSibling, label, state, c);
+            if (next != NONE) {
+                return next;
+            }
+            state = fail[state];
+        }
+        int next = rootNext[c];
+        return next == NONE ? 0 : next;
+    }
+
+    private static int child(int[] firstChild, int[] nextSibling, char[] label, int state, char c) {
+        for (int node = firstChild[state]; node != NONE; node = nextSibling[node]) {
+            if (label[node] == c) {
+                return node;
+            }
+        }
+        return NONE;
+    }
+
+    // Equivalente ao \b da regex antiga para texto já limpo
+    private static boolean isWordBoundary(CharSequence text, int start, int end) {
+        boolean left = start == 0 || !isWordChar(text.charAt(start - 1));
+        boolean right = end == text.length() || !isWordChar(text.charAt(end));
+        return left && right;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    public static final class Builder {
+
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        private int[] rootNext;
+        private char[] label;
+        private int[] firstChild;
+        private int[] nextSibling;
+        private int[] fail;
+        private int[] outputLink;
+        private int[] firstPattern;
+        private int[] nextPattern;
+        private int nodeCount;
+
+        private Builder() {
+        }
+
+        public Builder add(String pattern, String answer, MatchKind kind) {
+            if (pattern == null || pattern.isEmpty()) {
+                return this;
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) >= ASCII) {
+                    throw new IllegalArgumentException("Pattern must be normalized ASCII: " + pattern);
+                }
+            }
+            patterns.add(new Pattern(pattern, answer, kind));
+            return this;
+        }
+
+        public Builder addWord(String word) {
+            return add(word, word, MatchKind.DIRECT);
+        }
+
+        public AnswerMatcher build() {
+            // Cada caractere de padrão cria no máximo um nó
+            int capacity = 1;
+            for (Pattern pattern : patterns) {
+                capacity += pattern.text().length();
+            }
+            rootNext = filled(ASCII);
+            label = new char[capacity];
+            firstChild = filled(capacity);
+            nextSibling = filled(capacity);
+            fail = new int[capacity];
+            outputLink = new int[capacity];
+            firstPattern = filled(capacity);
+            nextPattern = filled(patterns.size());
+            int[] lastPattern = filled(capacity);
+            nodeCount = 1;
+
+            // Trie
+            for (int id = 0; id < patterns.size(); id++) {
+                String text = patterns.get(id).text();
+                int state = 0;
+                for (int i = 0; i < text.length(); i++) {
+                    state = childOrCreate(state, text.charAt(i));
+                }
+                // Mantém a ordem de inserção entre padrões iguais
+                if (firstPattern[state] == NONE) {
+                    firstPattern[state] = id;
+                } else {
+                    nextPattern[lastPattern[state]] = id;
+                }
+                lastPattern[state] = id;
+            }
+
+            // Links de falha e de saída em largura
+            int[] queue = new int[nodeCount];
+            int head = 0;
+            int tail = 0;
+            for (int c = 0; c < ASCII; c++) {
+                if (rootNext[c] != NONE) {
+                    queue[tail++] = rootNext[c];
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                for (int node = firstChild[state]; node != NONE; node = nextSibling[node]) {
+                    char c = label[node];
+                    int target = fail[state];
+                    int next = target == 0 ? rootNext[c] : child(firstChild, nextSibling, label, target, c);
+                    while (next == NONE && target != 0) {
+                        target = fail[target];
+                        next = target == 0 ? rootNext[c] : child(firstChild, nextSibling, label, target, c);
+                    }
+                    fail[node] = next == NONE ? 0 : next;
+                    int failState = fail[node];
+                    outputLink[node] = firstPattern[failState] != NONE ? failState : outputLink[failState];
+                    queue[tail++] = node;
+                }
+            }
+            return new AnswerMatcher(this);
+        }
+
+        private int childOrCreate(int state, char c) {
+            int existing = state == 0 ? rootNext[c] : child(firstChild, nextSibling, label, state, c);
+            if (existing != NONE) {
+                return existing;
+            }
+            int node = nodeCount++;
+            label[node] = c;
+            if (state == 0) {
+                rootNext[c] = node;
+            } else {
+                nextSibling[node] = firstChild[state];
+                firstChild[state] = node;
+            }
+            return node;
+        }
+
+        private static int[] filled(int size) {
+            int[] array = new int[size];
+            Arrays.fill(array, NONE);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package kaiquebt.dev.termolivre.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Carrega as respostas do termo em tempo de execução, a partir de arquivos
+// (uma palavra por linha, '#' para comentários) observados por mudanças.
+// termo.answers.file vale para o canal padrão; em termo.answers.dir, <canal>.txt vale para cada canal.
+// A compilação acontece aqui, fora das threads de moderação; o filtro só troca a referência.
+@Service
+@RequiredArgsConstructor
+public class AnswerSetLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnswerSetLoader.class);
+
+    // Editores costumam gravar o arquivo em mais de um passo
+    private static final long RELOAD_DEBOUNCE_MS = 200;
+
+    private final ChannelRegistry channels;
+
+    @Value("${termo.answers.file:}")
+    private String answersFile;
+
+    @Value("${termo.answers.dir:}")
+    private String answersDir;
+
+    // Arquivo de cada canal, resolvido no init
+    private final Map<String, Path> channelFiles = new LinkedHashMap<>();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    @PostConstruct
+    public void init() {
+        if (answersFile != null && !answersFile.isBlank()) {
+            channelFiles.put(channels.getDefault().getChannel(), Paths.get(answersFile).toAbsolutePath());
+        }
+        if (answersDir != null && !answersDir.isBlank()) {
+            Path directory = Paths.get(answersDir).toAbsolutePath();
+            for (ChannelModeration channel : channels.getChannels()) {
+                channelFiles.putIfAbsent(channel.getChannel(), directory.resolve(channel.getChannel() + ".txt"));
+            }
+        }
+        if (channelFiles.isEmpty()) {
+            logger.info("No termo.answers.file or termo.answers.dir configured; using built-in answers");
+            return;
+        }
+
+        for (Map.Entry<String, Path> entry : channelFiles.entrySet()) {
+            if (!Files.exists(entry.getValue())) {
+                logger.info("No answers file {} for channel {}; using built-in answers", entry.getValue(), entry.getKey());
+                continue;
+            }
+            try {
+                reload(entry.getKey());
+            } catch (IOException | IllegalArgumentException e) {
+                logger.error("Could not load answers for {} from {}; using built-in answers",
+                        entry.getKey(), entry.getValue(), e);
+            }
+        }
+        startWatcher();
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.debug("Error closing answers watch service", e);
+            }
+        }
+    }
+
+    public CompiledAnswerSet reloadFromFile() throws IOException {
+        return reload(channels.getDefault().getChannel());
+    }
+
+    public CompiledAnswerSet reload(String channel) throws IOException {
+        ChannelModeration moderation = requireChannel(channel);
+        Path file = channelFiles.get(moderation.getChannel());
+        if (file == null) {
+            throw new IllegalStateException("No answers file configured for channel " + moderation.getChannel());
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        return replace(moderation.getChannel(), parse(lines));
+    }
+
+    public CompiledAnswerSet replace(Collection<String> answers) {
+        return replace(channels.getDefault().getChannel(), answers);
+    }
+
+    public CompiledAnswerSet replace(String channel, Collection<String> answers) {
+        ChannelModeration moderation = requireChannel(channel);
+        // Um conjunto vazio desligaria o filtro por regras; mantemos o anterior
+        if (answers == null || answers.stream().allMatch(answer -> answer == null || answer.isBlank())) {
+            throw new IllegalArgumentException("Answer set must not be empty");
+        }
+        long start = System.nanoTime();
+        CompiledAnswerSet compiled = moderation.getFilter().updateAnswers(answers);
+        logger.info("Loaded answer set version {} for {} with {} answers in {} ms", compiled.getVersion(),
+                moderation.getChannel(), compiled.getAnswers().size(), (System.nanoTime() - start) / 1_000_000);
+        return compiled;
+    }
+
+    static List<String> parse(List<String> lines) {
+        List<String> answers = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                answers.add(trimmed);
+            }
+        }
+        return answers;
+    }
+
+    private ChannelModeration requireChannel(String channel) {
+        ChannelModeration moderation = channels.get(channel);
+        if (moderation == null) {
+            throw new IllegalArgumentException("Unknown channel " + channel);
+        }
+        return moderation;
+    }
+
+    private void startWatcher() {
+        Set<Path> directories = new LinkedHashSet<>();
+        channelFiles.values().forEach(file -> directories.add(file.getParent()));
+        try {
+            watchService = directories.iterator().next().getFileSystem().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            logger.error("Could not watch {} for answer changes", directories, e);
+            return;
+        }
+
+        watcher = new Thread(this::watch, "answers-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching {} for answer changes", channelFiles.values());
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<String> changed = new LinkedHashSet<>();
+                collectChanges(watchService.take(), changed);
+                if (changed.isEmpty()) {
+                    continue;
+                }
+
+                Thread.sleep(RELOAD_DEBOUNCE_MS);
+                // Junta eventos do mesmo salvamento
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    collectChanges(pending, changed);
+                }
+                for (String channel : changed) {
+                    try {
+                        reload(channel);
+                    } catch (IOException | IllegalArgumentException e) {
+                        logger.error("Could not reload answers for {} from {}; keeping version {}", channel,
+                                channelFiles.get(channel), channels.get(channel).getFilter().getAnswerSet().getVersion(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Answers watch service closed");
+        }
+    }
+
+    private void collectChanges(WatchKey key, Set<String> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (!(event.context() instanceof Path name)) {
+                continue;
+            }
+            Path file = directory.resolve(name);
+            channelFiles.forEach((channel, channelFile) -> {
+                if (channelFile.equals(file)) {
+                    changed.add(channel);
+                }
+            });
+        }
+        key.reset();
+    }
+}
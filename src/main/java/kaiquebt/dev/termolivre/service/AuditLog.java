@@ -0,0 +1,293 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Trilha de auditoria das decisões de moderação, num arquivo binário só de acréscimo.
+// Quem decide só enfileira (fila sem lock, com limite: cheia, o registro é descartado e contado);
+// uma thread própria grava, troca de arquivo ao passar de max-file-bytes e apaga os mais antigos
+// além de max-files. Lido offline por AuditLogReader / AuditLogTool.
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    static final int MAGIC = 0x544c4155; // "TLAU"
+    // 2: taxa de amostragem no cabeçalho; 3: cada registro precedido do tamanho e do CRC32
+    static final int FORMAT = 3;
+    // Nenhum registro válido passa disso (três textos de até 2000 chars); o leitor para num tamanho maior
+    static final int MAX_RECORD_BYTES = 64 * 1024;
+    static final String FILE_PREFIX = "audit-";
+    static final String FILE_SUFFIX = ".bin";
+    // writeUTF aceita até 64 KB; mensagens da Twitch ficam bem abaixo disso
+    private static final int MAX_TEXT_LENGTH = 2000;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    // Só acrescentar valores no fim: o arquivo guarda a posição
+    public enum Decision {
+        // Regra local (resposta direta ou ofuscada)
+        RULE,
+        // Veredito da IA (ou do cache e do classificador local) dentro do orçamento
+        AI,
+        // Orçamento estourado ou fila do canal cheia; safe diz se a mensagem sai como estava (PUBLISH, ou HOLD sem IA)
+        DEADLINE,
+        // Veredito que chegou depois do orçamento
+        LATE,
+        // Mensagem enviada por um cliente pelo WebSocket
+        CLIENT,
+        // Sem veredito da IA (erro, resposta incompleta, fila cheia): safe é o do fallback, não um rótulo
+        FALLBACK,
+        // IA nem chamada (disjuntor aberto, bulkhead cheio): safe é o da política degradada
+        DEGRADED,
+        // Cópia absorvida por um flood: sem moderação nem publicação própria, herda o veredito da
+        // representante (o registro dela); safe é sempre true
+        FLOOD
+    }
+
+    // Decisão de um veredito que terminou sem o modelo (AiFallbackException)
+    public static Decision fallbackDecision(Throwable error) {
+        return AiFallbackException.of(error).isDegraded() ? Decision.DEGRADED : Decision.FALLBACK;
+    }
+
+    // ruleKind só nas decisões RULE; latência desde a chegada da mensagem
+    public record Entry(long timestampMillis, Decision decision, String channel, String messageId,
+                        MatchKind ruleKind, boolean safe, long latencyNanos, long answerSetVersion, String content) {
+    }
+
+    @Autowired(required = false)
+    private ModerationMetrics metrics = new ModerationMetrics();
+
+    // Vazio desliga a auditoria
+    @Value("${moderation.audit.dir:}")
+    private String dir;
+
+    // Fração das mensagens liberadas que é registrada; bloqueios e estouros de orçamento sempre entram.
+    // Vai no cabeçalho de cada arquivo, para o leitor repor o peso das liberadas
+    @Value("${moderation.audit.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${moderation.audit.queue-size:65536}")
+    private int queueSize;
+
+    @Value("${moderation.audit.max-file-bytes:67108864}")
+    private long maxFileBytes;
+
+    @Value("${moderation.audit.max-files:10}")
+    private int maxFiles;
+
+    // Sem registros na fila, a thread de gravação descarrega o buffer e dorme este tanto
+    @Value("${moderation.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile boolean enabled;
+    private volatile boolean running;
+    private Thread writer;
+    private Path directory;
+    private DataOutputStream out;
+    private Path currentFile;
+    // Usados só pela thread de gravação
+    private final RecordBuffer record = new RecordBuffer();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    // Expõe o array interno, para o CRC e a gravação não copiarem o registro
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        RecordBuffer() {
+            super(512);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (dir == null || dir.isBlank()) {
+            return;
+        }
+        directory = Path.of(dir);
+        Files.createDirectories(directory);
+        running = true;
+        enabled = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Moderation audit log in {} (sample rate {}, {} files of up to {} bytes)",
+                directory.toAbsolutePath(), sampleRate, maxFiles, maxFileBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(Decision decision, String channel, String messageId, MatchKind ruleKind, boolean safe,
+                       long latencyNanos, long answerSetVersion, String content) {
+        if (!enabled) {
+            return;
+        }
+        if (safe && decision != Decision.DEADLINE && sampleRate < 1
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        if (queued.incrementAndGet() > queueSize) {
+            // Gravação atrasada: perde o registro em vez de segurar a moderação
+            queued.decrementAndGet();
+            metrics.auditRecord("dropped");
+            return;
+        }
+        queue.offer(new Entry(System.currentTimeMillis(), decision, channel, messageId, ruleKind, safe,
+                latencyNanos, answerSetVersion, content));
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    // Grava o que está na fila e fecha o arquivo
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        enabled = false;
+    }
+
+    private void writeLoop() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        while (running || !queue.isEmpty()) {
+            Entry entry = queue.poll();
+            try {
+                if (entry == null) {
+                    if (out != null) {
+                        out.flush();
+                    }
+                    LockSupport.parkNanos(flushIntervalNanos);
+                    continue;
+                }
+                queued.decrementAndGet();
+                write(entry);
+                metrics.auditRecord("written");
+            } catch (IOException e) {
+                // Disco cheio ou arquivo removido: o próximo registro vai para um arquivo novo
+                logger.warn("Could not write audit log {}", currentFile, e);
+                if (entry != null) {
+                    metrics.auditRecord("dropped");
+                }
+                closeQuietly();
+            }
+        }
+        closeQuietly();
+    }
+
+    private void write(Entry entry) throws IOException {
+        if (out == null || out.size() >= maxFileBytes) {
+            rotate();
+        }
+        // Montado inteiro antes: no arquivo, um registro cortado ou corrompido não passa pelo tamanho e CRC
+        record.reset();
+        recordOut.writeLong(entry.timestampMillis());
+        recordOut.writeByte(entry.decision().ordinal());
+        recordOut.writeUTF(entry.ruleKind() == null ? "" : entry.ruleKind().name());
+        recordOut.writeBoolean(entry.safe());
+        recordOut.writeLong(entry.latencyNanos());
+        recordOut.writeLong(entry.answerSetVersion());
+        recordOut.writeUTF(text(entry.channel()));
+        recordOut.writeUTF(text(entry.messageId()));
+        recordOut.writeUTF(text(entry.content()));
+        crc.reset();
+        crc.update(record.array(), 0, record.size());
+        out.writeInt(record.size());
+        out.writeInt((int) crc.getValue());
+        out.write(record.array(), 0, record.size());
+    }
+
+    private void rotate() throws IOException {
+        closeQuietly();
+        // O contador desempata arquivos do mesmo milissegundo; a ordem dos nomes é a ordem de gravação
+        String time = LocalDateTime.now().format(FILE_TIME);
+        Path file = null;
+        for (int i = 0; file == null || Files.exists(file); i++) {
+            file = directory.resolve(String.format("%s%s-%02d%s", FILE_PREFIX, time, i, FILE_SUFFIX));
+        }
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeDouble(sampleRate);
+        currentFile = file;
+        deleteOldFiles();
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> files = listFiles(directory);
+        for (int i = 0; i < files.size() - Math.max(1, maxFiles); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.debug("Error closing audit log {}", currentFile, e);
+        }
+        out = null;
+    }
+
+    // Arquivos de auditoria do diretório, do mais antigo para o mais novo
+    static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    static String text(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.length() <= MAX_TEXT_LENGTH) {
+            return value;
+        }
+        // Sem cortar um emoji ao meio: o surrogate sozinho viraria '?' na leitura
+        int end = Character.isHighSurrogate(value.charAt(MAX_TEXT_LENGTH - 1)) ? MAX_TEXT_LENGTH - 1 : MAX_TEXT_LENGTH;
+        return value.substring(0, end);
+    }
+}
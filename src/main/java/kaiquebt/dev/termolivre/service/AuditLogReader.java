@@ -0,0 +1,158 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.zip.CRC32;
+
+// Leitura offline dos arquivos gravados por AuditLog, na ordem de gravação.
+// Um arquivo cortado no meio de um registro (processo morto antes do flush) termina no último inteiro;
+// a partir do formato 3, também um registro com tamanho ou CRC que não conferem.
+public final class AuditLogReader {
+
+    private static final AuditLog.Decision[] DECISIONS = AuditLog.Decision.values();
+
+    private AuditLogReader() {
+    }
+
+    // Um arquivo, ou todos os arquivos de auditoria de um diretório; devolve quantos registros leu
+    public static long read(Path path, Consumer<AuditLog.Entry> consumer) throws IOException {
+        return readSampled(path, (entry, sampleRate) -> consumer.accept(entry));
+    }
+
+    // Com a taxa de amostragem do arquivo de cada registro
+    static long readSampled(Path path, ObjDoubleConsumer<AuditLog.Entry> consumer) throws IOException {
+        List<Path> files = Files.isDirectory(path) ? AuditLog.listFiles(path) : List.of(path);
+        long count = 0;
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                count += readSampled(in, consumer);
+            }
+        }
+        return count;
+    }
+
+    // Exemplos rotulados para o classificador local: regra e IA valem como rótulo; estouro de orçamento,
+    // fallback, modo degradado e cópias de flood não (sem veredito próprio). O mesmo texto aparece uma vez, com o veredito
+    // mais recente. Só as liberadas são amostradas, então cada uma vale 1/taxa de amostragem
+    public static List<NgramClassifier.Example> labeledExamples(Path path) throws IOException {
+        Map<String, NgramClassifier.Example> labels = new LinkedHashMap<>();
+        readSampled(path, (entry, sampleRate) -> {
+            if (isLabel(entry.decision()) && !entry.content().isBlank()) {
+                double weight = entry.safe() && sampleRate > 0 ? 1 / sampleRate : 1;
+                labels.put(entry.content(), new NgramClassifier.Example(entry.content(), !entry.safe(), weight));
+            }
+        });
+        return new ArrayList<>(labels.values());
+    }
+
+    private static boolean isLabel(AuditLog.Decision decision) {
+        return switch (decision) {
+            case DEADLINE, FALLBACK, DEGRADED, FLOOD -> false;
+            default -> true;
+        };
+    }
+
+    static long read(InputStream stream, Consumer<AuditLog.Entry> consumer) throws IOException {
+        return readSampled(stream, (entry, sampleRate) -> consumer.accept(entry));
+    }
+
+    static long readSampled(InputStream stream, ObjDoubleConsumer<AuditLog.Entry> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+        int format;
+        double sampleRate;
+        try {
+            if (in.readInt() != AuditLog.MAGIC) {
+                throw new IOException("Not an audit log file");
+            }
+            format = in.readInt();
+            if (format < 1 || format > AuditLog.FORMAT) {
+                throw new IOException("Unsupported audit log format " + format);
+            }
+            // O formato 1 não guardava a taxa; arquivos dele eram gravados com o padrão 1.0
+            sampleRate = format >= 2 ? in.readDouble() : 1.0;
+        } catch (EOFException e) {
+            // Criado e ainda sem cabeçalho completo
+            return 0;
+        }
+        if (format >= 3) {
+            return readChecked(in, sampleRate, consumer);
+        }
+        long count = 0;
+        while (true) {
+            AuditLog.Entry entry;
+            try {
+                entry = readEntry(in);
+            } catch (EOFException e) {
+                return count;
+            }
+            consumer.accept(entry, sampleRate);
+            count++;
+        }
+    }
+
+    // Formato 3: tamanho, CRC32 e o registro; o primeiro que não confere encerra a leitura
+    private static long readChecked(DataInputStream in, double sampleRate, ObjDoubleConsumer<AuditLog.Entry> consumer)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        long count = 0;
+        while (true) {
+            byte[] body;
+            int checksum;
+            try {
+                int length = in.readInt();
+                checksum = in.readInt();
+                if (length < 0 || length > AuditLog.MAX_RECORD_BYTES) {
+                    return count;
+                }
+                body = new byte[length];
+                in.readFully(body);
+            } catch (EOFException e) {
+                return count;
+            }
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                return count;
+            }
+            AuditLog.Entry entry;
+            try {
+                entry = readEntry(new DataInputStream(new ByteArrayInputStream(body)));
+            } catch (EOFException e) {
+                return count;
+            }
+            consumer.accept(entry, sampleRate);
+            count++;
+        }
+    }
+
+    private static AuditLog.Entry readEntry(DataInput in) throws IOException {
+        long timestampMillis = in.readLong();
+        int decision = in.readUnsignedByte();
+        String ruleKind = in.readUTF();
+        boolean safe = in.readBoolean();
+        long latencyNanos = in.readLong();
+        long answerSetVersion = in.readLong();
+        String channel = in.readUTF();
+        String messageId = in.readUTF();
+        String content = in.readUTF();
+        if (decision >= DECISIONS.length) {
+            throw new IOException("Unknown audit decision " + decision);
+        }
+        return new AuditLog.Entry(timestampMillis, DECISIONS[decision], channel, messageId,
+                ruleKind.isEmpty() ? null : MatchKind.valueOf(ruleKind), safe, latencyNanos,
+                answerSetVersion, content);
+    }
+}
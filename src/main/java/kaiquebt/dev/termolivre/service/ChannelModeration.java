@@ -0,0 +1,85 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Tudo que a moderação de um canal usa de forma isolada: respostas e cache próprios
+// (no filtro), threads e fila de moderação, fila e worker de lotes, agendador do orçamento de latência,
+// ordem de publicação, detecção de flood e últimas mensagens.
+public class ChannelModeration {
+
+    private final String channel;
+    private final TermoFilter filter;
+    private final ThreadPoolExecutor workers;
+    private final ModerationBatcher batcher;
+    private final LatencyBudget latencyBudget;
+    private final ReorderBuffer reorderBuffer;
+    private final FloodDetector floodDetector;
+    private final RecentMessages recentMessages;
+
+    public ChannelModeration(String channel, TermoFilter filter, ThreadPoolExecutor workers, ModerationBatcher batcher,
+                             LatencyBudget latencyBudget, ReorderBuffer reorderBuffer, FloodDetector floodDetector,
+                             RecentMessages recentMessages) {
+        this.channel = channel;
+        this.filter = filter;
+        this.workers = workers;
+        this.batcher = batcher;
+        this.latencyBudget = latencyBudget;
+        this.reorderBuffer = reorderBuffer;
+        this.floodDetector = floodDetector;
+        this.recentMessages = recentMessages;
+    }
+
+    public void start() {
+        batcher.start();
+    }
+
+    public void stop() {
+        workers.shutdownNow();
+        batcher.stop();
+        latencyBudget.shutdown();
+        reorderBuffer.shutdown();
+        floodDetector.shutdown();
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public TermoFilter getFilter() {
+        return filter;
+    }
+
+    // Fila limitada e sem CallerRunsPolicy: cheia, execute lança RejectedExecutionException
+    // em vez de moderar na thread do twitch4j
+    public ThreadPoolExecutor getWorkers() {
+        return workers;
+    }
+
+    public ModerationBatcher getBatcher() {
+        return batcher;
+    }
+
+    public LatencyBudget getLatencyBudget() {
+        return latencyBudget;
+    }
+
+    public ReorderBuffer getReorderBuffer() {
+        return reorderBuffer;
+    }
+
+    public FloodDetector getFloodDetector() {
+        return floodDetector;
+    }
+
+    public RecentMessages getRecentMessages() {
+        return recentMessages;
+    }
+
+    public String getMessagesDestination() {
+        return "/topic/" + channel + "/messages";
+    }
+
+    public String getUpdatesDestination() {
+        return "/topic/" + channel + "/message-updates";
+    }
+}
@@ -0,0 +1,190 @@
+package kaiquebt.dev.termolivre.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Canais acompanhados por esta instância, cada um com sua moderação isolada.
+// O primeiro canal usa o TermoFilter do contexto; os demais ganham filtros próprios.
+@Service
+@RequiredArgsConstructor
+public class ChannelRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelRegistry.class);
+
+    // Nomes de canal da Twitch; também usados como parte do destino STOMP
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z0-9_]{1,25}");
+    private static final String DEFAULT_CHANNEL = "monstercat";
+
+    private final TermoFilter filter;
+    private final ModerationMetrics metrics;
+
+    private Map<String, ChannelModeration> channels = Collections.emptyMap();
+    private ChannelModeration defaultChannel;
+
+    // Lista separada por vírgulas; quando vazia, vale o canal de twitch.channel.url
+    @Value("${twitch.channels:}")
+    private String twitchChannels;
+
+    @Value("${twitch.channel.url:https://www.twitch.tv/}")
+    private String twitchChannelUrl;
+
+    // Threads que moderam as mensagens de cada canal em paralelo (0 = uma por núcleo); ociosas saem depois de um minuto
+    @Value("${moderation.workers:0}")
+    private int workerCount;
+    
+    // Mensagens esperando uma thread, por canal; além disso a mensagem recebe a política de prazo na hora
+    @Value("${moderation.workers.queue-size:10000}")
+    private int workerQueueSize;
+
+    @Value("${moderation.batch.max-size:20}")
+    private int batchMaxSize;
+
+    @Value("${moderation.batch.max-wait-ms:250}")
+    private long batchMaxWaitMs;
+
+    @Value("${moderation.batch.max-in-flight:2}")
+    private int batchMaxInFlight;
+
+    // Tempo máximo que uma mensagem espera pela IA antes de aplicar a política de prazo
+    @Value("${moderation.latency-budget-ms:1500}")
+    private long latencyBudgetMs;
+
+    // Quanto uma mensagem já moderada espera as anteriores para manter a ordem do chat (0 = sem reordenar)
+    @Value("${moderation.reorder.max-hold-ms:250}")
+    private long reorderMaxHoldMs;
+
+    // Cópias do mesmo texto dentro da janela a partir das quais as seguintes são agrupadas (0 = desligado)
+    @Value("${chat.flood.min-repeats:3}")
+    private int floodMinRepeats;
+
+    @Value("${chat.flood.window-ms:5000}")
+    private long floodWindowMs;
+
+    // Textos distintos acompanhados por canal; o menos recente sai primeiro
+    @Value("${chat.flood.max-tracked:4096}")
+    private int floodMaxTracked;
+
+    // Intervalo das atualizações de contagem enviadas aos clientes
+    @Value("${chat.flood.update-interval-ms:500}")
+    private long floodUpdateIntervalMs;
+
+    // Mensagens guardadas por canal para quem conecta depois (arredondado para potência de dois)
+    @Value("${chat.backlog.size:64}")
+    private int backlogSize;
+
+    @PostConstruct
+    public void init() {
+        Map<String, ChannelModeration> created = new LinkedHashMap<>();
+        for (String name : resolveChannelNames()) {
+            TermoFilter channelFilter = created.isEmpty() ? filter : filter.newChannelFilter();
+            ModerationBatcher batcher = new ModerationBatcher(channelFilter, batchMaxSize, batchMaxWaitMs,
+                    batchMaxInFlight, name, metrics);
+            ChannelModeration moderation = new ChannelModeration(name, channelFilter, newWorkers(name), batcher,
+                    new LatencyBudget(latencyBudgetMs, name), new ReorderBuffer(reorderMaxHoldMs, name),
+                    new FloodDetector(channelFilter, floodMinRepeats, floodWindowMs, floodMaxTracked,
+                            floodUpdateIntervalMs, name),
+                    new RecentMessages(backlogSize));
+            metrics.registerQueue(name, batcher);
+            metrics.registerChannel(name, moderation.getWorkers(), moderation.getReorderBuffer());
+            moderation.start();
+            created.put(name, moderation);
+        }
+        channels = Collections.unmodifiableMap(created);
+        defaultChannel = created.values().iterator().next();
+        logger.info("Moderating channels: {}", channels.keySet());
+    }
+
+    // Um pool por canal: um raid num canal enche só a fila dele
+    private ThreadPoolExecutor newWorkers(String channel) {
+        int workers = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(Math.max(1, workerQueueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "moderation-worker-" + channel + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        channels.values().forEach(ChannelModeration::stop);
+    }
+
+    public Collection<ChannelModeration> getChannels() {
+        return channels.values();
+    }
+
+    public ChannelModeration get(String channel) {
+        return channel == null ? null : channels.get(normalizeChannelName(channel));
+    }
+
+    public ChannelModeration getDefault() {
+        return defaultChannel;
+    }
+
+    private List<String> resolveChannelNames() {
+        List<String> names = new ArrayList<>();
+        if (twitchChannels != null) {
+            for (String raw : twitchChannels.split(",")) {
+                addChannel(names, raw);
+            }
+        }
+        if (names.isEmpty()) {
+            addChannel(names, extractChannelNameFromUrl(twitchChannelUrl));
+        }
+        if (names.isEmpty()) {
+            names.add(DEFAULT_CHANNEL); // Canal padrão
+        }
+        return names;
+    }
+
+    private void addChannel(List<String> names, String raw) {
+        if (raw == null || raw.isBlank()) {
+            return;
+        }
+        String name = normalizeChannelName(raw);
+        if (!CHANNEL_NAME.matcher(name).matches()) {
+            logger.warn("Ignoring invalid channel name '{}'", raw);
+        } else if (!names.contains(name)) {
+            names.add(name);
+        }
+    }
+
+    static String normalizeChannelName(String channel) {
+        String name = channel.trim().toLowerCase(Locale.ROOT);
+        return name.startsWith("#") ? name.substring(1) : name;
+    }
+
+    static String extractChannelNameFromUrl(String url) {
+        // Extrair o nome do canal da URL
+        // Exemplo: https://www.twitch.tv/nome_do_canal -> nome_do_canal
+        if (url != null && !url.trim().isEmpty()) {
+            String[] parts = url.split("/");
+            if (parts.length > 0) {
+                return parts[parts.length - 1];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+package kaiquebt.dev.termolivre.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import kaiquebt.dev.termolivre.model.ChatMessage;
+import kaiquebt.dev.termolivre.model.MessageUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Envia mensagens e atualizações para os inscritos do chat.
+// Com chat.broadcast.batch-interval-ms > 0, junta tudo que chegou no intervalo
+// num único frame por destino (um array JSON), em vez de um frame por mensagem.
+// Cada payload é serializado uma vez só; os mesmos bytes seguem para todos os inscritos.
+@Service
+public class ChatBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectWriter writer;
+    private final ModerationMetrics metrics;
+
+    // Mensagens saem antes das atualizações do mesmo intervalo
+    private final Map<String, Queue<Object>> pendingMessages = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Object>> pendingUpdates = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    // 0 desliga o agrupamento: cada mensagem vira um frame na hora
+    @Value("${chat.broadcast.batch-interval-ms:0}")
+    private long batchIntervalMs;
+
+    // Limita o tamanho de um frame; o excedente vai em frames seguintes
+    @Value("${chat.broadcast.max-batch-size:100}")
+    private int maxBatchSize;
+
+    public ChatBroadcaster(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper, ModerationMetrics metrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.writer = objectMapper.writer();
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (batchIntervalMs <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            flush();
+        }
+    }
+
+    public void sendMessage(String destination, ChatMessage message) {
+        send(pendingMessages, destination, message);
+    }
+
+    public void sendUpdate(String destination, MessageUpdate update) {
+        send(pendingUpdates, destination, update);
+    }
+
+    private void send(Map<String, Queue<Object>> pending, String destination, Object payload) {
+        if (batchIntervalMs <= 0) {
+            sendEncoded(destination, payload);
+            return;
+        }
+        pending.computeIfAbsent(destination, key -> new ConcurrentLinkedQueue<>()).add(payload);
+    }
+
+    void flush() {
+        flush(pendingMessages);
+        flush(pendingUpdates);
+    }
+
+    private void flush(Map<String, Queue<Object>> pending) {
+        for (Map.Entry<String, Queue<Object>> entry : pending.entrySet()) {
+            Queue<Object> queue = entry.getValue();
+            while (!queue.isEmpty()) {
+                List<Object> frame = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+                Object payload;
+                while (frame.size() < maxBatchSize && (payload = queue.poll()) != null) {
+                    frame.add(payload);
+                }
+                if (!frame.isEmpty()) {
+                    sendEncoded(entry.getKey(), frame);
+                }
+            }
+        }
+    }
+
+    private void sendEncoded(String destination, Object payload) {
+        long start = System.nanoTime();
+        byte[] body;
+        try {
+            body = writer.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode payload for " + destination, e);
+        }
+        // Payload já em bytes: o template e o broker não passam pelo Jackson de novo
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(body, headers.getMessageHeaders()));
+        metrics.recordStage(ModerationMetrics.Stage.BROADCAST, System.nanoTime() - start);
+    }
+}
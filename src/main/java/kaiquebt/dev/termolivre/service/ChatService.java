@@ -4,78 +4,221 @@ import com.github.twitch4j.TwitchClient;
 import com.github.twitch4j.TwitchClientBuilder;
 import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
 import kaiquebt.dev.termolivre.model.ChatMessage;
+import kaiquebt.dev.termolivre.model.MessageUpdate;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class ChatService {
-    private final TermoFilter filter;
-    private final SimpMessagingTemplate messagingTemplate;
+    private static final String BLOCKED_CONTENT = "Usuário tentou dizer a resposta!";
+    private static final String HELD_CONTENT = "Mensagem em análise...";
+    
+    private final ChannelRegistry channels;
+    private final ChatBroadcaster broadcaster;
+    private final ModerationMetrics metrics;
+    private final AuditLog auditLog;
     private TwitchClient twitchClient;
     
-    @Value("${twitch.channel.url:https://www.twitch.tv/}")
-    private String twitchChannelUrl;
+    @Value("${moderation.deadline-policy:HOLD}")
+    private DeadlinePolicy deadlinePolicy;
+    
+    // Vazio usa o servidor da Twitch; o harness de carga aponta para um IRC local
+    @Value("${twitch.chat.server:}")
+    private String chatServer;
         
     @PostConstruct
     public void init() {
-        // Extrair o nome do canal da URL
-        String channelName = extractChannelNameFromUrl(twitchChannelUrl);
-        if (channelName == null) {
-            channelName = "monstercat"; // Canal padrão
-        }
-        
         // Construir o cliente do Twitch
-        twitchClient = TwitchClientBuilder.builder()
-                .withEnableChat(true)
-                .build();
+        TwitchClientBuilder builder = TwitchClientBuilder.builder()
+                .withEnableChat(true);
+        if (chatServer != null && !chatServer.isBlank()) {
+            builder = builder.withChatServer(chatServer);
+        }
+        twitchClient = builder.build();
         
-        // Conectar ao chat do canal
-        twitchClient.getChat().joinChannel(channelName);
+        // Conectar ao chat de cada canal
+        for (ChannelModeration channel : channels.getChannels()) {
+            twitchClient.getChat().joinChannel(channel.getChannel());
+            // A contagem de um flood só sai depois da representante
+            channel.getFloodDetector().onRepeats(repeats -> channel.getReorderBuffer().after(repeats.seq(),
+                    () -> sendRepeats(channel, repeats)));
+        }
         
         // Registrar listener para mensagens do chat
         twitchClient.getEventManager().onEvent(ChannelMessageEvent.class, event -> {
+            long receivedAt = System.nanoTime();
+            ChannelModeration channel = channels.get(event.getChannel().getName());
+            if (channel == null) {
+                return;
+            }
+            recordReceiveLatency(event);
             ChatMessage chatMessage = new ChatMessage(
                 event.getMessage(),
                 event.getUser().getName(),
-                LocalDateTime.now()
+                System.currentTimeMillis(),
+                event.getMessageEvent().getMessageId().orElseGet(() -> UUID.randomUUID().toString())
             );
-            if (!filter.isMessageSafe(event.getMessage())) {
-                chatMessage.setContent("Usuário tentou dizer a resposta!");
+            // A ordem de chegada é fixada aqui; a moderação roda em paralelo e a publicação volta à ordem
+            long seq = channel.getReorderBuffer().next();
+            if (channel.getFloodDetector().absorb(chatMessage, seq, chatMessage.getTimestamp())) {
+                // Cópia de um flood: herda o veredito da representante e só entra na contagem dela
+                audit(channel, chatMessage, AuditLog.Decision.FLOOD, null, true, receivedAt);
+                channel.getReorderBuffer().complete(seq, null);
+                metrics.floodAbsorbed();
+                return;
+            }
+            try {
+                channel.getWorkers().execute(() -> moderate(channel, chatMessage, seq, receivedAt));
+            } catch (RejectedExecutionException e) {
+                metrics.workerRejected(channel.getChannel());
+                shed(channel, chatMessage, seq, receivedAt);
             }
-            // Enviar via WebSocket para os clientes conectados
-            // Não armazenamos as mensagens, apenas enviamos em tempo real
-            messagingTemplate.convertAndSend("/topic/messages", chatMessage);
         });
     }
     
-    @PreDestroy
-    public void cleanup() {
-        if (twitchClient != null) {
-            twitchClient.close();
+    // Fila do canal cheia: na própria thread do twitch4j só as regras locais (baratas, sem esperar a IA);
+    // sem match, vale a política de prazo, e nada fica com o aviso de análise para sempre
+    private void shed(ChannelModeration channel, ChatMessage chatMessage, long seq, long receivedAt) {
+        AnswerMatcher.Match match = channel.getFilter().findAnswer(chatMessage.getContent());
+        if (match != null) {
+            audit(channel, chatMessage, AuditLog.Decision.RULE, match.kind(), false, receivedAt);
+            publish(channel, chatMessage, false, seq, receivedAt);
+            return;
+        }
+        // A IA nunca vai responder: com HOLD a mensagem é liberada logo depois do aviso
+        audit(channel, chatMessage, AuditLog.Decision.DEADLINE, null, deadlinePolicy != DeadlinePolicy.DROP, receivedAt);
+        onDeadline(channel, chatMessage, seq, receivedAt);
+        if (deadlinePolicy == DeadlinePolicy.HOLD) {
+            onLateVerdict(channel, chatMessage, true, seq);
         }
     }
     
-    private String extractChannelNameFromUrl(String url) {
-        // Extrair o nome do canal da URL
-        // Exemplo: https://www.twitch.tv/nome_do_canal -> nome_do_canal
-        if (url != null && !url.trim().isEmpty()) {
-            String[] parts = url.split("/");
-            if (parts.length > 0) {
-                return parts[parts.length - 1];
+    private void recordReceiveLatency(ChannelMessageEvent event) {
+        // Horário de envio carimbado pela Twitch; relógios diferentes podem dar valores negativos
+        event.getMessageEvent().getTagValue("tmi-sent-ts").ifPresent(sentTs -> {
+            try {
+                long latencyMillis = System.currentTimeMillis() - Long.parseLong(sentTs);
+                metrics.recordStage(ModerationMetrics.Stage.RECEIVE, TimeUnit.MILLISECONDS.toNanos(Math.max(0, latencyMillis)));
+            } catch (NumberFormatException e) {
+                // Tag malformada: sem amostra
             }
+        });
+    }
+    
+    private void moderate(ChannelModeration channel, ChatMessage chatMessage, long seq, long receivedAt) {
+        // Regras locais decidem na hora; o resto espera o lote da IA do canal, até o limite do orçamento
+        String content = chatMessage.getContent();
+        TermoFilter.RuleCheck rules = channel.getFilter().checkRules(content);
+        if (rules.match() != null) {
+            audit(channel, chatMessage, AuditLog.Decision.RULE, rules.match().kind(), false, receivedAt);
+            publish(channel, chatMessage, false, seq, receivedAt);
+        } else {
+            // Sem veredito da IA (queda, fila cheia, disjuntor): vale o veredito de fallback
+            CompletableFuture<Boolean> aiVerdict = channel.getBatcher().submit(content, rules.cacheKey());
+            channel.getLatencyBudget().watch(aiVerdict.exceptionally(error -> !AiFallbackException.unsafeVerdict(error)),
+                    safe -> {
+                        audit(channel, chatMessage, aiDecision(aiVerdict, AuditLog.Decision.AI), null, safe, receivedAt);
+                        publish(channel, chatMessage, safe, seq, receivedAt);
+                    },
+                    () -> {
+                        audit(channel, chatMessage, AuditLog.Decision.DEADLINE, null,
+                                deadlinePolicy == DeadlinePolicy.PUBLISH, receivedAt);
+                        onDeadline(channel, chatMessage, seq, receivedAt);
+                    },
+                    safe -> {
+                        audit(channel, chatMessage, aiDecision(aiVerdict, AuditLog.Decision.LATE), null, safe, receivedAt);
+                        onLateVerdict(channel, chatMessage, safe, seq);
+                    });
+        }
+    }
+    
+    // Veredito sem o modelo não é rótulo: FALLBACK ou DEGRADED no lugar de AI/LATE (o futuro já terminou)
+    private static AuditLog.Decision aiDecision(CompletableFuture<Boolean> aiVerdict, AuditLog.Decision decision) {
+        return aiVerdict.handle((safe, error) -> error == null ? decision : AuditLog.fallbackDecision(error)).join();
+    }
+    
+    // Antes de publicar: publish troca o conteúdo das bloqueadas
+    private void audit(ChannelModeration channel, ChatMessage chatMessage, AuditLog.Decision decision,
+                       MatchKind ruleKind, boolean safe, long receivedAt) {
+        auditLog.record(decision, channel.getChannel(), chatMessage.getId(), ruleKind, safe,
+                System.nanoTime() - receivedAt, channel.getFilter().getAnswerSet().getVersion(), chatMessage.getContent());
+    }
+    
+    private void publish(ChannelModeration channel, ChatMessage chatMessage, boolean safe, long seq, long receivedAt) {
+        if (!safe) {
+            chatMessage.setContent(BLOCKED_CONTENT);
+        }
+        channel.getReorderBuffer().complete(seq, () -> {
+            send(channel, chatMessage);
+            metrics.recordStage(ModerationMetrics.Stage.END_TO_END, System.nanoTime() - receivedAt);
+        });
+    }
+    
+    private void onDeadline(ChannelModeration channel, ChatMessage chatMessage, long seq, long receivedAt) {
+        ChatMessage published = switch (deadlinePolicy) {
+            case HOLD -> new ChatMessage(HELD_CONTENT, chatMessage.getSender(), chatMessage.getTimestamp(), chatMessage.getId());
+            case PUBLISH -> chatMessage;
+            case DROP -> null;
+        };
+        // Descartada: só libera a vez das seguintes
+        channel.getReorderBuffer().complete(seq, published == null ? null : () -> {
+            send(channel, published);
+            metrics.recordStage(ModerationMetrics.Stage.END_TO_END, System.nanoTime() - receivedAt);
+        });
+    }
+    
+    private void onLateVerdict(ChannelModeration channel, ChatMessage chatMessage, boolean safe, long seq) {
+        MessageUpdate update = null;
+        if (deadlinePolicy == DeadlinePolicy.HOLD) {
+            // Troca o aviso pelo conteúdo real ou pela mensagem de bloqueio
+            update = new MessageUpdate(chatMessage.getId(), safe ? chatMessage.getContent() : BLOCKED_CONTENT, !safe);
+        } else if (deadlinePolicy == DeadlinePolicy.PUBLISH && !safe) {
+            // Já foi publicada como segura: retirar
+            update = new MessageUpdate(chatMessage.getId(), BLOCKED_CONTENT, true);
+        }
+        if (update != null) {
+            // A atualização não pode chegar antes da mensagem que ela corrige
+            MessageUpdate lateUpdate = update;
+            channel.getReorderBuffer().after(seq, () -> sendUpdate(channel, lateUpdate));
+        }
+    }
+    
+    private void send(ChannelModeration channel, ChatMessage chatMessage) {
+        // Enviar via WebSocket para os clientes conectados; só as últimas ficam guardadas, para quem conectar depois
+        channel.getRecentMessages().add(chatMessage);
+        broadcaster.sendMessage(channel.getMessagesDestination(), chatMessage);
+    }
+    
+    private void sendUpdate(ChannelModeration channel, MessageUpdate update) {
+        // A cópia guardada também precisa refletir a liberação ou retratação
+        channel.getRecentMessages().update(update.getId(), update.getContent());
+        broadcaster.sendUpdate(channel.getUpdatesDestination(), update);
+    }
+    
+    private void sendRepeats(ChannelModeration channel, FloodDetector.Repeats repeats) {
+        channel.getRecentMessages().updateRepeats(repeats.messageId(), repeats.count(), repeats.senders());
+        broadcaster.sendUpdate(channel.getUpdatesDestination(),
+                new MessageUpdate(repeats.messageId(), null, false, repeats.count(), repeats.senders()));
+    }
+    
+    @PreDestroy
+    public void cleanup() {
+        if (twitchClient != null) {
+            twitchClient.close();
         }
-        return null;
     }
     
     public String getChatChannel() {
-        return extractChannelNameFromUrl(twitchChannelUrl);
+        return channels.getDefault().getChannel();
     }
 }
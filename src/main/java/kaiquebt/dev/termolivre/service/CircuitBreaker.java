@@ -0,0 +1,165 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+// Disjuntor das chamadas à IA, olhando as últimas windowSize chamadas.
+// Com pelo menos minCalls e taxa de falhas ou de chamadas lentas no limite, abre e recusa tudo
+// por openMillis; depois deixa passar halfOpenProbes chamadas de teste: todas boas, fecha;
+// uma falha ou lentidão, abre de novo. A passagem de aberto para meio-aberto acontece na
+// primeira chamada depois do prazo. Com windowSize 0 fica sempre fechado.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean disabled;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final BiConsumer<State, State> onTransition;
+
+    // Janela circular: cada posição guarda se a chamada falhou e se foi lenta
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int calls;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, long slowCallMillis,
+                          double slowCallRateThreshold, long openMillis, int halfOpenProbes,
+                          BiConsumer<State, State> onTransition) {
+        this.disabled = windowSize < 1;
+        this.failed = new boolean[Math.max(1, windowSize)];
+        this.slow = new boolean[failed.length];
+        this.minCalls = Math.max(1, Math.min(failed.length, minCalls));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.onTransition = onTransition;
+    }
+
+    // false: a chamada não deve ser feita (aberto, ou meio-aberto com os testes já em voo)
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    synchronized boolean tryAcquire(long nowNanos) {
+        if (disabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nowNanos - openedAt < openNanos) {
+                return false;
+            }
+            probesStarted = 0;
+            probesSucceeded = 0;
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    public void onSuccess(long latencyNanos) {
+        onResult(false, latencyNanos, System.nanoTime());
+    }
+
+    public void onFailure() {
+        onResult(true, 0, System.nanoTime());
+    }
+
+    synchronized void onResult(boolean failure, long latencyNanos, long nowNanos) {
+        if (disabled) {
+            return;
+        }
+        boolean slowCall = !failure && slowCallNanos > 0 && latencyNanos >= slowCallNanos;
+        switch (state) {
+            case OPEN -> {
+                // Chamada que já estava em voo quando abriu: não muda nada
+            }
+            case HALF_OPEN -> {
+                if (failure || slowCall) {
+                    open(nowNanos);
+                } else if (++probesSucceeded >= halfOpenProbes) {
+                    reset();
+                    transition(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                record(failure, slowCall);
+                if (calls >= minCalls && ((failureRateThreshold > 0 && failures >= failureRateThreshold * calls)
+                        || (slowCallNanos > 0 && slowCallRateThreshold > 0 && slowCalls >= slowCallRateThreshold * calls))) {
+                    open(nowNanos);
+                }
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (calls == failed.length) {
+            // Janela cheia: a chamada mais antiga sai
+            if (failed[next]) {
+                failures--;
+            }
+            if (slow[next]) {
+                slowCalls--;
+            }
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        if (failure) {
+            failures++;
+        }
+        if (slowCall) {
+            slowCalls++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void open(long nowNanos) {
+        openedAt = nowNanos;
+        reset();
+        transition(State.OPEN);
+    }
+
+    // Ao fechar ou abrir, o histórico anterior não conta mais
+    private void reset() {
+        calls = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        if (onTransition != null) {
+            onTransition.accept(from, to);
+        }
+    }
+}
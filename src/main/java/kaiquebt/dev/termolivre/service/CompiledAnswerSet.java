@@ -0,0 +1,87 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Conjunto de respostas imutável, já compilado com todas as variantes de ofuscação
+// e com o índice de aproximação (FuzzyMatcher) usado quando nenhuma forma exata bate.
+// A versão é única no processo e muda a cada compilação.
+public final class CompiledAnswerSet {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version;
+    private final Set<String> answers;
+    private final AnswerMatcher matcher;
+    private final FuzzyMatcher fuzzyMatcher;
+    private final FuzzyMatcher.EditBudget editBudget;
+    private final FuzzyMatcher.Dictionary dictionary;
+
+    private CompiledAnswerSet(long version, Set<String> answers, AnswerMatcher matcher, FuzzyMatcher fuzzyMatcher,
+                              FuzzyMatcher.EditBudget editBudget, FuzzyMatcher.Dictionary dictionary) {
+        this.version = version;
+        this.answers = answers;
+        this.matcher = matcher;
+        this.fuzzyMatcher = fuzzyMatcher;
+        this.editBudget = editBudget;
+        this.dictionary = dictionary;
+    }
+
+    public static CompiledAnswerSet compile(Collection<String> rawAnswers) {
+        return compile(rawAnswers, FuzzyMatcher.EditBudget.DEFAULT);
+    }
+
+    public static CompiledAnswerSet compile(Collection<String> rawAnswers, FuzzyMatcher.EditBudget editBudget) {
+        return compile(rawAnswers, editBudget, FuzzyMatcher.Dictionary.DEFAULT);
+    }
+
+    public static CompiledAnswerSet compile(Collection<String> rawAnswers, FuzzyMatcher.EditBudget editBudget,
+                                            FuzzyMatcher.Dictionary dictionary) {
+        Set<String> answers = new LinkedHashSet<>();
+        for (String raw : rawAnswers) {
+            // Respostas passam pela mesma normalização das mensagens
+            String answer = MessageNormalizer.normalize(raw);
+            if (!answer.isEmpty()) {
+                answers.add(answer);
+            }
+        }
+
+        AnswerMatcher.Builder builder = AnswerMatcher.builder();
+        for (String answer : answers) {
+            for (MatchKind kind : MatchKind.values()) {
+                String variant = kind.variantOf(answer);
+                // Variantes iguais à resposta já são cobertas pela busca direta
+                if (variant == null || (kind != MatchKind.DIRECT && variant.equals(answer))) {
+                    continue;
+                }
+                builder.add(variant, answer, kind);
+            }
+        }
+        return new CompiledAnswerSet(VERSIONS.incrementAndGet(), Collections.unmodifiableSet(answers), builder.build(),
+                FuzzyMatcher.compile(answers, editBudget, dictionary), editBudget, dictionary);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Set<String> getAnswers() {
+        return answers;
+    }
+
+    public FuzzyMatcher.EditBudget getEditBudget() {
+        return editBudget;
+    }
+
+    public FuzzyMatcher.Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    public AnswerMatcher.Match find(CharSequence cleanedMessage) {
+        AnswerMatcher.Match match = matcher.find(cleanedMessage);
+        return match != null ? match : fuzzyMatcher.find(cleanedMessage);
+    }
+}
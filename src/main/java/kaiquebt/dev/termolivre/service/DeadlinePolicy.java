@@ -0,0 +1,11 @@
+package kaiquebt.dev.termolivre.service;
+
+// O que fazer com uma mensagem cujo veredito da IA não chegou dentro do orçamento de latência
+public enum DeadlinePolicy {
+    // Publica um aviso no lugar e libera (ou retira) quando o veredito chegar
+    HOLD,
+    // Publica como segura e retira depois se a IA disser o contrário
+    PUBLISH,
+    // Descarta a mensagem
+    DROP
+}
@@ -1,18 +1,46 @@
 package kaiquebt.dev.termolivre.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Fallback;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+// Quando há outro AiProvider no contexto (classificador, vários endpoints), ele tem preferência
 @Service
+@Fallback
 public class DeepSeekAiProvider implements AiProvider {
     
     private static final int MAX_MESSAGE_LENGTH = 500;
-    private static final int MAX_BATCH_SIZE = 10;
+    private static final int INITIAL_BATCH_SIZE = 10;
+    private static final int MIN_BATCH_SIZE = 2;
+    // Estimativa grosseira de tokens: ~4 caracteres por token, mais a numeração e as aspas da linha
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int LINE_OVERHEAD_TOKENS = 4;
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
     
     @Value("${deepseek.api.key:}")
     private String apiKey;
@@ -20,67 +48,305 @@ public class DeepSeekAiProvider implements AiProvider {
     @Value("${deepseek.api.url:https://api.deepseek.com/chat/completions}")
     private String apiUrl;
     
-    private final RestTemplate restTemplate;
+    @Value("${deepseek.api.model:deepseek-chat}")
+    private String model;
+    
+    @Value("${deepseek.api.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+    
+    @Value("${deepseek.api.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+    
+    // Máximo de lotes em voo ao mesmo tempo contra a API
+    @Value("${deepseek.api.max-in-flight:4}")
+    private int maxInFlight;
+    
+    // Pede a resposta em streaming (SSE) e libera cada veredito assim que o token dele chega
+    @Value("${deepseek.api.stream:false}")
+    private boolean stream;
+    
+    // Limites do lote adaptativo: mensagens por lote e tokens estimados do prompt
+    @Value("${deepseek.api.batch.max-size:30}")
+    private int maxBatchSize;
+    
+    @Value("${deepseek.api.batch.token-budget:800}")
+    private int batchTokenBudget;
+    
+    // Acima disso o lote seguinte encolhe
+    @Value("${deepseek.api.batch.target-latency-ms:1500}")
+    private long batchTargetLatencyMs;
+    
+    // Bulkhead: além dos max-in-flight em voo, no máximo tantos lotes esperando; o excedente
+    // recebe o veredito degradado em vez de acumular atrás de uma API lenta (0 = fila sem limite)
+    @Value("${deepseek.api.bulkhead.queue-size:64}")
+    private int bulkheadQueueSize;
+    
+    // Disjuntor sobre as últimas window-size chamadas (0 = desligado): abre com a taxa de falhas
+    // ou de chamadas mais lentas que slow-call-ms no limite, e testa a API de novo depois de open-ms
+    @Value("${deepseek.api.breaker.window-size:20}")
+    private int breakerWindowSize;
+    
+    @Value("${deepseek.api.breaker.min-calls:10}")
+    private int breakerMinCalls;
+    
+    @Value("${deepseek.api.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+    
+    @Value("${deepseek.api.breaker.slow-call-ms:5000}")
+    private long breakerSlowCallMs;
+    
+    @Value("${deepseek.api.breaker.slow-call-rate:0.8}")
+    private double breakerSlowCallRate;
+    
+    @Value("${deepseek.api.breaker.open-ms:10000}")
+    private long breakerOpenMs;
+    
+    @Value("${deepseek.api.breaker.half-open-probes:2}")
+    private int breakerHalfOpenProbes;
+    
+    @Value("${deepseek.api.degraded-policy:RULES_ONLY}")
+    private DegradedPolicy degradedPolicy;
+    
+    @Autowired(required = false)
+    private ModerationMetrics metrics = new ModerationMetrics();
+    
+    // Endpoints de um HedgedAiProvider não tratam falha como "seguro": o veredito termina com
+    // exceção e quem combina os endpoints decide (outro endpoint ou o fallback dele)
+    private boolean failOnError;
+    
+    // Nome nas métricas do disjuntor; endpoints de um HedgedAiProvider usam o nome configurado
+    private String name = "deepseek";
+    
+    private RestTemplate restTemplate;
+    private ThreadPoolExecutor requestExecutor;
+    private CircuitBreaker breaker;
+    private AdaptiveBatchSize batchSize = new AdaptiveBatchSize(INITIAL_BATCH_SIZE, MIN_BATCH_SIZE, INITIAL_BATCH_SIZE, 1500);
     
     private static final Logger logger = LoggerFactory.getLogger(DeepSeekAiProvider.class);
     
-    public DeepSeekAiProvider() {
-        this.restTemplate = new RestTemplate();
-        logger.debug("DeepSeekAiProvider constructor: RestTemplate initialized");
-    }
+    // Numa queda da API todo lote falha: no máximo uma linha de erro por intervalo, com a contagem
+    private static final long FAILURE_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private final AtomicLong lastFailureLog = new AtomicLong(System.nanoTime() - FAILURE_LOG_INTERVAL_NANOS);
+    private final AtomicInteger failuresSinceLog = new AtomicInteger();
     
     @jakarta.annotation.PostConstruct
     private void init() {
-        logger.info("DeepSeekAiProvider initialized. API URL: {}, API key present: {}", apiUrl, apiKey != null && !apiKey.isEmpty());
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, maxInFlight);
+        requestExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                bulkheadQueueSize > 0 ? new ArrayBlockingQueue<>(bulkheadQueueSize) : new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "deepseek-request-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        breaker = new CircuitBreaker(breakerWindowSize, breakerMinCalls, breakerFailureRate, breakerSlowCallMs,
+                breakerSlowCallRate, breakerOpenMs, breakerHalfOpenProbes, (from, to) -> {
+                    logger.warn("DeepSeek circuit breaker for {} changed from {} to {}", apiUrl, from, to);
+                    metrics.aiBreakerTransition(name, to);
+                });
+        metrics.registerAiBreaker(name, breaker);
+        
+        // O HttpClient do JDK mantém um pool de conexões keep-alive reaproveitado entre lotes
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.batchSize = new AdaptiveBatchSize(INITIAL_BATCH_SIZE, MIN_BATCH_SIZE, maxBatchSize, batchTargetLatencyMs);
+        
+        logger.info("DeepSeekAiProvider initialized. API URL: {}, API key present: {}, max in flight: {}, streaming: {}",
+                apiUrl, apiKey != null && !apiKey.isEmpty(), maxInFlight, stream);
+    }
+    
+    // Mesmas configurações (timeouts, lotes, streaming) apontando para outro endpoint; nulos mantêm os daqui
+    public DeepSeekAiProvider forEndpoint(String endpointName, String url, String key, String endpointModel) {
+        DeepSeekAiProvider endpoint = new DeepSeekAiProvider();
+        endpoint.name = endpointName;
+        endpoint.apiUrl = url;
+        endpoint.apiKey = key != null ? key : apiKey;
+        endpoint.model = endpointModel != null ? endpointModel : model;
+        endpoint.connectTimeoutMs = connectTimeoutMs;
+        endpoint.readTimeoutMs = readTimeoutMs;
+        endpoint.maxInFlight = maxInFlight;
+        endpoint.stream = stream;
+        endpoint.maxBatchSize = maxBatchSize;
+        endpoint.batchTokenBudget = batchTokenBudget;
+        endpoint.batchTargetLatencyMs = batchTargetLatencyMs;
+        endpoint.bulkheadQueueSize = bulkheadQueueSize;
+        endpoint.breakerWindowSize = breakerWindowSize;
+        endpoint.breakerMinCalls = breakerMinCalls;
+        endpoint.breakerFailureRate = breakerFailureRate;
+        endpoint.breakerSlowCallMs = breakerSlowCallMs;
+        endpoint.breakerSlowCallRate = breakerSlowCallRate;
+        endpoint.breakerOpenMs = breakerOpenMs;
+        endpoint.breakerHalfOpenProbes = breakerHalfOpenProbes;
+        endpoint.degradedPolicy = degradedPolicy;
+        endpoint.metrics = metrics;
+        endpoint.failOnError = true;
+        endpoint.init();
+        return endpoint;
+    }
+    
+    public DegradedPolicy getDegradedPolicy() {
+        return degradedPolicy;
+    }
+    
+    public String getApiUrl() {
+        return apiUrl;
+    }
+    
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+    
+    @jakarta.annotation.PreDestroy
+    void shutdown() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+        }
     }
     
     @Override
     public List<Boolean> analyzeMessagesForTermoAnswers(List<String> messages) {
+        return analyzeMessagesForTermoAnswersAsync(messages).join();
+    }
+    
+    @Override
+    public List<CompletableFuture<Boolean>> analyzeEachMessageAsync(List<String> messages) {
         logger.debug("analyzeMessagesForTermoAnswers called with {} messages", messages == null ? 0 : messages.size());
-        List<Boolean> results = new ArrayList<>();
+        if (messages == null || messages.isEmpty()) {
+            return Collections.emptyList();
+        }
         
-        // Filtrar mensagens muito longas
+        // Um veredito por posição original; filtrar mensagens muito longas.
+        // Mensagens iguais depois de normalizadas viram uma só linha do prompt e dividem o veredito
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(messages.size());
+        Map<String, CompletableFuture<Boolean>> uniqueVerdicts = new HashMap<>();
         List<String> filteredMessages = new ArrayList<>();
-        List<Integer> originalIndices = new ArrayList<>();
+        List<CompletableFuture<Boolean>> filteredVerdicts = new ArrayList<>();
         int longCount = 0;
         
         for (int i = 0; i < messages.size(); i++) {
             String message = messages.get(i);
             if (message != null && message.length() <= MAX_MESSAGE_LENGTH) {
-                filteredMessages.add(message);
-                originalIndices.add(i);
+                CompletableFuture<Boolean> verdict = uniqueVerdicts.computeIfAbsent(MessageNormalizer.normalize(message), key -> {
+                    CompletableFuture<Boolean> unique = new CompletableFuture<>();
+                    filteredMessages.add(message);
+                    filteredVerdicts.add(unique);
+                    return unique;
+                });
+                verdicts.add(verdict);
             } else {
-                // Mensagens muito longas são consideradas seguras (false)
-                results.add(false);
+                // Mensagens muito longas não vão para a IA: fallback seguro
                 longCount++;
+                verdicts.add(CompletableFuture.failedFuture(new AiFallbackException("too-long", false)));
                 logger.debug("Message at index {} considered too long or null, marked safe", i);
             }
         }
         
-        logger.info("Filtered out {} messages longer than {} chars (treated as safe)", longCount, MAX_MESSAGE_LENGTH);
-        
-        // Inicializar a lista de resultados com false para todas as posições
-        // Preenchemos com false inicialmente e depois atualizamos com os resultados da IA
-        for (int i = 0; i < messages.size(); i++) {
-            results.add(false);
+        if (longCount > 0) {
+            logger.debug("Filtered out {} messages longer than {} chars (treated as safe)", longCount, MAX_MESSAGE_LENGTH);
         }
         
-        logger.debug("Processing {} filtered messages in batches of {}", filteredMessages.size(), MAX_BATCH_SIZE);
-        // Processar em lotes
-        for (int i = 0; i < filteredMessages.size(); i += MAX_BATCH_SIZE) {
-            int end = Math.min(i + MAX_BATCH_SIZE, filteredMessages.size());
-            List<String> batch = filteredMessages.subList(i, end);
-            logger.debug("Processing batch from filtered index {} to {} (size {})", i, end - 1, batch.size());
-            List<Boolean> batchResults = processBatch(batch);
-            
-            // Mapear os resultados de volta para as posições originais
-            for (int j = 0; j < batchResults.size(); j++) {
-                int originalIndex = originalIndices.get(i + j);
-                results.set(originalIndex, batchResults.get(j));
+        int limit = batchSize.current();
+        logger.debug("Dispatching {} unique messages in batches of up to {} messages or {} tokens",
+                filteredMessages.size(), limit, batchTokenBudget);
+        // Disparar os lotes em paralelo; o pool limita quantos ficam em voo
+        for (int start = 0; start < filteredMessages.size(); ) {
+            int end = batchEnd(filteredMessages, start, limit);
+            List<String> batch = filteredMessages.subList(start, end);
+            List<CompletableFuture<Boolean>> batchVerdicts = filteredVerdicts.subList(start, end);
+            logger.debug("Processing batch from filtered index {} to {} (size {})", start, end - 1, batch.size());
+            try {
+                requestExecutor.execute(() -> dispatchBatch(batch, batchVerdicts));
+            } catch (RejectedExecutionException e) {
+                degrade(batchVerdicts, "bulkhead");
             }
+            start = end;
         }
         
-        return results;
+        return verdicts;
+    }
+    
+    // Fecha o lote no limite de mensagens ou quando a próxima estouraria o orçamento de tokens
+    private int batchEnd(List<String> messages, int start, int limit) {
+        int end = start;
+        int tokens = 0;
+        while (end < messages.size() && end - start < limit) {
+            int messageTokens = estimateTokens(messages.get(end));
+            if (end > start && tokens + messageTokens > batchTokenBudget) {
+                break;
+            }
+            tokens += messageTokens;
+            end++;
+        }
+        return end;
+    }
+    
+    static int estimateTokens(String message) {
+        return (message.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN + LINE_OVERHEAD_TOKENS;
+    }
+    
+    private void dispatchBatch(List<String> messages, List<CompletableFuture<Boolean>> verdicts) {
+        try {
+            // Avaliado quando o lote sai da fila: o disjuntor pode ter aberto enquanto ele esperava
+            if (!breaker.tryAcquire()) {
+                degrade(verdicts, "open");
+            } else if (stream) {
+                streamBatch(messages, verdicts);
+            } else {
+                List<Boolean> results = processBatch(messages);
+                // Só as posições que a IA respondeu; as que faltam ficam para o finally
+                for (int i = 0; i < results.size() && i < verdicts.size(); i++) {
+                    verdicts.get(i).complete(results.get(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            failPending(verdicts, "error", e);
+        } finally {
+            // Nenhum veredito fica esperando para sempre; os já completados não mudam
+            failPending(verdicts, "missing", null);
+        }
+    }
+    
+    // Sem veredito do modelo para o que ainda está aberto: falha para quem combina endpoints,
+    // ou o fallback seguro do provedor único
+    private void failPending(List<CompletableFuture<Boolean>> verdicts, String reason, Throwable cause) {
+        List<CompletableFuture<Boolean>> pending = verdicts.stream().filter(verdict -> !verdict.isDone()).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (failOnError) {
+            Throwable error = cause != null ? cause : new IllegalStateException("No verdict from " + apiUrl);
+            pending.forEach(verdict -> verdict.completeExceptionally(error));
+            return;
+        }
+        logger.debug("Returning default safe results for {} of {} messages", pending.size(), verdicts.size());
+        metrics.aiFallback(pending.size());
+        AiFallbackException fallback = new AiFallbackException(reason, false, cause);
+        pending.forEach(verdict -> verdict.completeExceptionally(fallback));
+    }
+    
+    // Sem chamar a API: o veredito da política degradada. Para quem combina endpoints também, que
+    // tenta outro endpoint e só aplica a política quando todos estavam assim
+    private void degrade(List<CompletableFuture<Boolean>> verdicts, String reason) {
+        metrics.aiShortCircuited(name, reason, verdicts.size());
+        AiFallbackException fallback = AiFallbackException.degraded(reason, degradedPolicy == DegradedPolicy.BLOCK);
+        verdicts.forEach(verdict -> verdict.completeExceptionally(fallback));
+    }
+    
+    // Conta toda falha; o log sai numa linha só, sem stack trace, e junta as do intervalo
+    private void callFailed(String operation, Exception e) {
+        metrics.aiCallFailed(name);
+        failuresSinceLog.incrementAndGet();
+        long now = System.nanoTime();
+        long last = lastFailureLog.get();
+        if (now - last >= FAILURE_LOG_INTERVAL_NANOS && lastFailureLog.compareAndSet(last, now)) {
+            logger.error("DeepSeek {} to {} failed ({} failures since the last report): {}", operation, apiUrl,
+                    failuresSinceLog.getAndSet(0), e.toString());
+        }
+        logger.debug("DeepSeek {} to {} failed", operation, apiUrl, e);
     }
     
     private List<Boolean> processBatch(List<String> messages) {
@@ -88,6 +354,106 @@ public class DeepSeekAiProvider implements AiProvider {
             return Collections.emptyList();
         }
         
+        HttpEntity<Map<String, Object>> entity = buildRequest(messages, false);
+        // A resposta chegou: o disjuntor só conta disponibilidade e latência, não o conteúdo
+        boolean answered = false;
+        Map<String, String> message = null;
+        
+        try {
+            logger.debug("Sending request to DeepSeek API (batch size: {})", messages.size());
+            long start = System.nanoTime();
+            ResponseEntity<Map> response = restTemplate.exchange(apiUrl, HttpMethod.POST, entity, Map.class);
+            long latency = System.nanoTime() - start;
+            answered = true;
+            breaker.onSuccess(latency);
+            batchSize.onResponse(latency);
+            Map<String, Object> responseBody = response.getBody();
+            // Só o status: o corpo inteiro custa serializar a cada lote e já vira veredito na auditoria
+            logger.debug("DeepSeek API response status: {}", response.getStatusCode());
+            
+            if (responseBody != null && responseBody.containsKey("choices")) {
+                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
+                if (!choices.isEmpty()) {
+                    Map<String, Object> firstChoice = choices.get(0);
+                    message = (Map<String, String>) firstChoice.get("message");
+                    if (message == null) {
+                        logger.warn("DeepSeek response 'message' field is null in first choice");
+                    }
+                } else {
+                    logger.warn("DeepSeek response 'choices' is empty");
+                }
+            } else {
+                logger.warn("DeepSeek response missing 'choices' or response body is null");
+            }
+        } catch (Exception e) {
+            if (!answered) {
+                breaker.onFailure();
+            }
+            callFailed("call", e);
+            batchSize.onFailure();
+            throw new IllegalStateException("DeepSeek request to " + apiUrl + " failed", e);
+        }
+        if (message != null) {
+            // Fora do try: parseAiResponse já encolhe o lote quando a contagem não bate, e a exceção
+            // dele (failOnError) não pode contar de novo como falha
+            return parseAiResponse(message.get("content"), messages.size());
+        }
+        // Em caso de erro, nenhuma mensagem do lote tem veredito (dispatchBatch aplica o fallback)
+        batchSize.onFailure();
+        throw new IllegalStateException("Invalid DeepSeek response from " + apiUrl);
+    }
+    
+    // Mesma requisição com "stream": true; cada evento traz um pedaço do texto em choices[0].delta.content
+    private void streamBatch(List<String> messages, List<CompletableFuture<Boolean>> verdicts) {
+        StreamingVerdictParser parser = new StreamingVerdictParser(verdicts.size(),
+                (index, unsafe) -> verdicts.get(index).complete(unsafe));
+        boolean failed = false;
+        try {
+            logger.debug("Streaming request to DeepSeek API (batch size: {})", messages.size());
+            long start = System.nanoTime();
+            restTemplate.execute(apiUrl, HttpMethod.POST, restTemplate.httpEntityCallback(buildRequest(messages, true)),
+                    response -> {
+                        readEvents(response.getBody(), parser);
+                        return null;
+                    });
+            long latency = System.nanoTime() - start;
+            breaker.onSuccess(latency);
+            batchSize.onResponse(latency);
+        } catch (Exception e) {
+            breaker.onFailure();
+            callFailed("stream", e);
+            failed = true;
+        }
+        
+        int received = parser.finish();
+        if (failed) {
+            // Os vereditos que chegaram antes do erro valem; o resto fica sem veredito (fallback em dispatchBatch)
+            batchSize.onFailure();
+        } else if (received != verdicts.size()) {
+            logger.warn("AI streamed {} results but {} were expected; missing ones get the fallback", received, verdicts.size());
+            metrics.aiResponseMismatch();
+            batchSize.onMismatch();
+        }
+    }
+    
+    private void readEvents(InputStream body, StreamingVerdictParser parser) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Linhas vazias separam eventos; comentários (": keep-alive") são ignorados
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                return;
+            }
+            JsonNode chunk = objectMapper.readTree(data);
+            parser.accept(chunk.path("choices").path(0).path("delta").path("content").asText(""));
+        }
+    }
+    
+    private HttpEntity<Map<String, Object>> buildRequest(List<String> messages, boolean streaming) {
         // Preparar o prompt
         String prompt = buildPrompt(messages);
         
@@ -100,7 +466,7 @@ public class DeepSeekAiProvider implements AiProvider {
         
         // Construir o request body
         Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "deepseek-chat");
+        requestBody.put("model", model);
         
         List<Map<String, String>> messageList = new ArrayList<>();
         Map<String, String> systemMessage = new HashMap<>();
@@ -117,42 +483,14 @@ public class DeepSeekAiProvider implements AiProvider {
         messageList.add(userMessage);
         requestBody.put("messages", messageList);
         requestBody.put("temperature", 0.1);
-        
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-        
-        try {
-            logger.debug("Sending request to DeepSeek API (prompt length: {})", prompt.length());
-            ResponseEntity<Map> response = restTemplate.exchange(apiUrl, HttpMethod.POST, entity, Map.class);
-            Map<String, Object> responseBody = response.getBody();
-            logger.debug("DeepSeek API response status: {}, body: {}", response.getStatusCode(), responseBody);
-            
-            if (responseBody != null && responseBody.containsKey("choices")) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-                if (!choices.isEmpty()) {
-                    Map<String, Object> firstChoice = choices.get(0);
-                    Map<String, String> message = (Map<String, String>) firstChoice.get("message");
-                    if (message != null) {
-                        String content = message.get("content");
-                        return parseAiResponse(content, messages.size());
-                    } else {
-                        logger.warn("DeepSeek response 'message' field is null in first choice");
-                    }
-                } else {
-                    logger.warn("DeepSeek response 'choices' is empty");
-                }
-            } else {
-                logger.warn("DeepSeek response missing 'choices' or response body is null");
-            }
-        } catch (Exception e) {
-            logger.error("Error calling DeepSeek API", e);
+        if (streaming) {
+            requestBody.put("stream", true);
         }
         
-        // Em caso de erro, considerar todas as mensagens como seguras
-        logger.info("Returning default safe results for batch of size {}", messages.size());
-        return Collections.nCopies(messages.size(), false);
+        return new HttpEntity<>(requestBody, headers);
     }
     
-    private String buildPrompt(List<String> messages) {
+    String buildPrompt(List<String> messages) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Analyze the following chat messages and determine if the user is trying to reveal the answer to the word puzzle. ")
               .append("Respond with only 'true' or 'false' for each message, separated by commas. Here are the messages:\n\n");
@@ -165,10 +503,15 @@ public class DeepSeekAiProvider implements AiProvider {
         return prompt.toString();
     }
     
-    private List<Boolean> parseAiResponse(String response, int expectedCount) {
+    List<Boolean> parseAiResponse(String response, int expectedCount) {
         if (response == null) {
-            logger.warn("AI response content is null; returning {} false values", expectedCount);
-            return Collections.nCopies(expectedCount, false);
+            logger.warn("AI response content is null; no verdict for {} messages", expectedCount);
+            metrics.aiResponseMismatch();
+            batchSize.onMismatch();
+            if (failOnError) {
+                throw new IllegalStateException("AI response content is null");
+            }
+            return Collections.emptyList();
         }
         
         List<Boolean> results = new ArrayList<>();
@@ -182,12 +525,17 @@ public class DeepSeekAiProvider implements AiProvider {
             }
         }
         
-        // Se a IA não retornou o número esperado de respostas, preencher com false
-        if (results.size() < expectedCount) {
-            logger.warn("AI returned {} results but {} were expected; filling remaining with false", results.size(), expectedCount);
+        if (results.size() != expectedCount) {
+            metrics.aiResponseMismatch();
+            batchSize.onMismatch();
+            if (failOnError) {
+                throw new IllegalStateException("AI returned " + results.size() + " results but " + expectedCount + " were expected");
+            }
         }
-        while (results.size() < expectedCount) {
-            results.add(false);
+        
+        // Se a IA não retornou o número esperado de respostas, as que faltam ficam sem veredito (fallback)
+        if (results.size() < expectedCount) {
+            logger.warn("AI returned {} results but {} were expected; remaining ones get the fallback", results.size(), expectedCount);
         }
         
         // Se retornou mais do que o esperado, truncar
@@ -0,0 +1,9 @@
+package kaiquebt.dev.termolivre.service;
+
+// Veredito das mensagens que não vão para a IA porque o disjuntor está aberto ou o bulkhead está cheio
+public enum DegradedPolicy {
+    // Só as regras locais valem: o que elas não pegaram é publicado
+    RULES_ONLY,
+    // Bloqueia tudo que dependeria da IA
+    BLOCK
+}
@@ -0,0 +1,181 @@
+package kaiquebt.dev.termolivre.service;
+
+import kaiquebt.dev.termolivre.model.ChatMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Junta as cópias de uma mesma mensagem repetida em massa (copypasta, raid).
+// Quando o mesmo texto normalizado aparece minRepeats vezes dentro da janela, a cópia que completou
+// a conta vira a representante: é moderada e publicada normalmente, e as seguintes só somam no
+// contador dela, sem passar pela moderação nem virar frame próprio. A contagem sai em atualizações
+// periódicas. A chave inclui a versão do conjunto de respostas, então só se juntam cópias que
+// receberiam o mesmo veredito; as absorvidas herdam o da representante.
+public class FloodDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(FloodDetector.class);
+
+    // Usuários distintos contados por flood; acima disso a contagem para de crescer
+    static final int MAX_SENDERS = 256;
+
+    // Contagem de uma representante, para atualizar quem já a exibe
+    public record Repeats(String messageId, long seq, int count, int senders) {
+    }
+
+    private static final class Tracked {
+        // Chegadas recentes em anel, para a janela deslizante
+        final long[] arrivals;
+        int arrivalCount;
+        int nextArrival;
+
+        String leaderId;
+        long leaderSeq;
+        int repeats;
+        Set<String> senders;
+        long lastSeen;
+        boolean dirty;
+
+        Tracked(int minRepeats) {
+            arrivals = new long[minRepeats];
+        }
+    }
+
+    private final TermoFilter filter;
+    private final int minRepeats;
+    private final long windowMillis;
+    private final ScheduledExecutorService scheduler;
+    // Ordem de acesso: estoura pelo texto menos recente; protegido pelo lock do próprio detector
+    private final LinkedHashMap<String, Tracked> tracked;
+    private volatile Consumer<Repeats> listener = repeats -> { };
+
+    public FloodDetector(TermoFilter filter, int minRepeats, long windowMillis, int maxTracked,
+                         long updateIntervalMillis, String name) {
+        this.filter = filter;
+        this.minRepeats = minRepeats;
+        this.windowMillis = windowMillis;
+        int capacity = Math.max(1, maxTracked);
+        this.tracked = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Tracked> eldest) {
+                return size() > capacity;
+            }
+        };
+        if (isEnabled()) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "flood-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, updateIntervalMillis);
+            scheduler.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return minRepeats > 0 && windowMillis > 0;
+    }
+
+    // Recebe as contagens que mudaram desde a última atualização
+    public void onRepeats(Consumer<Repeats> listener) {
+        this.listener = listener;
+    }
+
+    // true quando a mensagem foi absorvida por uma representante: não deve ser moderada nem publicada.
+    // Chamado na ordem de chegada, com o número que a mensagem recebeu no ReorderBuffer.
+    public boolean absorb(ChatMessage message, long seq, long nowMillis) {
+        if (!isEnabled()) {
+            return false;
+        }
+        String normalized = MessageNormalizer.normalize(message.getContent());
+        if (normalized.isEmpty()) {
+            return false;
+        }
+        String key = filter.getAnswerSet().getVersion() + ":" + normalized;
+        synchronized (this) {
+            Tracked entry = tracked.computeIfAbsent(key, k -> new Tracked(minRepeats));
+            if (entry.leaderId != null && nowMillis - entry.lastSeen <= windowMillis) {
+                entry.repeats++;
+                if (entry.senders.size() < MAX_SENDERS) {
+                    entry.senders.add(message.getSender());
+                }
+                entry.lastSeen = nowMillis;
+                entry.dirty = true;
+                return true;
+            }
+
+            // Sem flood ativo (ou o anterior esfriou): conta a chegada na janela
+            entry.leaderId = null;
+            entry.senders = null;
+            entry.arrivals[entry.nextArrival] = nowMillis;
+            entry.nextArrival = (entry.nextArrival + 1) % minRepeats;
+            entry.arrivalCount = Math.min(minRepeats, entry.arrivalCount + 1);
+            entry.lastSeen = nowMillis;
+            // Depois do incremento, nextArrival aponta para a chegada mais antiga do anel
+            if (entry.arrivalCount == minRepeats && nowMillis - entry.arrivals[entry.nextArrival] <= windowMillis) {
+                entry.leaderId = message.getId();
+                entry.leaderSeq = seq;
+                entry.repeats = 1;
+                entry.senders = new HashSet<>();
+                entry.senders.add(message.getSender());
+                entry.dirty = false;
+                entry.arrivalCount = 0;
+            }
+            return false;
+        }
+    }
+
+    public int getTrackedCount() {
+        synchronized (this) {
+            return tracked.size();
+        }
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    void flush(long nowMillis) {
+        List<Repeats> changed = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Tracked> entries = tracked.values().iterator();
+            while (entries.hasNext()) {
+                Tracked entry = entries.next();
+                if (entry.dirty) {
+                    entry.dirty = false;
+                    changed.add(new Repeats(entry.leaderId, entry.leaderSeq, entry.repeats, entry.senders.size()));
+                }
+                // Esfriou: não há mais o que contar para este texto
+                if (nowMillis - entry.lastSeen > windowMillis) {
+                    entries.remove();
+                }
+            }
+        }
+        // Fora do lock: quem recebe publica no broker
+        for (Repeats repeats : changed) {
+            try {
+                listener.accept(repeats);
+            } catch (RuntimeException e) {
+                logger.error("Error publishing flood repeats", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Pega respostas escritas "quase certo": erros de digitação, letras repetidas, leet e trocas
+// fonéticas ("caasa", "k4sa", "kaza", "cadiera"), que as variantes exatas do AnswerMatcher não cobrem.
+// Índice de deleções no estilo SymSpell: cada resposta (já dobrada, ver fold) é guardada junto com
+// todas as formas que saem dela apagando até N letras. Na consulta, o mesmo é feito com cada palavra
+// da mensagem; só candidatos que compartilham uma forma chegam a ter a distância calculada.
+// O custo não depende de quantas respostas existem, só do tamanho das palavras.
+// Palavras do dicionário (ver Dictionary) só batem com a resposta idêntica, nunca por aproximação.
+public final class FuzzyMatcher {
+
+    private static final FuzzyMatcher EMPTY = new FuzzyMatcher(new String[0], new String[0], new int[0], Map.of(),
+            Dictionary.EMPTY, 0, 0, 0);
+
+    // Resposta original, forma dobrada e edições aceitas, por id
+    private final String[] answers;
+    private final String[] folded;
+    private final int[] maxEdits;
+    private final Map<String, int[]> deletions;
+    private final Dictionary dictionary;
+    private final int maxDistance;
+    private final int minLength;
+    private final int maxLength;
+
+    private FuzzyMatcher(String[] answers, String[] folded, int[] maxEdits, Map<String, int[]> deletions,
+                         Dictionary dictionary, int maxDistance, int minLength, int maxLength) {
+        this.answers = answers;
+        this.folded = folded;
+        this.maxEdits = maxEdits;
+        this.deletions = deletions;
+        this.dictionary = dictionary;
+        this.maxDistance = maxDistance;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+    }
+
+    // Quantas edições cada resposta aceita, pelo tamanho: "5:1,8:2" = 1 a partir de 5 letras, 2 a partir de 8.
+    // Abaixo do menor tamanho só vale a forma dobrada exata; vazio desliga o matcher
+    public record EditBudget(NavigableMap<Integer, Integer> editsFromLength) {
+
+        // A partir de 6 letras: com 5, uma edição leva a palavras comuns demais (livro/livre, porta/porto)
+        public static final EditBudget DEFAULT = parse("6:1,9:2");
+
+        public static EditBudget parse(String spec) {
+            TreeMap<Integer, Integer> edits = new TreeMap<>();
+            if (spec != null && !spec.isBlank()) {
+                for (String entry : spec.split(",")) {
+                    String[] parts = entry.trim().split(":");
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Expected <min length>:<edits>, got " + entry);
+                    }
+                    edits.put(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+                }
+            }
+            return new EditBudget(Collections.unmodifiableNavigableMap(edits));
+        }
+
+        public boolean isDisabled() {
+            return editsFromLength.isEmpty();
+        }
+
+        public int editsFor(int length) {
+            Map.Entry<Integer, Integer> entry = editsFromLength.floorEntry(length);
+            return entry == null ? 0 : Math.max(0, entry.getValue());
+        }
+    }
+
+    // Palavras conhecidas da língua (uma lista de frequência, por exemplo), guardadas já dobradas.
+    // Uma palavra da mensagem que está aqui é ela mesma, não uma resposta disfarçada:
+    // "livre" não vira "livro", "pato" não vira "gato". A própria resposta continua batendo.
+    public record Dictionary(Set<String> folded) {
+
+        public static final Dictionary EMPTY = new Dictionary(Set.of());
+
+        // Lista embutida de palavras comuns do chat; moderation.fuzzy.dictionary-file troca por outra
+        public static final Dictionary DEFAULT = loadDefault();
+
+        public static Dictionary of(Collection<String> words) {
+            Set<String> folded = new HashSet<>(words.size() * 2);
+            for (String word : words) {
+                String normalized = MessageNormalizer.normalize(word);
+                String foldedWord = normalized.indexOf(' ') < 0 ? fold(normalized) : null;
+                if (foldedWord != null) {
+                    folded.add(foldedWord);
+                }
+            }
+            return new Dictionary(Collections.unmodifiableSet(folded));
+        }
+
+        // Uma palavra por linha, '#' para comentários, como o arquivo de respostas
+        public static Dictionary load(Path file) throws IOException {
+            return of(AnswerSetLoader.parse(Files.readAllLines(file, StandardCharsets.UTF_8)));
+        }
+
+        public int size() {
+            return folded.size();
+        }
+
+        private static Dictionary loadDefault() {
+            try (InputStream in = FuzzyMatcher.class.getResourceAsStream("/fuzzy/common-words.txt")) {
+                if (in == null) {
+                    return EMPTY;
+                }
+                return of(AnswerSetLoader.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static FuzzyMatcher compile(Collection<String> normalizedAnswers, EditBudget budget) {
+        return compile(normalizedAnswers, budget, Dictionary.EMPTY);
+    }
+
+    public static FuzzyMatcher compile(Collection<String> normalizedAnswers, EditBudget budget, Dictionary dictionary) {
+        if (budget.isDisabled() || normalizedAnswers.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> originals = new ArrayList<>();
+        List<String> foldedAnswers = new ArrayList<>();
+        List<Integer> edits = new ArrayList<>();
+        Map<String, List<Integer>> index = new HashMap<>();
+        int maxDistance = 0;
+        int minLength = Integer.MAX_VALUE;
+        int maxLength = 0;
+
+        for (String answer : normalizedAnswers) {
+            // Respostas com espaço são cobertas pelas variantes exatas
+            String foldedAnswer = fold(answer);
+            if (foldedAnswer == null || answer.indexOf(' ') >= 0) {
+                continue;
+            }
+            int id = originals.size();
+            int allowed = budget.editsFor(answer.length());
+            originals.add(answer);
+            foldedAnswers.add(foldedAnswer);
+            edits.add(allowed);
+            maxDistance = Math.max(maxDistance, allowed);
+            minLength = Math.min(minLength, foldedAnswer.length());
+            maxLength = Math.max(maxLength, foldedAnswer.length());
+
+            List<String> forms = new ArrayList<>();
+            collectDeletions(foldedAnswer, allowed, forms);
+            for (String form : forms) {
+                List<Integer> ids = index.computeIfAbsent(form, key -> new ArrayList<>(1));
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                    ids.add(id);
+                }
+            }
+        }
+        if (originals.isEmpty()) {
+            return EMPTY;
+        }
+
+        Map<String, int[]> deletions = new HashMap<>(index.size() * 2);
+        index.forEach((form, ids) -> deletions.put(form, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new FuzzyMatcher(originals.toArray(new String[0]), foldedAnswers.toArray(new String[0]),
+                edits.stream().mapToInt(Integer::intValue).toArray(), deletions, dictionary, maxDistance, minLength, maxLength);
+    }
+
+    public int size() {
+        return answers.length;
+    }
+
+    // Recebe a mensagem já limpa (minúsculas, alfanuméricos separados por um espaço)
+    public AnswerMatcher.Match find(CharSequence cleanedMessage) {
+        if (answers.length == 0 || cleanedMessage == null) {
+            return null;
+        }
+        int length = cleanedMessage.length();
+        int start = 0;
+        // Sequência de letras soltas ("c a a s a") é tratada como uma palavra só
+        int letterRunStart = -1;
+        StringBuilder letterRun = new StringBuilder();
+        while (start < length) {
+            int end = start;
+            while (end < length && cleanedMessage.charAt(end) != ' ') {
+                end++;
+            }
+            if (end - start == 1) {
+                if (letterRunStart < 0) {
+                    letterRunStart = start;
+                }
+                letterRun.append(cleanedMessage.charAt(start));
+            } else {
+                if (letterRun.length() > 1) {
+                    AnswerMatcher.Match match = findToken(letterRun, letterRunStart, start - 1);
+                    if (match != null) {
+                        return match;
+                    }
+                }
+                letterRun.setLength(0);
+                letterRunStart = -1;
+                if (end > start) {
+                    AnswerMatcher.Match match = findToken(cleanedMessage.subSequence(start, end), start, end);
+                    if (match != null) {
+                        return match;
+                    }
+                }
+            }
+            start = end + 1;
+        }
+        return letterRun.length() > 1 ? findToken(letterRun, letterRunStart, length) : null;
+    }
+
+    private AnswerMatcher.Match findToken(CharSequence token, int start, int end) {
+        if (token.length() < minLength - maxDistance || isDigits(token)) {
+            return null;
+        }
+        String foldedToken = fold(token);
+        if (foldedToken == null || foldedToken.length() < minLength - maxDistance
+                || foldedToken.length() > maxLength + maxDistance) {
+            return null;
+        }
+        if (dictionary.folded().contains(foldedToken)) {
+            // Palavra conhecida: só vale se for a própria resposta, sem gerar as deleções
+            int[] ids = deletions.get(foldedToken);
+            if (ids != null) {
+                for (int id : ids) {
+                    if (folded[id].equals(foldedToken)) {
+                        return new AnswerMatcher.Match(answers[id], MatchKind.FUZZY, token.toString(), start, end);
+                    }
+                }
+            }
+            return null;
+        }
+        // Primeiro a forma inteira (distância zero ou deleções só do lado da resposta), depois as deleções da palavra
+        List<String> forms = new ArrayList<>();
+        collectDeletions(foldedToken, Math.min(maxDistance, foldedToken.length() - 1), forms);
+        for (String form : forms) {
+            int[] ids = deletions.get(form);
+            if (ids == null) {
+                continue;
+            }
+            for (int id : ids) {
+                if (Math.abs(folded[id].length() - foldedToken.length()) <= maxEdits[id]
+                        && distance(folded[id], foldedToken, maxEdits[id]) <= maxEdits[id]) {
+                    return new AnswerMatcher.Match(answers[id], MatchKind.FUZZY, token.toString(), start, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    // A própria forma seguida das que saem apagando de 1 até maxDeletes letras, por nível
+    private static void collectDeletions(String word, int maxDeletes, List<String> out) {
+        out.add(word);
+        int from = 0;
+        for (int level = 0; level < maxDeletes; level++) {
+            int to = out.size();
+            for (int i = from; i < to; i++) {
+                String form = out.get(i);
+                for (int position = 0; position < form.length(); position++) {
+                    // Apagar letras iguais vizinhas gera a mesma forma
+                    if (position > 0 && form.charAt(position) == form.charAt(position - 1)) {
+                        continue;
+                    }
+                    String deleted = form.substring(0, position) + form.substring(position + 1);
+                    if (!deleted.isEmpty()) {
+                        out.add(deleted);
+                    }
+                }
+            }
+            from = to;
+        }
+    }
+
+    // Distância de edição com transposição de vizinhas (OSA), abandonada ao passar de limit
+    static int distance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[m];
+    }
+
+    // Desfaz leet e trocas fonéticas comuns e junta letras repetidas: "kk4zza" vira "casa".
+    // Aplicado igual nas respostas e nas palavras da mensagem; null quando não sobra nada
+    static String fold(CharSequence word) {
+        StringBuilder result = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = switch (word.charAt(i)) {
+                case '4' -> 'a';
+                case '3' -> 'e';
+                case '1' -> 'i';
+                case '0' -> 'o';
+                case '5', 'z' -> 's';
+                case '7' -> 't';
+                case 'k', 'q' -> 'c';
+                case 'y' -> 'i';
+                case 'w' -> 'v';
+                default -> word.charAt(i);
+            };
+            if (result.length() == 0 || result.charAt(result.length() - 1) != c) {
+                result.append(c);
+            }
+        }
+        return result.length() == 0 ? null : result.toString();
+    }
+
+    private static boolean isDigits(CharSequence token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,359 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Combina vários endpoints de IA (URLs, chaves ou modelos diferentes).
+// Cada lote vai para o endpoint com melhor latência observada, ponderada pelos lotes em voo
+// (o melhor de dois sorteados). Se ele não responde até o percentil configurado da própria latência,
+// as mensagens ainda sem veredito são reenviadas a outro endpoint e vale o primeiro veredito válido.
+// Endpoints que falham seguido ficam fora por um tempo (dobrando a cada reincidência) e voltam sozinhos.
+// Se nenhum chegou a chamar a API (disjuntor aberto, bulkhead cheio em todos), vale a política degradada.
+public class HedgedAiProvider implements AiProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedAiProvider.class);
+
+    // Amostras de latência guardadas por endpoint, para o percentil
+    private static final int LATENCY_SAMPLES = 128;
+    // Abaixo disso o percentil não é confiável e vale o atraso inicial
+    private static final int MIN_SAMPLES = 16;
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final int MAX_EJECTION_DOUBLINGS = 3;
+
+    public static final class Endpoint {
+
+        private final String name;
+        private final AiProvider provider;
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int nextLatency;
+        private double ewmaNanos;
+        private int inFlight;
+        private int consecutiveFailures;
+        private int ejections;
+        private long ejectedUntil;
+        private boolean ejected;
+
+        public Endpoint(String name, AiProvider provider) {
+            this.name = name;
+            this.provider = provider;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public synchronized boolean isHealthy() {
+            return !ejected || System.nanoTime() - ejectedUntil >= 0;
+        }
+
+        synchronized double load() {
+            // Sem amostras ainda: preferido, para começar a medir
+            return ewmaNanos * (inFlight + 1);
+        }
+
+        synchronized void started() {
+            inFlight++;
+        }
+
+        synchronized void succeeded(long nanos) {
+            inFlight--;
+            latencies[nextLatency] = nanos;
+            nextLatency = (nextLatency + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(LATENCY_SAMPLES, latencyCount + 1);
+            ewmaNanos = ewmaNanos == 0 ? nanos : ewmaNanos + EWMA_WEIGHT * (nanos - ewmaNanos);
+            consecutiveFailures = 0;
+            ejections = 0;
+            ejected = false;
+        }
+
+        // true quando esta falha tirou o endpoint de circulação
+        synchronized boolean failed(int failuresToEject, long ejectNanos) {
+            inFlight--;
+            consecutiveFailures++;
+            if (ejected && System.nanoTime() - ejectedUntil < 0) {
+                // Já está fora: falhas de lotes que estavam em voo não prolongam a ejeção
+                return false;
+            }
+            // De volta depois de uma ejeção, basta uma falha para sair de novo
+            if (!ejected && consecutiveFailures < failuresToEject) {
+                return false;
+            }
+            long duration = ejectNanos << Math.min(ejections, MAX_EJECTION_DOUBLINGS);
+            ejections++;
+            ejected = true;
+            ejectedUntil = System.nanoTime() + duration;
+            return true;
+        }
+
+        synchronized long percentileNanos(double percentile) {
+            if (latencyCount < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * latencyCount) - 1;
+            return sorted[Math.max(0, Math.min(latencyCount - 1, index))];
+        }
+
+        synchronized long ejectedUntil() {
+            return ejectedUntil;
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+    private final long initialHedgeDelayNanos;
+    private final int failuresToEject;
+    private final long ejectNanos;
+    private final DegradedPolicy degradedPolicy;
+    private final ModerationMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    public HedgedAiProvider(List<Endpoint> endpoints, double hedgePercentile, long minHedgeDelayMillis,
+                            long initialHedgeDelayMillis, int failuresToEject, long ejectMillis, ModerationMetrics metrics) {
+        this(endpoints, hedgePercentile, minHedgeDelayMillis, initialHedgeDelayMillis, failuresToEject, ejectMillis,
+                DegradedPolicy.RULES_ONLY, metrics);
+    }
+
+    public HedgedAiProvider(List<Endpoint> endpoints, double hedgePercentile, long minHedgeDelayMillis,
+                            long initialHedgeDelayMillis, int failuresToEject, long ejectMillis,
+                            DegradedPolicy degradedPolicy, ModerationMetrics metrics) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one AI endpoint is required");
+        }
+        if (hedgePercentile <= 0 || hedgePercentile > 1) {
+            throw new IllegalArgumentException("hedgePercentile must be in (0, 1]: " + hedgePercentile);
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMillis);
+        this.initialHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(initialHedgeDelayMillis);
+        this.failuresToEject = Math.max(1, failuresToEject);
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectMillis);
+        this.degradedPolicy = degradedPolicy;
+        this.metrics = metrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Endpoint endpoint : this.endpoints) {
+            metrics.registerAiEndpoint(endpoint.getName(), endpoint::isHealthy);
+        }
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public List<Boolean> analyzeMessagesForTermoAnswers(List<String> messages) {
+        return analyzeMessagesForTermoAnswersAsync(messages).join();
+    }
+
+    @Override
+    public List<CompletableFuture<Boolean>> analyzeEachMessageAsync(List<String> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            verdicts.add(new CompletableFuture<>());
+        }
+        // 1 nas posições em que algum endpoint tentou a API e falhou (não só recusou sem chamar)
+        AtomicIntegerArray failed = new AtomicIntegerArray(messages.size());
+        List<Integer> all = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            all.add(i);
+        }
+
+        Endpoint primary = choose(null);
+        CompletableFuture<Boolean> primaryDone = send(primary, messages, all, verdicts, failed);
+        AtomicBoolean hedged = new AtomicBoolean();
+        Runnable hedge = () -> {
+            if (hedged.compareAndSet(false, true)) {
+                hedge(primary, primaryDone, messages, verdicts, failed);
+            }
+        };
+        ScheduledFuture<?> timer = scheduler.schedule(hedge, hedgeDelayNanos(primary), TimeUnit.NANOSECONDS);
+        primaryDone.thenAccept(ok -> {
+            if (ok) {
+                timer.cancel(false);
+            } else {
+                // Não espera o atraso: o que ficou sem veredito vai já para outro endpoint
+                hedge.run();
+            }
+        });
+        return verdicts;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.provider instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.debug("Error closing AI endpoint {}", endpoint.getName(), e);
+                }
+            } else if (endpoint.provider instanceof DeepSeekAiProvider deepSeek) {
+                deepSeek.shutdown();
+            }
+        }
+    }
+
+    private void hedge(Endpoint primary, CompletableFuture<Boolean> primaryDone, List<String> messages,
+                       List<CompletableFuture<Boolean>> verdicts, AtomicIntegerArray failed) {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < verdicts.size(); i++) {
+            if (!verdicts.get(i).isDone()) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Endpoint backup = choose(primary);
+        if (backup == null) {
+            // Sem outro endpoint: o que o primário não responder cai no fallback
+            primaryDone.thenRun(() -> fallback(verdicts, pending, failed));
+            return;
+        }
+        metrics.aiHedge("sent");
+        List<String> subset = new ArrayList<>(pending.size());
+        pending.forEach(index -> subset.add(messages.get(index)));
+        logger.debug("Hedging {} of {} messages from {} to {}", pending.size(), messages.size(),
+                primary.getName(), backup.getName());
+        CompletableFuture<Boolean> backupDone = send(backup, subset, pending, verdicts, failed);
+        backupDone.thenAccept(ok -> {
+            if (ok && primaryDone.getNow(false) == Boolean.FALSE) {
+                metrics.aiHedge("won");
+            }
+        });
+        // O primário ainda pode responder depois do reserva falhar; só desiste quando os dois terminaram
+        CompletableFuture.allOf(primaryDone, backupDone).thenRun(() -> fallback(verdicts, pending, failed));
+    }
+
+    // Encaminha as mensagens a um endpoint; completa com true se todas tiveram veredito válido.
+    // Cada veredito válido vale para a posição original, se ninguém respondeu antes.
+    private CompletableFuture<Boolean> send(Endpoint endpoint, List<String> messages, List<Integer> positions,
+                                            List<CompletableFuture<Boolean>> verdicts, AtomicIntegerArray failed) {
+        endpoint.started();
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> answers;
+        try {
+            answers = endpoint.provider.analyzeEachMessageAsync(messages);
+        } catch (RuntimeException e) {
+            answers = Collections.nCopies(messages.size(), CompletableFuture.failedFuture(e));
+        }
+        for (int i = 0; i < answers.size(); i++) {
+            CompletableFuture<Boolean> target = verdicts.get(positions.get(i));
+            answers.get(i).thenAccept(target::complete);
+        }
+        List<CompletableFuture<Boolean>> sent = answers;
+        return CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).handle((ignored, error) -> {
+            // Antes de completar: o fallback roda depois deste lote e precisa saber o que foi falha de fato
+            for (int i = 0; i < positions.size(); i++) {
+                if (i >= sent.size() || sent.get(i).isCompletedExceptionally() && !isShortCircuited(sent.get(i))) {
+                    failed.set(positions.get(i), 1);
+                }
+            }
+            if (error == null && sent.size() == messages.size()) {
+                endpoint.succeeded(System.nanoTime() - start);
+                return true;
+            }
+            if (endpoint.failed(failuresToEject, ejectNanos)) {
+                logger.warn("AI endpoint {} ejected after repeated failures", endpoint.getName());
+                metrics.aiEndpointEjected(endpoint.getName());
+            }
+            return false;
+        });
+    }
+
+    // Nenhum endpoint respondeu por estas mensagens: fallback seguro, como no provedor único.
+    // Se todos recusaram sem chamar a API, a IA está fora de propósito e vale a política degradada.
+    private void fallback(List<CompletableFuture<Boolean>> verdicts, List<Integer> positions, AtomicIntegerArray failed) {
+        List<CompletableFuture<Boolean>> missing = new ArrayList<>();
+        List<CompletableFuture<Boolean>> shortCircuited = new ArrayList<>();
+        for (int index : positions) {
+            if (!verdicts.get(index).isDone()) {
+                (failed.get(index) == 0 ? shortCircuited : missing).add(verdicts.get(index));
+            }
+        }
+        // Conta antes de completar: quem espera os vereditos já encontra a métrica atualizada
+        if (!missing.isEmpty()) {
+            logger.info("No AI endpoint answered {} messages; treating them as safe", missing.size());
+            metrics.aiFallback(missing.size());
+            AiFallbackException fallback = new AiFallbackException("no-endpoint", false);
+            missing.forEach(verdict -> verdict.completeExceptionally(fallback));
+        }
+        if (!shortCircuited.isEmpty()) {
+            logger.debug("Every AI endpoint short-circuited {} messages; applying the {} policy",
+                    shortCircuited.size(), degradedPolicy);
+            AiFallbackException fallback = AiFallbackException.degraded("all-endpoints-degraded",
+                    degradedPolicy == DegradedPolicy.BLOCK);
+            shortCircuited.forEach(verdict -> verdict.completeExceptionally(fallback));
+        }
+    }
+
+    // O endpoint recusou sem chamar a API (disjuntor aberto, bulkhead cheio)
+    private static boolean isShortCircuited(CompletableFuture<Boolean> answer) {
+        if (!answer.isCompletedExceptionally()) {
+            return false;
+        }
+        Throwable error = answer.handle((value, e) -> e).join();
+        return AiFallbackException.isFallback(error) && AiFallbackException.of(error).isDegraded();
+    }
+
+    private long hedgeDelayNanos(Endpoint endpoint) {
+        long percentile = endpoint.percentileNanos(hedgePercentile);
+        return percentile < 0 ? initialHedgeDelayNanos : Math.max(minHedgeDelayNanos, percentile);
+    }
+
+    // Melhor de dois endpoints saudáveis sorteados; sem nenhum saudável, o que volta primeiro
+    private Endpoint choose(Endpoint excluded) {
+        List<Endpoint> healthy = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint != excluded && endpoint.isHealthy()) {
+                healthy.add(endpoint);
+            }
+        }
+        if (healthy.isEmpty()) {
+            Endpoint soonest = null;
+            for (Endpoint endpoint : endpoints) {
+                if (endpoint != excluded && (soonest == null || endpoint.ejectedUntil() - soonest.ejectedUntil() < 0)) {
+                    soonest = endpoint;
+                }
+            }
+            return soonest;
+        }
+        if (healthy.size() == 1) {
+            return healthy.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(healthy.size());
+        int second = random.nextInt(healthy.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = healthy.get(first);
+        Endpoint b = healthy.get(second);
+        return a.load() <= b.load() ? a : b;
+    }
+}
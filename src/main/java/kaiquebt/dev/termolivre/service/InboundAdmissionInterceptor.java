@@ -0,0 +1,134 @@
+package kaiquebt.dev.termolivre.service;
+
+import kaiquebt.dev.termolivre.model.ChatError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Admissão das mensagens que os clientes enviam (SEND), antes de chegarem ao controller
+// e ao filtro: tamanho máximo, balde de fichas por sessão e balde global.
+// Recusadas são descartadas aqui, contadas e avisadas à sessão em /user/queue/errors.
+// O balde de uma sessão sai quando ela termina, com ou sem frame DISCONNECT (ver onApplicationEvent).
+@Component
+public class InboundAdmissionInterceptor implements ChannelInterceptor, ApplicationListener<SessionDisconnectEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundAdmissionInterceptor.class);
+
+    private static final String ERRORS_DESTINATION = "/queue/errors";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ModerationMetrics metrics;
+    private final Map<String, TokenBucket> sessionBuckets = new ConcurrentHashMap<>();
+    private TokenBucket globalBucket;
+
+    // Corpo máximo de uma mensagem enviada pelo cliente, em bytes
+    @Value("${chat.inbound.max-message-bytes:2000}")
+    private int maxMessageBytes;
+
+    // Mensagens por segundo de cada sessão, com rajada de até burst (0 = sem limite)
+    @Value("${chat.inbound.session.rate-per-second:1}")
+    private double sessionRate;
+
+    @Value("${chat.inbound.session.burst:5}")
+    private int sessionBurst;
+
+    // Soma de todas as sessões; protege o gasto com a IA mesmo com muitos clientes
+    @Value("${chat.inbound.global.rate-per-second:20}")
+    private double globalRate;
+
+    @Value("${chat.inbound.global.burst:50}")
+    private int globalBurst;
+
+    // O template depende do broker, que depende deste interceptor
+    public InboundAdmissionInterceptor(@Lazy SimpMessagingTemplate messagingTemplate, ModerationMetrics metrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        globalBucket = globalRate > 0 ? new TokenBucket(globalRate, globalBurst) : null;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        String sessionId = accessor.getSessionId();
+        if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
+            if (sessionId != null) {
+                sessionBuckets.remove(sessionId);
+            }
+            return message;
+        }
+        if (!StompCommand.SEND.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        // Tamanho primeiro: não gasta ficha com o que seria recusado de qualquer jeito
+        if (message.getPayload() instanceof byte[] body && body.length > maxMessageBytes) {
+            return reject(sessionId, "too_large", 0);
+        }
+        if (sessionId != null && sessionRate > 0) {
+            TokenBucket bucket = sessionBuckets.get(sessionId);
+            if (bucket == null) {
+                bucket = sessionBuckets.computeIfAbsent(sessionId, id -> new TokenBucket(sessionRate, sessionBurst));
+            }
+            if (!bucket.tryAcquire()) {
+                return reject(sessionId, "rate_limited", bucket.getRetryAfterMillis());
+            }
+        }
+        if (globalBucket != null && !globalBucket.tryAcquire()) {
+            return reject(sessionId, "overloaded", globalBucket.getRetryAfterMillis());
+        }
+        return message;
+    }
+
+    // Publicado em todo fim de sessão, inclusive quando a conexão cai sem DISCONNECT
+    @Override
+    public void onApplicationEvent(SessionDisconnectEvent event) {
+        if (event.getSessionId() != null) {
+            sessionBuckets.remove(event.getSessionId());
+        }
+    }
+
+    public int getTrackedSessionCount() {
+        return sessionBuckets.size();
+    }
+
+    private Message<?> reject(String sessionId, String reason, long retryAfterMs) {
+        metrics.inboundRejected(reason);
+        if (sessionId != null) {
+            // Sem usuário autenticado: o id da sessão faz as vezes de usuário em /user/queue/errors
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setLeaveMutable(true);
+            try {
+                messagingTemplate.convertAndSendToUser(sessionId, ERRORS_DESTINATION,
+                        new ChatError(reason, retryAfterMs), headers.getMessageHeaders());
+            } catch (RuntimeException e) {
+                logger.debug("Could not report rejection to session {}", sessionId, e);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Limita quanto tempo uma mensagem espera pelo veredito da IA.
+// Exatamente um entre onTime e onDeadline é chamado; se o prazo estourar,
+// onLate recebe o veredito quando (e se) ele chegar.
+public class LatencyBudget {
+
+    private final long budgetMillis;
+    private final ScheduledExecutorService scheduler;
+
+    public LatencyBudget(long budgetMillis, String name) {
+        this.budgetMillis = budgetMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latency-budget-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void watch(CompletableFuture<Boolean> verdict, Consumer<Boolean> onTime,
+                      Runnable onDeadline, Consumer<Boolean> onLate) {
+        if (budgetMillis <= 0 || verdict.isDone()) {
+            verdict.thenAccept(onTime);
+            return;
+        }
+
+        AtomicBoolean decided = new AtomicBoolean();
+        ScheduledFuture<?> deadline = scheduler.schedule(() -> {
+            if (decided.compareAndSet(false, true)) {
+                onDeadline.run();
+                verdict.thenAccept(onLate);
+            }
+        }, budgetMillis, TimeUnit.MILLISECONDS);
+
+        verdict.thenAccept(safe -> {
+            if (decided.compareAndSet(false, true)) {
+                deadline.cancel(false);
+                onTime.accept(safe);
+            }
+        });
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
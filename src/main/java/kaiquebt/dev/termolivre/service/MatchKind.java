@@ -0,0 +1,102 @@
+package kaiquebt.dev.termolivre.service;
+
+// Formas em que uma resposta pode aparecer numa mensagem limpa.
+// Cada tipo gera sua variante uma única vez por versão do conjunto de respostas;
+// para adicionar uma nova ofuscação basta um novo valor aqui.
+public enum MatchKind {
+
+    // Palavra resposta direta
+    DIRECT(true) {
+        @Override
+        public String variantOf(String answer) {
+            return answer;
+        }
+    },
+
+    // Palavra com espaços entre as letras. Exemplo: "c a s a"
+    SPACED(false) {
+        @Override
+        public String variantOf(String answer) {
+            StringBuilder result = new StringBuilder(answer.length() * 2);
+            for (int i = 0; i < answer.length(); i++) {
+                if (i > 0) {
+                    result.append(' ');
+                }
+                result.append(answer.charAt(i));
+            }
+            return result.toString();
+        }
+    },
+
+    // Palavra com caracteres repetidos. Exemplo: "ccaassaa" para "casa"
+    DOUBLED(false) {
+        @Override
+        public String variantOf(String answer) {
+            StringBuilder result = new StringBuilder();
+            for (char c : answer.toCharArray()) {
+                result.append(c).append(c);
+            }
+            return result.toString();
+        }
+    },
+
+    // Substituições comuns de caracteres. Exemplo: 'a' por '@', 'o' por '0'
+    LEET(false) {
+        @Override
+        public String variantOf(String answer) {
+            return answer
+                    .replace('a', '@')
+                    .replace('e', '3')
+                    .replace('i', '1')
+                    .replace('o', '0')
+                    .replace('s', '5')
+                    .replace('t', '7');
+        }
+    },
+
+    // Palavra escrita ao contrário
+    REVERSED(true) {
+        @Override
+        public String variantOf(String answer) {
+            return new StringBuilder(answer).reverse().toString();
+        }
+    },
+
+    // Remoção de vogais (tentativa comum); curtas demais geram falso positivo
+    NO_VOWELS(false) {
+        @Override
+        public String variantOf(String answer) {
+            StringBuilder withoutVowels = new StringBuilder(answer.length());
+            for (int i = 0; i < answer.length(); i++) {
+                char c = answer.charAt(i);
+                if ("aeiou".indexOf(c) < 0) {
+                    withoutVowels.append(c);
+                }
+            }
+            return withoutVowels.length() >= 3 ? withoutVowels.toString() : null;
+        }
+    },
+
+    // Erro de digitação ou disfarce aproximado ("caasa", "k4sa"); não é uma variante literal,
+    // quem encontra é o FuzzyMatcher, depois que nenhuma das formas exatas bateu
+    FUZZY(true) {
+        @Override
+        public String variantOf(String answer) {
+            return null;
+        }
+    };
+
+    private final boolean wholeWord;
+
+    MatchKind(boolean wholeWord) {
+        this.wholeWord = wholeWord;
+    }
+
+    // Se a variante precisa aparecer como palavra completa (\b) ou basta estar contida
+    public boolean isWholeWord() {
+        return wholeWord;
+    }
+
+    // Retorna null quando o tipo não se aplica à resposta
+    public abstract String variantOf(String answer);
+}
@@ -0,0 +1,151 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.text.Normalizer;
+
+// Normalizador de mensagens em uma única passada, guiado por tabela.
+// Converte para minúsculas, remove acentos, troca o que não é alfanumérico por espaço
+// e colapsa espaços. Também desfaz truques de Unicode comuns no chat: letras full-width,
+// letras "matemáticas" (𝐜𝐚𝐬𝐚), marcas combinantes, caracteres de largura zero e
+// homóglifos cirílicos.
+public final class MessageNormalizer {
+
+    // Marcadores da tabela: DROP some com o caractere, SEPARATOR vira espaço
+    private static final char DROP = 0;
+    private static final char SEPARATOR = ' ';
+
+    // Cobre Latin-1, Latin Extended A/B, marcas combinantes, grego, cirílico
+    // e Latin Extended Additional (ạ, ế, ...)
+    private static final int TABLE_SIZE = 0x1F00;
+    private static final char[] TABLE = buildTable();
+
+    private MessageNormalizer() {
+    }
+
+    public static String normalize(CharSequence message) {
+        if (message == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(message.length());
+        normalize(message, out);
+        return out.toString();
+    }
+
+    // Variante para o caminho quente: escreve no buffer recebido, sem alocar
+    public static StringBuilder normalize(CharSequence message, StringBuilder out) {
+        out.setLength(0);
+        if (message == null) {
+            return out;
+        }
+        boolean pendingSpace = false;
+        int length = message.length();
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            char mapped;
+            if (c < TABLE_SIZE) {
+                mapped = TABLE[c];
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(message.charAt(i + 1))) {
+                mapped = mapSupplementary(Character.toCodePoint(c, message.charAt(++i)));
+            } else {
+                mapped = mapBmp(c);
+            }
+
+            if (mapped == DROP) {
+                continue;
+            }
+            if (mapped == SEPARATOR) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(mapped);
+        }
+        return out;
+    }
+
+    private static char mapBmp(char c) {
+        // Largura zero, controle bidi e seletores de variação
+        if ((c >= 0x200B && c <= 0x200F) || (c >= 0x202A && c <= 0x202E)
+                || (c >= 0x2060 && c <= 0x2064) || c == 0xFEFF
+                || (c >= 0xFE00 && c <= 0xFE0F)) {
+            return DROP;
+        }
+        // Marcas combinantes fora do bloco principal
+        if ((c >= 0x1AB0 && c <= 0x1AFF) || (c >= 0x1DC0 && c <= 0x1DFF)
+                || (c >= 0x20D0 && c <= 0x20FF) || (c >= 0xFE20 && c <= 0xFE2F)) {
+            return DROP;
+        }
+        // Formas full-width: ａ-ｚ, Ａ-Ｚ, ０-９
+        if (c >= 0xFF41 && c <= 0xFF5A) {
+            return (char) ('a' + (c - 0xFF41));
+        }
+        if (c >= 0xFF21 && c <= 0xFF3A) {
+            return (char) ('a' + (c - 0xFF21));
+        }
+        if (c >= 0xFF10 && c <= 0xFF19) {
+            return (char) ('0' + (c - 0xFF10));
+        }
+        return SEPARATOR;
+    }
+
+    private static char mapSupplementary(int codePoint) {
+        // Letras matemáticas: 13 estilos de A-Z a-z em sequência
+        if (codePoint >= 0x1D400 && codePoint <= 0x1D6A3) {
+            int index = (codePoint - 0x1D400) % 52;
+            return (char) ('a' + (index < 26 ? index : index - 26));
+        }
+        // Dígitos matemáticos: 5 estilos de 0-9
+        if (codePoint >= 0x1D7CE && codePoint <= 0x1D7FF) {
+            return (char) ('0' + (codePoint - 0x1D7CE) % 10);
+        }
+        // Tags e seletores de variação suplementares
+        if ((codePoint >= 0xE0000 && codePoint <= 0xE007F) || (codePoint >= 0xE0100 && codePoint <= 0xE01EF)) {
+            return DROP;
+        }
+        return SEPARATOR;
+    }
+
+    private static char[] buildTable() {
+        char[] table = new char[TABLE_SIZE];
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            table[c] = foldBmp((char) c);
+        }
+        // Soft hyphen e marcas combinantes somem sem separar a palavra
+        table[0x00AD] = DROP;
+        for (int c = 0x0300; c <= 0x036F; c++) {
+            table[c] = DROP;
+        }
+        // Homóglifos cirílicos e gregos usados para burlar o filtro
+        mapHomoglyphs(table, "аa еe оo рp сc уy хx іi ѕs јj кk ԁd ԛq ԝw οo ιi νv");
+        mapHomoglyphs(table, "Аa Вb Еe Кk Мm Нh Оo Рp Сc Тt Хx Іi Ѕs ЈJ ΑA ΒB ΕE ΗH ΙI ΚK ΜM ΝN ΟO ΡP ΤT ΧX ΥY ΖZ");
+        return table;
+    }
+
+    private static char foldBmp(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        if (c < 0x80 || Character.isSurrogate(c)) {
+            return SEPARATOR;
+        }
+        // Decompõe (á -> a + ´) e fica com a letra base quando ela é ASCII
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        char base = decomposed.charAt(0);
+        if (base < 0x80 && base != c) {
+            return foldBmp(base);
+        }
+        return SEPARATOR;
+    }
+
+    private static void mapHomoglyphs(char[] table, String pairs) {
+        for (String pair : pairs.split(" ")) {
+            table[pair.charAt(0)] = Character.toLowerCase(pair.charAt(1));
+        }
+    }
+}
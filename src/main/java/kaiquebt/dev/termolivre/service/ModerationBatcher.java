@@ -0,0 +1,187 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Agrega mensagens que precisam de análise da IA por uma janela curta (tamanho e tempo)
+// e envia tudo numa única chamada a isEachMessageSafeAfterRulesAsync, publicando o veredito de cada uma assim que chega.
+// As regras locais já rodaram antes de submit (TermoFilter.checkRules) e não rodam de novo aqui.
+public class ModerationBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationBatcher.class);
+
+    // Quantos lotes cheios podem ficar esperando antes de recusar novas mensagens
+    private static final int QUEUE_BATCHES = 100;
+
+    private final TermoFilter filter;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue;
+    // Limita lotes em voo por canal, para um canal inundado não ocupar o provedor inteiro
+    private final Semaphore inFlightBatches;
+    private final Thread worker;
+    private final String name;
+    private final ModerationMetrics metrics;
+    // Log só na entrada e na saída do estado "fila cheia", não a cada mensagem recusada
+    private final AtomicBoolean full = new AtomicBoolean();
+    private final AtomicLong droppedWhileFull = new AtomicLong();
+    private volatile boolean running;
+
+    private record Pending(String message, String cacheKey, long enqueuedAt, CompletableFuture<Boolean> verdict) {
+    }
+
+    public ModerationBatcher(TermoFilter filter, int maxBatchSize, long maxWaitMillis, String name) {
+        this(filter, maxBatchSize, maxWaitMillis, Integer.MAX_VALUE, name);
+    }
+
+    public ModerationBatcher(TermoFilter filter, int maxBatchSize, long maxWaitMillis, int maxInFlightBatches, String name) {
+        this(filter, maxBatchSize, maxWaitMillis, maxInFlightBatches, name, new ModerationMetrics());
+    }
+
+    public ModerationBatcher(TermoFilter filter, int maxBatchSize, long maxWaitMillis, int maxInFlightBatches, String name,
+                             ModerationMetrics metrics) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.filter = filter;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        this.queue = new LinkedBlockingQueue<>(maxBatchSize * QUEUE_BATCHES);
+        this.inFlightBatches = new Semaphore(Math.max(1, maxInFlightBatches));
+        this.worker = new Thread(this::run, "moderation-batcher-" + name);
+        this.worker.setDaemon(true);
+        this.name = name;
+        this.metrics = metrics;
+    }
+
+    public void start() {
+        running = true;
+        worker.start();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    public CompletableFuture<Boolean> submit(String message) {
+        return submit(message, null);
+    }
+
+    // Retorna true quando a mensagem é segura; sem veredito do modelo, termina com AiFallbackException.
+    // cacheKey: o texto normalizado de TermoFilter.checkRules (null normaliza no lote)
+    public CompletableFuture<Boolean> submit(String message, String cacheKey) {
+        CompletableFuture<Boolean> verdict = new CompletableFuture<>();
+        if (!running) {
+            verdict.completeExceptionally(new AiFallbackException("stopped", false));
+            return verdict;
+        }
+        if (!queue.offer(new Pending(message, cacheKey, System.nanoTime(), verdict))) {
+            // Fila cheia: não seguramos o chat, vale só o que as regras já decidiram
+            metrics.batchRejected(name);
+            droppedWhileFull.incrementAndGet();
+            if (full.compareAndSet(false, true)) {
+                logger.warn("Moderation queue for {} is full; messages go out without AI review until it drains", name);
+            }
+            verdict.completeExceptionally(new AiFallbackException("queue-full", false));
+        } else if (full.get() && full.compareAndSet(true, false)) {
+            logger.info("Moderation queue for {} accepting messages again; {} went out without AI review", name,
+                    droppedWhileFull.getAndSet(0));
+        }
+        return verdict;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                // Enquanto o canal está no limite de lotes em voo, as mensagens se acumulam na fila
+                // e o próximo lote sai maior
+                inFlightBatches.acquire();
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    inFlightBatches.release();
+                    continue;
+                }
+                batch.add(first);
+
+                // A janela conta a partir da mensagem mais antiga do lote
+                long deadline = first.enqueuedAt() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                batch.forEach(pending -> pending.verdict().completeExceptionally(new AiFallbackException("stopped", false)));
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Não deixar ninguém esperando um veredito que nunca vai chegar
+        List<Pending> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(pending -> pending.verdict().completeExceptionally(new AiFallbackException("stopped", false)));
+    }
+
+    private void flush(List<Pending> batch) {
+        List<String> messages = new ArrayList<>(batch.size());
+        List<String> cacheKeys = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            messages.add(pending.message());
+            cacheKeys.add(pending.cacheKey());
+        }
+        logger.debug("Flushing moderation batch of {} messages", messages.size());
+
+        // O lote segue sozinho; o worker já volta a juntar a próxima janela
+        List<Pending> inFlight = new ArrayList<>(batch);
+        List<CompletableFuture<Boolean>> verdicts;
+        try {
+            verdicts = filter.isEachMessageSafeAfterRulesAsync(messages, cacheKeys);
+        } catch (Exception e) {
+            verdicts = Collections.nCopies(inFlight.size(), CompletableFuture.failedFuture(e));
+        }
+        for (int i = 0; i < inFlight.size(); i++) {
+            CompletableFuture<Boolean> pendingVerdict = inFlight.get(i).verdict();
+            CompletableFuture<Boolean> verdict = i < verdicts.size() ? verdicts.get(i)
+                    : CompletableFuture.failedFuture(new AiFallbackException("missing", false));
+            // Erro inesperado também vira fallback (seguro), para quem espera saber que não houve veredito
+            verdict.whenComplete((safe, error) -> {
+                if (error == null) {
+                    pendingVerdict.complete(safe);
+                } else {
+                    pendingVerdict.completeExceptionally(AiFallbackException.of(error));
+                }
+            });
+        }
+        // A vaga de lote em voo só volta quando o último veredito chega
+        CompletableFuture.allOf(verdicts.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            inFlightBatches.release();
+            if (error != null && !AiFallbackException.isFallback(error)) {
+                logger.error("Error moderating batch of {} messages", inFlight.size(), error);
+            }
+        });
+    }
+}
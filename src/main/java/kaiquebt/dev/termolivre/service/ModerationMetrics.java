@@ -0,0 +1,236 @@
+package kaiquebt.dev.termolivre.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+// Métricas de cada etapa da moderação, expostas em /actuator/prometheus.
+// Os medidores são criados uma vez; no caminho quente só há nanoTime e um record/increment.
+// Sem registro (testes, benchmarks), tudo vira no-op.
+@Component
+public class ModerationMetrics {
+
+    public enum Stage {
+        // Da mensagem enviada na Twitch (tmi-sent-ts) até chegar aqui
+        RECEIVE,
+        NORMALIZE,
+        RULES,
+        // Pontuação do classificador local, quando ligado
+        CLASSIFIER,
+        // Do envio à IA até o veredito de cada mensagem (com streaming, cada uma chega num momento)
+        AI,
+        // Serializar e entregar ao broker
+        BROADCAST,
+        // Da chegada até a primeira publicação para os espectadores
+        END_TO_END
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<MatchKind, Counter> ruleHits = new EnumMap<>(MatchKind.class);
+    private final Counter aiFallbacks;
+    private final Counter aiResponseMismatches;
+    private final Map<String, Counter> classifierDecisions = new HashMap<>();
+    private final Counter floodAbsorbed;
+    private final Map<String, Counter> inboundRejections = new HashMap<>();
+    private final Map<String, Counter> aiHedges = new HashMap<>();
+    private final Map<String, Counter> auditRecords = new HashMap<>();
+    // Tags que só se conhecem em uso (endpoint, canal): criados na primeira vez e reaproveitados
+    private final Map<String, Counter> aiEjections = new ConcurrentHashMap<>();
+    private final Map<String, Counter> aiCallFailures = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> aiBreakerTransitions = new ConcurrentHashMap<>();
+    private final Map<String, Counter> workerRejections = new ConcurrentHashMap<>();
+    private final Map<String, Counter> batchRejections = new ConcurrentHashMap<>();
+    private final Map<List<String>, Counter> aiShortCircuits = new ConcurrentHashMap<>();
+
+    public ModerationMetrics() {
+        this(new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public ModerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("moderation.stage.latency")
+                    .description("Latency of each moderation pipeline stage")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (MatchKind kind : MatchKind.values()) {
+            ruleHits.put(kind, Counter.builder("moderation.rule.hits")
+                    .description("Messages blocked by the local rules, by obfuscation kind")
+                    .tag("kind", kind.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        aiFallbacks = Counter.builder("moderation.ai.fallbacks")
+                .description("Messages treated as safe because the AI call failed")
+                .register(registry);
+        aiResponseMismatches = Counter.builder("moderation.ai.response.mismatches")
+                .description("AI responses whose verdict count did not match the batch")
+                .register(registry);
+        for (String outcome : List.of("safe", "unsafe", "remote")) {
+            classifierDecisions.put(outcome, Counter.builder("moderation.classifier.decisions")
+                    .description("Messages decided by the local classifier, or sent on to the remote AI")
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+        floodAbsorbed = Counter.builder("chat.flood.absorbed")
+                .description("Repeated messages folded into an earlier copy instead of moderated and sent")
+                .register(registry);
+        for (String result : List.of("sent", "won")) {
+            aiHedges.put(result, Counter.builder("moderation.ai.hedges")
+                    .description("Duplicate AI requests sent to a second endpoint, and how many answered first")
+                    .tag("result", result)
+                    .register(registry));
+        }
+        for (String result : List.of("written", "dropped")) {
+            auditRecords.put(result, Counter.builder("moderation.audit.records")
+                    .description("Moderation decisions written to the audit log, or dropped")
+                    .tag("result", result)
+                    .register(registry));
+        }
+        for (String reason : List.of("too_large", "rate_limited", "overloaded")) {
+            inboundRejections.put(reason, Counter.builder("chat.inbound.rejected")
+                    .description("Client-sent messages refused before moderation, by reason")
+                    .tag("reason", reason)
+                    .register(registry));
+        }
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void ruleHit(MatchKind kind) {
+        ruleHits.get(kind).increment();
+    }
+
+    public void aiFallback(int messages) {
+        aiFallbacks.increment(messages);
+    }
+
+    public void aiResponseMismatch() {
+        aiResponseMismatches.increment();
+    }
+
+    // outcome: safe, unsafe ou remote
+    public void classifierDecision(String outcome) {
+        classifierDecisions.get(outcome).increment();
+    }
+
+    public void floodAbsorbed() {
+        floodAbsorbed.increment();
+    }
+
+    public void inboundRejected(String reason) {
+        inboundRejections.get(reason).increment();
+    }
+
+    // result: written ou dropped (fila cheia ou erro de disco)
+    public void auditRecord(String result) {
+        auditRecords.get(result).increment();
+    }
+
+    public void aiHedge(String result) {
+        aiHedges.get(result).increment();
+    }
+
+    public void aiEndpointEjected(String endpoint) {
+        aiEjections.computeIfAbsent(endpoint, key -> Counter.builder("moderation.ai.endpoint.ejections")
+                .description("Times an AI endpoint was taken out of rotation after repeated failures")
+                .tag("endpoint", endpoint)
+                .register(registry)).increment();
+    }
+
+    // Chamada à API que falhou (erro de rede, HTTP ou resposta inválida), por endpoint
+    public void aiCallFailed(String endpoint) {
+        aiCallFailures.computeIfAbsent(endpoint, key -> Counter.builder("moderation.ai.call.failures")
+                .description("AI API calls that failed, by endpoint")
+                .tag("endpoint", endpoint)
+                .register(registry)).increment();
+    }
+
+    public void aiBreakerTransition(String endpoint, CircuitBreaker.State state) {
+        String stateTag = state.name().toLowerCase(Locale.ROOT);
+        aiBreakerTransitions.computeIfAbsent(List.of(endpoint, stateTag), key -> Counter.builder("moderation.ai.breaker.transitions")
+                .description("Circuit breaker state changes of an AI endpoint")
+                .tag("endpoint", endpoint)
+                .tag("state", stateTag)
+                .register(registry)).increment();
+    }
+
+    // Chamado a cada mensagem descartada numa rajada: sem lookup no registro
+    public void workerRejected(String channel) {
+        workerRejections.computeIfAbsent(channel, key -> Counter.builder("moderation.workers.rejected")
+                .description("Messages given the deadline policy because the channel's moderation queue was full")
+                .tag("channel", channel)
+                .register(registry)).increment();
+    }
+
+    public void batchRejected(String channel) {
+        batchRejections.computeIfAbsent(channel, key -> Counter.builder("moderation.queue.rejected")
+                .description("Messages sent on without AI review because the channel's batch queue was full")
+                .tag("channel", channel)
+                .register(registry)).increment();
+    }
+
+    // reason: open (disjuntor) ou bulkhead (fila de lotes cheia)
+    public void aiShortCircuited(String endpoint, String reason, int messages) {
+        aiShortCircuits.computeIfAbsent(List.of(endpoint, reason), key -> Counter.builder("moderation.ai.short.circuited")
+                .description("Messages given the degraded verdict without calling the AI")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(registry)).increment(messages);
+    }
+
+    // 0 fechado, 1 aberto, 2 meio-aberto
+    public void registerAiBreaker(String endpoint, CircuitBreaker breaker) {
+        Gauge.builder("moderation.ai.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("Circuit breaker state of an AI endpoint: 0 closed, 1 open, 2 half-open")
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    public void registerAiEndpoint(String endpoint, BooleanSupplier healthy) {
+        Gauge.builder("moderation.ai.endpoint.healthy", healthy, supplier -> supplier.getAsBoolean() ? 1 : 0)
+                .description("1 while the AI endpoint is in rotation")
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    // Lida só quando o Prometheus coleta
+    public void registerQueue(String channel, ModerationBatcher batcher) {
+        Gauge.builder("moderation.queue.depth", batcher, ModerationBatcher::getQueueSize)
+                .description("Messages waiting for an AI batch")
+                .tag("channel", channel)
+                .register(registry);
+    }
+
+    // Fila dos workers do canal e mensagens prontas esperando uma anterior para serem publicadas
+    public void registerChannel(String channel, ThreadPoolExecutor workers, ReorderBuffer reorderBuffer) {
+        Gauge.builder("moderation.workers.queue.depth", workers, executor -> executor.getQueue().size())
+                .description("Messages waiting for a moderation worker of the channel")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("moderation.reorder.waiting", reorderBuffer, ReorderBuffer::getWaitingCount)
+                .description("Moderated messages held back until an earlier one is published")
+                .tag("channel", channel)
+                .register(registry);
+    }
+}
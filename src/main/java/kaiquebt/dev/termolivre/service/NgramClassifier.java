@@ -0,0 +1,183 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Classificador local bem pequeno: regressão logística sobre n-gramas de caracteres
+// da mensagem normalizada, com hashing para um vetor de pesos de tamanho fixo.
+// Pontuar é uma passada pela mensagem somando pesos, sem alocação; o modelo inteiro
+// cabe em 2^bits floats. Treinado offline (ClassifierTool) a partir de chat rotulado.
+public final class NgramClassifier {
+
+    private static final int MAGIC = 0x54524d43; // "TRMC"
+    private static final int FORMAT = 1;
+    private static final int MIN_N = 2;
+    private static final int MAX_N = 4;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final int bits;
+    private final float[] weights;
+    private float bias;
+
+    // weight: quantas mensagens o exemplo representa (liberadas amostradas na auditoria valem mais de uma)
+    public record Example(String message, boolean unsafe, double weight) {
+        public Example(String message, boolean unsafe) {
+            this(message, unsafe, 1);
+        }
+    }
+
+    private NgramClassifier(int bits, float[] weights, float bias) {
+        this.bits = bits;
+        this.weights = weights;
+        this.bias = bias;
+    }
+
+    // Probabilidade de a mensagem tentar revelar a resposta
+    public double score(String message) {
+        StringBuilder text = padded(message);
+        double logit = bias;
+        int mask = weights.length - 1;
+        int length = text.length();
+        for (int start = 0; start < length; start++) {
+            int hash = 0x811c9dc5;
+            for (int n = 1; n <= MAX_N && start + n <= length; n++) {
+                hash = (hash ^ text.charAt(start + n - 1)) * 0x01000193;
+                if (n >= MIN_N) {
+                    logit += weights[mix(hash, n) & mask];
+                }
+            }
+        }
+        return 1 / (1 + Math.exp(-logit));
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    // Descida de gradiente estocástica com regularização L2; os positivos ganham peso
+    // proporcional ao desbalanceamento, já que spoilers são raros no chat
+    public static NgramClassifier train(List<Example> examples, int bits, int epochs, long seed) {
+        if (bits < 8 || bits > 24) {
+            throw new IllegalArgumentException("bits must be between 8 and 24: " + bits);
+        }
+        NgramClassifier model = new NgramClassifier(bits, new float[1 << bits], 0);
+        double positives = examples.stream().filter(Example::unsafe).mapToDouble(Example::weight).sum();
+        double negatives = examples.stream().filter(example -> !example.unsafe()).mapToDouble(Example::weight).sum();
+        double positiveWeight = positives == 0 ? 1 : Math.min(20, Math.max(1, negatives / positives));
+        // Pesos normalizados para média 1: o passo do gradiente não cresce com a amostragem
+        double scale = positives + negatives == 0 ? 1 : examples.size() / (positives + negatives);
+        double l2 = 1e-6;
+
+        List<Example> shuffled = new ArrayList<>(examples);
+        Random random = new Random(seed);
+        List<Integer> features = new ArrayList<>();
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Collections.shuffle(shuffled, random);
+            double rate = 0.2 / (1 + epoch);
+            for (Example example : shuffled) {
+                model.features(example.message(), features);
+                double logit = model.bias;
+                for (int feature : features) {
+                    logit += model.weights[feature];
+                }
+                double predicted = 1 / (1 + Math.exp(-logit));
+                double weight = (example.unsafe() ? positiveWeight : 1) * example.weight() * scale;
+                double gradient = (predicted - (example.unsafe() ? 1 : 0)) * weight;
+                model.bias -= (float) (rate * gradient);
+                for (int feature : features) {
+                    model.weights[feature] -= (float) (rate * (gradient + l2 * model.weights[feature]));
+                }
+            }
+        }
+        return model;
+    }
+
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeInt(bits);
+        out.writeFloat(bias);
+        for (float weight : weights) {
+            out.writeFloat(weight);
+        }
+        out.flush();
+    }
+
+    public static NgramClassifier load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    public static NgramClassifier read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a classifier model file");
+        }
+        int format = in.readInt();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported classifier model format " + format);
+        }
+        int bits = in.readInt();
+        if (bits < 8 || bits > 24) {
+            throw new IOException("Invalid model size: " + bits + " bits");
+        }
+        float bias = in.readFloat();
+        float[] weights = new float[1 << bits];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = in.readFloat();
+        }
+        return new NgramClassifier(bits, weights, bias);
+    }
+
+    // Mesmos índices que score soma, para o treino
+    private void features(String message, List<Integer> out) {
+        out.clear();
+        StringBuilder text = padded(message);
+        int mask = weights.length - 1;
+        int length = text.length();
+        for (int start = 0; start < length; start++) {
+            int hash = 0x811c9dc5;
+            for (int n = 1; n <= MAX_N && start + n <= length; n++) {
+                hash = (hash ^ text.charAt(start + n - 1)) * 0x01000193;
+                if (n >= MIN_N) {
+                    out.add(mix(hash, n) & mask);
+                }
+            }
+        }
+    }
+
+    // Mensagem normalizada com espaço nas pontas, para os n-gramas marcarem início e fim de palavra
+    private static StringBuilder padded(String message) {
+        StringBuilder text = MessageNormalizer.normalize(message, BUFFER.get());
+        return text.insert(0, ' ').append(' ');
+    }
+
+    // Separa n-gramas de tamanhos diferentes que terminariam no mesmo hash
+    private static int mix(int hash, int n) {
+        int h = hash ^ (n * 0x9e3779b9);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
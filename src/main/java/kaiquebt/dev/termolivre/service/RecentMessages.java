@@ -0,0 +1,108 @@
+package kaiquebt.dev.termolivre.service;
+
+import kaiquebt.dev.termolivre.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+// Últimas N mensagens publicadas de um canal, para quem conecta (ou reconecta) depois.
+// Capacidade fixa (potência de dois) alocada uma vez; escrita e leitura sem lock:
+// quem publica reserva uma posição com getAndIncrement e quem lê descarta o que foi sobrescrito no meio.
+public class RecentMessages {
+
+    // Cópia imutável da mensagem com a posição em que foi escrita
+    private record Entry(long sequence, ChatMessage message) {
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    public RecentMessages(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public void add(ChatMessage message) {
+        long sequence = next.getAndIncrement();
+        slots.set((int) (sequence & mask), new Entry(sequence, copyOf(message, message.getContent())));
+    }
+
+    // Troca o conteúdo da cópia guardada (liberação ou retratação tardia); false se já saiu do buffer
+    public boolean update(String id, String content) {
+        return replace(id, message -> copyOf(message, content));
+    }
+
+    // Contagem de repetições absorvidas durante um flood; false se já saiu do buffer
+    public boolean updateRepeats(String id, int repeats, int senders) {
+        return replace(id, message -> {
+            ChatMessage copy = copyOf(message, message.getContent());
+            copy.setRepeats(repeats);
+            copy.setSenders(senders);
+            return copy;
+        });
+    }
+
+    private boolean replace(String id, UnaryOperator<ChatMessage> change) {
+        if (id == null) {
+            return false;
+        }
+        long newest = next.get() - 1;
+        long oldest = Math.max(0, newest - mask);
+        for (long sequence = newest; sequence >= oldest; sequence--) {
+            int index = (int) (sequence & mask);
+            Entry entry = slots.get(index);
+            if (entry == null || entry.sequence() != sequence || !id.equals(entry.message().getId())) {
+                continue;
+            }
+            // CAS perdido para outra atualização da mesma mensagem: relê e aplica sobre a versão nova.
+            // Só desiste quando a posição foi reaproveitada (a mensagem já saiu do buffer)
+            while (true) {
+                Entry updated = new Entry(sequence, change.apply(entry.message()));
+                if (slots.compareAndSet(index, entry, updated)) {
+                    return true;
+                }
+                entry = slots.get(index);
+                if (entry == null || entry.sequence() != sequence) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Da mais antiga para a mais nova; cópias, para quem lê não alterar o buffer
+    public List<ChatMessage> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - slots.length());
+        List<ChatMessage> messages = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = slots.get((int) (sequence & mask));
+            // Vazia (escrita ainda em andamento) ou já sobrescrita por uma mais nova
+            if (entry != null && entry.sequence() == sequence) {
+                ChatMessage message = entry.message();
+                messages.add(copyOf(message, message.getContent()));
+            }
+        }
+        return messages;
+    }
+
+    private static ChatMessage copyOf(ChatMessage message, String content) {
+        return new ChatMessage(content, message.getSender(), message.getTimestamp(), message.getId(),
+                message.getRepeats(), message.getSenders());
+    }
+}
@@ -0,0 +1,161 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Devolve a ordem de chegada às mensagens moderadas em paralelo.
+// Cada mensagem recebe um número na entrada (next); quando a moderação termina, complete entrega
+// a publicação, que só sai depois das anteriores. Se uma anterior demora mais que maxHold,
+// as prontas atrás dela saem mesmo assim e a atrasada é publicada assim que ficar pronta.
+public class ReorderBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReorderBuffer.class);
+
+    private record Ready(long readyAt, List<Runnable> actions) {
+    }
+
+    private final long maxHoldNanos;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    // Prontas esperando as anteriores; protegido pelo lock do próprio buffer
+    private final TreeMap<Long, Ready> waiting = new TreeMap<>();
+    // Ações de after para mensagens que ainda estão em moderação (inclusive as puladas)
+    private final Map<Long, List<Runnable>> early = new HashMap<>();
+    // Puladas pelo maxHold e ainda em moderação: o after delas espera a publicação
+    private final Set<Long> skipped = new HashSet<>();
+    private long nextToEmit;
+
+    public ReorderBuffer(long maxHoldMillis, String name) {
+        this.maxHoldNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxHoldMillis));
+        if (maxHoldMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reorder-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, maxHoldMillis / 4);
+            scheduler.scheduleAtFixedRate(this::releaseExpired, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public long next() {
+        return sequence.getAndIncrement();
+    }
+
+    // publication null: a mensagem não vai ser publicada (DROP), mas libera as que vêm depois
+    public void complete(long seq, Runnable publication) {
+        if (scheduler == null) {
+            run(publication);
+            return;
+        }
+        synchronized (this) {
+            List<Runnable> actions = new ArrayList<>(1);
+            if (publication != null) {
+                actions.add(publication);
+            }
+            List<Runnable> attached = early.remove(seq);
+            if (attached != null) {
+                actions.addAll(attached);
+            }
+            if (seq < nextToEmit) {
+                // Já foi pulada pelo maxHold: sai agora, fora de ordem, seguida do que esperava por ela
+                skipped.remove(seq);
+                actions.forEach(this::run);
+                return;
+            }
+            waiting.put(seq, new Ready(System.nanoTime(), actions));
+            drain();
+        }
+    }
+
+    // Algo que precisa sair depois da publicação de seq (por exemplo, a atualização de um veredito atrasado)
+    public void after(long seq, Runnable action) {
+        if (scheduler == null) {
+            run(action);
+            return;
+        }
+        synchronized (this) {
+            Ready ready = waiting.get(seq);
+            if (ready != null) {
+                ready.actions().add(action);
+                return;
+            }
+            if (seq >= nextToEmit || skipped.contains(seq)) {
+                // Ainda nem terminou a moderação: sai junto com a publicação
+                early.computeIfAbsent(seq, key -> new ArrayList<>(1)).add(action);
+                return;
+            }
+        }
+        run(action);
+    }
+
+    public int getWaitingCount() {
+        synchronized (this) {
+            return waiting.size();
+        }
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            // Nada fica preso no buffer ao desligar
+            synchronized (this) {
+                waiting.values().forEach(ready -> ready.actions().forEach(this::run));
+                waiting.clear();
+                early.clear();
+                skipped.clear();
+            }
+        }
+    }
+
+    private void releaseExpired() {
+        synchronized (this) {
+            long now = System.nanoTime();
+            Map.Entry<Long, Ready> oldest;
+            while ((oldest = waiting.firstEntry()) != null && now - oldest.getValue().readyAt() >= maxHoldNanos) {
+                // Desiste das que faltam antes da mais antiga pronta
+                logger.debug("Skipping {} unfinished messages after waiting {} ms", oldest.getKey() - nextToEmit,
+                        TimeUnit.NANOSECONDS.toMillis(maxHoldNanos));
+                for (long seq = nextToEmit; seq < oldest.getKey(); seq++) {
+                    skipped.add(seq);
+                }
+                nextToEmit = oldest.getKey();
+                drain();
+            }
+        }
+    }
+
+    // Chamado com o lock; publica em sequência enquanto não houver buraco
+    private void drain() {
+        Ready ready;
+        while ((ready = waiting.remove(nextToEmit)) != null) {
+            nextToEmit++;
+            ready.actions().forEach(this::run);
+        }
+    }
+
+    private void run(Runnable action) {
+        if (action == null) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.error("Error publishing moderated message", e);
+        }
+    }
+}
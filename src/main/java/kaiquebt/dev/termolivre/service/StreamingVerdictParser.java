@@ -0,0 +1,65 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.function.BiConsumer;
+
+// Lê a lista "true,false,..." da IA em pedaços, como chega no streaming, e entrega o veredito
+// de cada posição assim que a palavra dela se completa, sem esperar a resposta inteira.
+// Mesma regra de DeepSeekAiProvider.parseAiResponse: só "true" marca a mensagem; o resto vale false.
+class StreamingVerdictParser {
+
+    private final int expectedCount;
+    private final BiConsumer<Integer, Boolean> onVerdict;
+    private final StringBuilder token = new StringBuilder();
+    // Posição atual e se o veredito dela já foi entregue (antes da vírgula)
+    private int index;
+    private boolean delivered;
+
+    StreamingVerdictParser(int expectedCount, BiConsumer<Integer, Boolean> onVerdict) {
+        this.expectedCount = expectedCount;
+        this.onVerdict = onVerdict;
+    }
+
+    void accept(CharSequence chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == ',') {
+                if (!delivered) {
+                    deliver(isTrue());
+                }
+                nextToken();
+            } else if (!delivered) {
+                token.append(c);
+                // "true" e "false" completos não mudam com o que vier até a vírgula
+                String word = token.toString().trim();
+                if (word.equalsIgnoreCase("true") || word.equalsIgnoreCase("false")) {
+                    deliver(isTrue());
+                }
+            }
+        }
+    }
+
+    // Fecha a última posição e retorna quantos vereditos a IA mandou
+    int finish() {
+        if (!delivered && !token.toString().isBlank()) {
+            deliver(isTrue());
+        }
+        return delivered ? index + 1 : index;
+    }
+
+    private boolean isTrue() {
+        return token.toString().trim().equalsIgnoreCase("true");
+    }
+
+    private void deliver(boolean unsafe) {
+        delivered = true;
+        if (index < expectedCount) {
+            onVerdict.accept(index, unsafe);
+        }
+    }
+
+    private void nextToken() {
+        index++;
+        delivered = false;
+        token.setLength(0);
+    }
+}
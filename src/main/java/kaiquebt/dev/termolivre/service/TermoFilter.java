@@ -1,198 +1,265 @@
 package kaiquebt.dev.termolivre.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class TermoFilter {
     
     @Autowired
     private AiProvider aiProvider;
+    
+    // Vereditos da IA já conhecidos para o mesmo texto normalizado
+    @Autowired(required = false)
+    private VerdictCache verdictCache = new VerdictCache();
+
+    @Autowired(required = false)
+    private ModerationMetrics metrics = new ModerationMetrics();
 
     // Palavras resposta do termo (hardcoded para exemplo)
     // Na prática, isso poderia vir de um banco de dados ou ser atualizado diariamente
-    private final Set<String> termoAnswers = new HashSet<>(Arrays.asList(
+    private static final List<String> DEFAULT_ANSWERS = Arrays.asList(
         "casa", "porta", "livro", "mesa", "cadeira", 
         "banco", "praia", "flore", "vento", "chuva"
-    ));
+    );
+
+    private static final ThreadLocal<StringBuilder> CLEAN_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    // Respostas e todas as variantes de ofuscação compiladas num único autômato.
+    // Trocado inteiro numa escrita volátil; quem lê pega um snapshot imutável, sem lock
+    private volatile CompiledAnswerSet answerSet = CompiledAnswerSet.compile(DEFAULT_ANSWERS);
+
+    public TermoFilter() {
+    }
+
+    public TermoFilter(AiProvider aiProvider) {
+        this.aiProvider = aiProvider;
+    }
+
+    public TermoFilter(AiProvider aiProvider, VerdictCache verdictCache) {
+        this.aiProvider = aiProvider;
+        this.verdictCache = verdictCache;
+    }
+
+    public TermoFilter(AiProvider aiProvider, VerdictCache verdictCache, ModerationMetrics metrics) {
+        this.aiProvider = aiProvider;
+        this.verdictCache = verdictCache;
+        this.metrics = metrics;
+    }
     
+    // Filtro independente (respostas e cache próprios) que usa o mesmo provedor de IA e as mesmas métricas
+    public TermoFilter newChannelFilter() {
+        TermoFilter channelFilter = new TermoFilter(aiProvider, verdictCache.newEmptyLike(), metrics);
+        channelFilter.useFuzzy(answerSet.getEditBudget(), answerSet.getDictionary());
+        return channelFilter;
+    }
+    
+    public CompiledAnswerSet getAnswerSet() {
+        return answerSet;
+    }
+    
+    // Compila o novo conjunto na thread chamadora, fora do caminho quente, e publica de uma vez
+    public CompiledAnswerSet updateAnswers(Collection<String> answers) {
+        CompiledAnswerSet current = answerSet;
+        CompiledAnswerSet compiled = CompiledAnswerSet.compile(answers, current.getEditBudget(), current.getDictionary());
+        answerSet = compiled;
+        return compiled;
+    }
+    
+    // Edições aceitas pela busca aproximada, por tamanho da resposta ("6:1,9:2"); vazio desliga
+    @Value("${moderation.fuzzy.max-edits:6:1,9:2}")
+    public void setFuzzyMaxEdits(String spec) {
+        useFuzzy(FuzzyMatcher.EditBudget.parse(spec), answerSet.getDictionary());
+    }
+    
+    // Lista de palavras da língua (uma por linha) que a busca aproximada nunca trata como resposta
+    // disfarçada; vazio usa a lista embutida de palavras comuns do chat
+    @Value("${moderation.fuzzy.dictionary-file:}")
+    public void setFuzzyDictionaryFile(String file) throws IOException {
+        if (file != null && !file.isBlank()) {
+            useFuzzy(answerSet.getEditBudget(), FuzzyMatcher.Dictionary.load(Path.of(file)));
+        }
+    }
+    
+    private void useFuzzy(FuzzyMatcher.EditBudget editBudget, FuzzyMatcher.Dictionary dictionary) {
+        CompiledAnswerSet current = answerSet;
+        answerSet = CompiledAnswerSet.compile(current.getAnswers(), editBudget, dictionary);
+    }
+    
+    // Apenas as regras locais (respostas e ofuscações), sem chamar a IA
+    public AnswerMatcher.Match findAnswer(String message) {
+        if (message == null || message.trim().isEmpty()) {
+            return null;
+        }
+        return findIn(answerSet, cleanMessage(message));
+    }
+    
+    // Regras locais, cache e IA; as decisões ficam na trilha de auditoria (AuditLog), fora do caminho quente
     public boolean isMessageSafe(String message) {
+        return isMessageSafeAsync(message).join();
+    }
+    
+    // Variante não bloqueante: regras locais na hora, IA sem prender a thread chamadora
+    public CompletableFuture<Boolean> isMessageSafeAsync(String message) {
+        return areMessagesSafeAsync(Collections.singletonList(message)).thenApply(results -> results.get(0));
+    }
+    
+    public List<Boolean> areMessagesSafe(List<String> messages) {
+        return areMessagesSafeAsync(messages).join();
+    }
+    
+    // Mensagens sem veredito do modelo recebem o de fallback
+    public CompletableFuture<List<Boolean>> areMessagesSafeAsync(List<String> messages) {
+        List<CompletableFuture<Boolean>> each = isEachMessageSafeAsync(messages);
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(each.size());
+        for (CompletableFuture<Boolean> verdict : each) {
+            verdicts.add(verdict.exceptionally(error -> !AiFallbackException.unsafeVerdict(error)));
+        }
+        return AiProvider.collect(verdicts);
+    }
+    
+    // Resultado das regras locais: o match, ou o texto normalizado que o cache e a IA usam depois
+    public record RuleCheck(AnswerMatcher.Match match, String cacheKey) {
+    }
+    
+    // Regras locais de quem segue para a IA sem passar por elas de novo (isEachMessageSafeAfterRulesAsync)
+    public RuleCheck checkRules(String message) {
         if (message == null || message.trim().isEmpty()) {
-            System.out.println("Message is null or empty, returning true");
-            return true;
+            return new RuleCheck(null, null);
+        }
+        CharSequence cleanedMessage = cleanMessage(message);
+        AnswerMatcher.Match match = findIn(answerSet, cleanedMessage);
+        return new RuleCheck(match, match == null ? cleanedMessage.toString() : null);
+    }
+    
+    // Um veredito por mensagem; os que dependem da IA completam conforme ela responde cada um.
+    // Sem veredito do modelo, o futuro termina com AiFallbackException e nada entra no cache
+    public List<CompletableFuture<Boolean>> isEachMessageSafeAsync(List<String> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return Collections.emptyList();
         }
         
-        String cleanedMessage = cleanMessage(message);
-        System.out.println("Cleaned message: " + cleanedMessage);
+        // Todas as mensagens do lote usam a mesma versão das respostas
+        CompiledAnswerSet answers = answerSet;
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(messages.size());
+        List<String> cacheKeys = new ArrayList<>(messages.size());
         
-        // Verificar se a mensagem contém diretamente alguma das palavras resposta
-        for (String answer : termoAnswers) {
-            if (containsWord(cleanedMessage, answer)) {
-                System.out.println("Found direct answer match: " + answer);
-                return false;
+        // Primeira verificação: regras básicas
+        for (String message : messages) {
+            if (message == null || message.trim().isEmpty()) {
+                results.add(CompletableFuture.completedFuture(true));
+                cacheKeys.add(null);
+                continue;
             }
+            
+            // Verificar palavras resposta diretas e ofuscações
+            CharSequence cleanedMessage = cleanMessage(message);
+            if (findIn(answers, cleanedMessage) != null) {
+                results.add(CompletableFuture.completedFuture(false));
+                cacheKeys.add(null);
+                continue;
+            }
+            results.add(null); // Preenchido pelo cache ou pela IA abaixo
+            cacheKeys.add(cleanedMessage.toString());
         }
-        
-        // Verificar por tentativas comuns de ofuscação
-        if (containsObfuscatedTermoAnswer(cleanedMessage)) {
-            System.out.println("Found obfuscated answer");
-            return false;
-        }
-        
-        // Se passou pelas verificações básicas, usar IA para análise mais sofisticada
-        System.out.println("Using AI for advanced analysis");
-        List<String> singleMessageList = Collections.singletonList(message);
-        List<Boolean> aiResults = aiProvider.analyzeMessagesForTermoAnswers(singleMessageList);
-        boolean result = !aiResults.get(0);
-        System.out.println("AI analysis result: " + result);
-        return result;
+        return cacheOrAi(answers, messages, cacheKeys, results);
     }
-    public List<Boolean> areMessagesSafe(List<String> messages) {
+    
+    // Só cache e IA, para mensagens em que checkRules não achou nada; cacheKeys é o cacheKey de cada
+    // uma (null normaliza aqui). Regras e normalização não rodam nem entram nas métricas duas vezes
+    public List<CompletableFuture<Boolean>> isEachMessageSafeAfterRulesAsync(List<String> messages, List<String> cacheKeys) {
         if (messages == null || messages.isEmpty()) {
             return Collections.emptyList();
         }
         
-        List<Boolean> results = new ArrayList<>();
-        List<String> toAiAnalysis = new ArrayList<>();
-        List<Integer> aiAnalysisIndices = new ArrayList<>();
-        
-        // Primeira verificação: regras básicas
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(messages.size());
+        List<String> keys = new ArrayList<>(messages.size());
         for (int i = 0; i < messages.size(); i++) {
             String message = messages.get(i);
             if (message == null || message.trim().isEmpty()) {
-                results.add(true);
+                results.add(CompletableFuture.completedFuture(true));
+                keys.add(null);
                 continue;
             }
-            
-            String cleanedMessage = cleanMessage(message);
-            boolean isUnsafe = false;
-            
-            // Verificar palavras resposta diretas
-            for (String answer : termoAnswers) {
-                if (containsWord(cleanedMessage, answer)) {
-                    isUnsafe = true;
-                    break;
-                }
-            }
-            
-            // Verificar ofuscações
-            if (!isUnsafe) {
-                isUnsafe = containsObfuscatedTermoAnswer(cleanedMessage);
+            String cacheKey = i < cacheKeys.size() ? cacheKeys.get(i) : null;
+            results.add(null);
+            keys.add(cacheKey != null ? cacheKey : cleanMessage(message).toString());
+        }
+        return cacheOrAi(answerSet, messages, keys, results);
+    }
+    
+    // Preenche as posições ainda vazias de results: veredito do cache ou, na falta dele, da IA
+    private List<CompletableFuture<Boolean>> cacheOrAi(CompiledAnswerSet answers, List<String> messages,
+                                                       List<String> cacheKeys, List<CompletableFuture<Boolean>> results) {
+        List<String> toAiAnalysis = new ArrayList<>();
+        List<String> aiCacheKeys = new ArrayList<>();
+        List<Integer> aiAnalysisIndices = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
             }
-            
-            if (isUnsafe) {
-                results.add(false);
+            String cacheKey = cacheKeys.get(i);
+            Boolean cachedUnsafe = verdictCache.get(answers.getVersion(), cacheKey);
+            if (cachedUnsafe != null) {
+                results.set(i, CompletableFuture.completedFuture(!cachedUnsafe));
             } else {
                 // Marcar para análise pela IA
-                toAiAnalysis.add(message);
+                toAiAnalysis.add(messages.get(i));
+                aiCacheKeys.add(cacheKey);
                 aiAnalysisIndices.add(i);
-                results.add(true); // Temporariamente true, será atualizado pela IA
             }
         }
         
-        // Análise pela IA em lote
-        if (!toAiAnalysis.isEmpty()) {
-            List<Boolean> aiResults = aiProvider.analyzeMessagesForTermoAnswers(toAiAnalysis);
-            for (int i = 0; i < aiResults.size(); i++) {
-                int originalIndex = aiAnalysisIndices.get(i);
-                // Se a IA detectou que é unsafe, atualizar o resultado
-                if (aiResults.get(i)) {
-                    results.set(originalIndex, false);
-                }
-            }
+        if (toAiAnalysis.isEmpty()) {
+            return results;
         }
         
+        // Análise pela IA em lote; cada veredito segue sozinho assim que chega
+        long aiStart = System.nanoTime();
+        List<CompletableFuture<Boolean>> aiResults = aiProvider.analyzeEachMessageAsync(toAiAnalysis);
+        for (int i = 0; i < aiAnalysisIndices.size(); i++) {
+            String cacheKey = aiCacheKeys.get(i);
+            CompletableFuture<Boolean> aiResult = i < aiResults.size() ? aiResults.get(i)
+                    : CompletableFuture.failedFuture(new AiFallbackException("missing", false));
+            results.set(aiAnalysisIndices.get(i), aiResult.thenApply(unsafe -> {
+                metrics.recordStage(ModerationMetrics.Stage.AI, System.nanoTime() - aiStart);
+                verdictCache.put(answers.getVersion(), cacheKey, unsafe);
+                return !unsafe;
+            }));
+        }
         return results;
     }
     
-    private String cleanMessage(String message) {
-        // Converter para minúsculas e remover acentos
-        String cleaned = message.toLowerCase()
-                .replaceAll("[áàâãä]", "a")
-                .replaceAll("[éèêë]", "e")
-                .replaceAll("[íìîï]", "i")
-                .replaceAll("[óòôõö]", "o")
-                .replaceAll("[úùûü]", "u")
-                .replaceAll("[ç]", "c")
-                .replaceAll("[^a-z0-9 ]", " ") // Remove caracteres especiais, mantém espaços
-                .replaceAll("\\s+", " ") // Normaliza espaços múltiplos
-                .trim();
-        return cleaned;
-    }
-    
-    private boolean containsWord(String text, String word) {
-        // Verifica se a palavra está presente como uma palavra completa
-        String pattern = "\\b" + Pattern.quote(word) + "\\b";
-        return Pattern.compile(pattern).matcher(text).find();
+    public VerdictCache getVerdictCache() {
+        return verdictCache;
     }
     
-    private boolean containsObfuscatedTermoAnswer(String message) {
-        // Verificar por ofuscações comuns
-        
-        for (String answer : termoAnswers) {
-            // 1. Verificar se a mensagem contém a palavra com espaços entre as letras
-            String spaced = String.join(" ", answer.split(""));
-            if (message.contains(spaced)) {
-                return true;
-            }
-            
-            // 2. Verificar se a mensagem contém a palavra com caracteres repetidos
-            // Exemplo: "ccaassaa" para "casa"
-            String doubled = doubleCharacters(answer);
-            if (message.contains(doubled)) {
-                return true;
-            }
-            
-            // 3. Verificar por substituições comuns de caracteres
-            // Exemplo: substituir 'a' por '@', 'o' por '0', etc.
-            String leet = toLeetSpeak(answer);
-            if (message.contains(leet)) {
-                return true;
-            }
-            
-            // 4. Verificar se a palavra está escrita ao contrário
-            String reversed = new StringBuilder(answer).reverse().toString();
-            if (containsWord(message, reversed)) {
-                return true;
-            }
-            
-            // 5. Verificar por remoção de vogais (tentativa comum)
-            String withoutVowels = removeVowels(answer);
-            if (message.contains(withoutVowels) && withoutVowels.length() >= 3) {
-                return true;
-            }
-        }
-        
-        return false;
+    private CharSequence cleanMessage(String message) {
+        // Minúsculas, sem acentos e sem caracteres especiais, numa só passada.
+        // O buffer é reaproveitado por thread; o resultado só vale até a próxima chamada
+        long start = System.nanoTime();
+        CharSequence cleaned = MessageNormalizer.normalize(message, CLEAN_BUFFER.get());
+        metrics.recordStage(ModerationMetrics.Stage.NORMALIZE, System.nanoTime() - start);
+        return cleaned;
     }
     
-    private String doubleCharacters(String word) {
-        StringBuilder result = new StringBuilder();
-        for (char c : word.toCharArray()) {
-            result.append(c).append(c);
+    private AnswerMatcher.Match findIn(CompiledAnswerSet answers, CharSequence cleanedMessage) {
+        long start = System.nanoTime();
+        AnswerMatcher.Match match = answers.find(cleanedMessage);
+        metrics.recordStage(ModerationMetrics.Stage.RULES, System.nanoTime() - start);
+        if (match != null) {
+            metrics.ruleHit(match.kind());
         }
-        return result.toString();
-    }
-    
-    private String toLeetSpeak(String word) {
-        return word.toLowerCase()
-                .replace('a', '@')
-                .replace('e', '3')
-                .replace('i', '1')
-                .replace('o', '0')
-                .replace('s', '5')
-                .replace('t', '7');
-    }
-    
-    private String removeVowels(String word) {
-        return word.replaceAll("[aeiou]", "");
+        return match;
     }
 }
@@ -0,0 +1,68 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Decide localmente o que o classificador tem certeza e manda à IA remota só a faixa do meio.
+// Abaixo de safeBelow a mensagem é segura; a partir de unsafeAbove é spoiler; entre os dois vai para o remoto.
+public class TieredAiProvider implements AiProvider {
+
+    private final NgramClassifier classifier;
+    private final AiProvider remote;
+    private final double safeBelow;
+    private final double unsafeAbove;
+    private final ModerationMetrics metrics;
+
+    public TieredAiProvider(NgramClassifier classifier, AiProvider remote, double safeBelow, double unsafeAbove,
+                            ModerationMetrics metrics) {
+        if (safeBelow > unsafeAbove) {
+            throw new IllegalArgumentException("safeBelow must not exceed unsafeAbove");
+        }
+        this.classifier = classifier;
+        this.remote = remote;
+        this.safeBelow = safeBelow;
+        this.unsafeAbove = unsafeAbove;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<Boolean> analyzeMessagesForTermoAnswers(List<String> messages) {
+        return analyzeMessagesForTermoAnswersAsync(messages).join();
+    }
+
+    @Override
+    public List<CompletableFuture<Boolean>> analyzeEachMessageAsync(List<String> messages) {
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(messages.size());
+        List<String> uncertain = new ArrayList<>();
+        List<Integer> uncertainIndices = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            long start = System.nanoTime();
+            double score = classifier.score(messages.get(i));
+            metrics.recordStage(ModerationMetrics.Stage.CLASSIFIER, System.nanoTime() - start);
+            if (score < safeBelow) {
+                metrics.classifierDecision("safe");
+                verdicts.add(CompletableFuture.completedFuture(false));
+            } else if (score >= unsafeAbove) {
+                metrics.classifierDecision("unsafe");
+                verdicts.add(CompletableFuture.completedFuture(true));
+            } else {
+                metrics.classifierDecision("remote");
+                uncertain.add(messages.get(i));
+                uncertainIndices.add(i);
+                verdicts.add(null);
+            }
+        }
+        if (uncertain.isEmpty()) {
+            return verdicts;
+        }
+
+        List<CompletableFuture<Boolean>> remoteVerdicts = remote.analyzeEachMessageAsync(uncertain);
+        for (int i = 0; i < uncertainIndices.size(); i++) {
+            verdicts.set(uncertainIndices.get(i),
+                    i < remoteVerdicts.size() ? remoteVerdicts.get(i)
+                            : CompletableFuture.failedFuture(new AiFallbackException("missing", false)));
+        }
+        return verdicts;
+    }
+}
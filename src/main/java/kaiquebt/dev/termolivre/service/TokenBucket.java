@@ -0,0 +1,52 @@
+package kaiquebt.dev.termolivre.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Balde de fichas sem lock: em vez de contar fichas, guarda o instante em que o balde
+// voltaria a ficar cheio (GCRA) num único AtomicLong. Cada aquisição empurra esse instante
+// um intervalo para frente; se ele passaria de burst intervalos à frente de agora, nega.
+public class TokenBucket {
+
+    private final long intervalNanos;
+    // Quanto o instante pode estar à frente de agora: burst - 1 aquisições seguidas
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive: " + permitsPerSecond + ", " + burst);
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            // Comparações por diferença: nanoTime pode dar a volta
+            long start = arrival - nowNanos > 0 ? arrival : nowNanos;
+            if (start - nowNanos > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // Quanto falta para a próxima ficha; 0 se já há uma
+    public long getRetryAfterMillis() {
+        return getRetryAfterMillis(System.nanoTime());
+    }
+
+    long getRetryAfterMillis(long nowNanos) {
+        long wait = theoreticalArrival.get() - nowNanos - toleranceNanos;
+        return wait <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+    }
+}
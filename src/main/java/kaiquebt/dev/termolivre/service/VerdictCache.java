@@ -0,0 +1,117 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cache de vereditos da IA por texto normalizado.
+// Limitado por tamanho (LRU) e por TTL; é esvaziado sozinho quando a versão
+// do conjunto de respostas muda, já que o mesmo texto pode mudar de veredito.
+@Component
+public class VerdictCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    public static final long DEFAULT_TTL_SECONDS = 600;
+
+    private record Entry(boolean unsafe, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlSeconds;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private long answersVersion = -1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public VerdictCache(@Value("${moderation.cache.max-size:" + DEFAULT_MAX_SIZE + "}") int maxSize,
+                        @Value("${moderation.cache.ttl-seconds:" + DEFAULT_TTL_SECONDS + "}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlSeconds = ttlSeconds;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > VerdictCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public VerdictCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL_SECONDS);
+    }
+
+    // Cache vazio com os mesmos limites, para outro conjunto de respostas
+    public VerdictCache newEmptyLike() {
+        return new VerdictCache(maxSize, ttlSeconds);
+    }
+
+    // Retorna null quando não há veredito válido para esta versão das respostas
+    public synchronized Boolean get(long answersVersion, String normalizedMessage) {
+        if (maxSize <= 0 || answersVersion < this.answersVersion) {
+            return null;
+        }
+        switchVersion(answersVersion);
+        Entry entry = entries.get(normalizedMessage);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() > 0) {
+            entries.remove(normalizedMessage);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.unsafe();
+    }
+
+    public synchronized void put(long answersVersion, String normalizedMessage, boolean unsafe) {
+        if (maxSize <= 0 || answersVersion < this.answersVersion) {
+            // Veredito de uma versão antiga das respostas chegou atrasado
+            return;
+        }
+        switchVersion(answersVersion);
+        entries.put(normalizedMessage, new Entry(unsafe, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void switchVersion(long answersVersion) {
+        if (answersVersion > this.answersVersion) {
+            entries.clear();
+            this.answersVersion = answersVersion;
+        }
+    }
+}
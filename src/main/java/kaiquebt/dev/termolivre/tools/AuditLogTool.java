@@ -0,0 +1,142 @@
+package kaiquebt.dev.termolivre.tools;
+
+import kaiquebt.dev.termolivre.service.AuditLog;
+import kaiquebt.dev.termolivre.service.AuditLogReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Leitura offline da trilha de auditoria (moderation.audit.dir): um arquivo .bin ou o diretório inteiro.
+// Para treinar o classificador direto da trilha: ClassifierTool train --data=<diretório>.
+//
+// ./mvnw -Paudit compile exec:exec -Daudit.args="dump --log=audit/ --limit=100"
+// ./mvnw -Paudit compile exec:exec -Daudit.args="stats --log=audit/"
+// ./mvnw -Paudit compile exec:exec -Daudit.args="messages --log=audit/ --out=chat.txt"
+public final class AuditLogTool {
+
+    private AuditLogTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !List.of("dump", "stats", "messages").contains(args[0])) {
+            usage();
+            return;
+        }
+        Map<String, String> options = parseOptions(args);
+        Path log = Path.of(required(options, "log"));
+        switch (args[0]) {
+            case "dump" -> dump(log, Long.parseLong(options.getOrDefault("limit", String.valueOf(Long.MAX_VALUE))));
+            case "stats" -> stats(log);
+            default -> messages(log, Path.of(required(options, "out")));
+        }
+    }
+
+    // Um registro por linha, separado por TAB
+    private static void dump(Path log, long limit) throws IOException {
+        long[] printed = {0};
+        AuditLogReader.read(log, entry -> {
+            if (printed[0]++ >= limit) {
+                return;
+            }
+            System.out.printf(Locale.ROOT, "%s\t%s\t%s\t%s\t%s\t%s\t%.1f\t%d\t%s%n",
+                    Instant.ofEpochMilli(entry.timestampMillis()), entry.decision(), entry.channel(), entry.messageId(),
+                    entry.ruleKind() == null ? "-" : entry.ruleKind(), entry.safe() ? "safe" : "blocked",
+                    entry.latencyNanos() / 1e6, entry.answerSetVersion(), oneLine(entry.content()));
+        });
+    }
+
+    // Contagem e latência (p50/p99) por tipo de decisão
+    private static void stats(Path log) throws IOException {
+        Map<AuditLog.Decision, List<Long>> latencies = new EnumMap<>(AuditLog.Decision.class);
+        Map<AuditLog.Decision, int[]> blocked = new EnumMap<>(AuditLog.Decision.class);
+        Map<String, int[]> perChannel = new LinkedHashMap<>();
+        long total = AuditLogReader.read(log, entry -> {
+            latencies.computeIfAbsent(entry.decision(), decision -> new ArrayList<>()).add(entry.latencyNanos());
+            if (!entry.safe()) {
+                blocked.computeIfAbsent(entry.decision(), decision -> new int[1])[0]++;
+            }
+            perChannel.computeIfAbsent(entry.channel(), channel -> new int[1])[0]++;
+        });
+        System.out.printf(Locale.ROOT, "records: %d%n", total);
+        latencies.forEach((decision, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            System.out.printf(Locale.ROOT, "  %-8s %8d  blocked %8d  p50 %8.1f ms  p99 %8.1f ms%n", decision, sorted.length,
+                    blocked.getOrDefault(decision, new int[1])[0], percentileMillis(sorted, 0.5), percentileMillis(sorted, 0.99));
+        });
+        perChannel.forEach((channel, count) -> System.out.printf(Locale.ROOT, "  #%s: %d%n", channel, count[0]));
+    }
+
+    // Uma mensagem por linha: entrada do teste de carga (--replay) e do corpus dos benchmarks (-Dchat.corpus)
+    private static void messages(Path log, Path out) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            IOException[] error = {null};
+            long count = AuditLogReader.read(log, entry -> {
+                if (error[0] != null || entry.content().isBlank()) {
+                    return;
+                }
+                try {
+                    writer.write(oneLine(entry.content()));
+                    writer.newLine();
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) {
+                throw error[0];
+            }
+            System.out.println(count + " records read, messages written to " + out.toAbsolutePath());
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String oneLine(String text) {
+        return text.replace('\n', ' ').replace('\r', ' ').replace('\t', ' ');
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private static void usage() {
+        System.out.println("usage: dump --log=<file|dir> [--limit=N]");
+        System.out.println("       stats --log=<file|dir>");
+        System.out.println("       messages --log=<file|dir> --out=<txt>");
+    }
+}
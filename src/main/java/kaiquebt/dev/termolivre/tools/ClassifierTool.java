@@ -0,0 +1,185 @@
+package kaiquebt.dev.termolivre.tools;
+
+import kaiquebt.dev.termolivre.service.AuditLogReader;
+import kaiquebt.dev.termolivre.service.NgramClassifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+// Treino e avaliação offline do classificador local (moderation.classifier.model-file).
+// Arquivo rotulado: uma mensagem por linha, "<rótulo><TAB><mensagem>", rótulo 1/true/spoiler ou 0/false/ok.
+// --data também aceita a trilha de auditoria (um .bin ou o diretório moderation.audit.dir), rotulada pelas decisões gravadas.
+//
+// ./mvnw -Pclassifier compile exec:exec -Dclassifier.args="train --data=chat-rotulado.tsv --model=classifier.bin"
+// ./mvnw -Pclassifier compile exec:exec -Dclassifier.args="eval --data=outro.tsv --model=classifier.bin --safe-below=0.05"
+public final class ClassifierTool {
+
+    private ClassifierTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !(args[0].equals("train") || args[0].equals("eval"))) {
+            usage();
+            return;
+        }
+        Map<String, String> options = parseOptions(args);
+        List<NgramClassifier.Example> examples = readExamples(Path.of(required(options, "data")));
+        Path model = Path.of(required(options, "model"));
+        double safeBelow = Double.parseDouble(options.getOrDefault("safe-below", "0.05"));
+        double unsafeAbove = Double.parseDouble(options.getOrDefault("unsafe-above", "0.95"));
+
+        if (args[0].equals("train")) {
+            long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+            double holdout = Double.parseDouble(options.getOrDefault("holdout", "0.2"));
+            List<NgramClassifier.Example> shuffled = new ArrayList<>(examples);
+            Collections.shuffle(shuffled, new Random(seed));
+            int testSize = (int) Math.round(shuffled.size() * holdout);
+            List<NgramClassifier.Example> test = shuffled.subList(0, testSize);
+            List<NgramClassifier.Example> training = shuffled.subList(testSize, shuffled.size());
+
+            long start = System.nanoTime();
+            NgramClassifier classifier = NgramClassifier.train(training,
+                    Integer.parseInt(options.getOrDefault("bits", "18")),
+                    Integer.parseInt(options.getOrDefault("epochs", "8")), seed);
+            System.out.printf(Locale.ROOT, "trained on %d examples in %d ms%n", training.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            classifier.save(model);
+            System.out.println("model written to " + model.toAbsolutePath());
+            if (!test.isEmpty()) {
+                System.out.printf(Locale.ROOT, "holdout (%.0f%%):%n", holdout * 100);
+                report(classifier, test, safeBelow, unsafeAbove);
+            }
+        } else {
+            report(NgramClassifier.load(model), examples, safeBelow, unsafeAbove);
+        }
+    }
+
+    // Quanto do tráfego sai da IA remota e quanto isso custa em spoilers deixados passar
+    static void report(NgramClassifier classifier, List<NgramClassifier.Example> examples,
+                       double safeBelow, double unsafeAbove) {
+        double[] scores = new double[examples.size()];
+        // Uma passada antes de medir, para o tempo refletir o código já compilado pelo JIT
+        for (NgramClassifier.Example example : examples) {
+            classifier.score(example.message());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < examples.size(); i++) {
+            scores[i] = classifier.score(examples.get(i).message());
+        }
+        double microsPerMessage = (System.nanoTime() - start) / 1_000.0 / Math.max(1, examples.size());
+
+        int positives = 0;
+        int localSafe = 0;
+        int missed = 0;
+        int localUnsafe = 0;
+        int localUnsafeCorrect = 0;
+        for (int i = 0; i < examples.size(); i++) {
+            boolean unsafe = examples.get(i).unsafe();
+            positives += unsafe ? 1 : 0;
+            if (scores[i] < safeBelow) {
+                localSafe++;
+                missed += unsafe ? 1 : 0;
+            } else if (scores[i] >= unsafeAbove) {
+                localUnsafe++;
+                localUnsafeCorrect += unsafe ? 1 : 0;
+            }
+        }
+        int total = examples.size();
+        int remote = total - localSafe - localUnsafe;
+        System.out.printf(Locale.ROOT, "  examples: %d (%d spoilers), scoring %.2f us/message%n", total, positives, microsPerMessage);
+        System.out.printf(Locale.ROOT, "  thresholds: safe below %.3f, unsafe from %.3f%n", safeBelow, unsafeAbove);
+        System.out.printf(Locale.ROOT, "  local safe:   %6d (%5.1f%%)  spoilers let through: %d (%.1f%% of spoilers)%n",
+                localSafe, percent(localSafe, total), missed, percent(missed, positives));
+        System.out.printf(Locale.ROOT, "  local unsafe: %6d (%5.1f%%)  precision %.3f, recall %.3f%n",
+                localUnsafe, percent(localUnsafe, total), ratio(localUnsafeCorrect, localUnsafe), ratio(localUnsafeCorrect, positives));
+        System.out.printf(Locale.ROOT, "  remote:       %6d (%5.1f%%)%n", remote, percent(remote, total));
+        // Supondo a IA remota correta, o que sobra de erro vem só das decisões locais
+        int truePositives = localUnsafeCorrect + (positives - missed - localUnsafeCorrect);
+        int flagged = localUnsafe + (positives - missed - localUnsafeCorrect);
+        System.out.printf(Locale.ROOT, "  end to end (remote assumed right): precision %.3f, recall %.3f%n",
+                ratio(truePositives, flagged), ratio(truePositives, positives));
+
+        System.out.println("  safe-below sweep (offloaded as safe / spoilers let through):");
+        for (double threshold : new double[]{0.01, 0.02, 0.05, 0.1, 0.2, 0.3}) {
+            int offloaded = 0;
+            int leaked = 0;
+            for (int i = 0; i < examples.size(); i++) {
+                if (scores[i] < threshold) {
+                    offloaded++;
+                    leaked += examples.get(i).unsafe() ? 1 : 0;
+                }
+            }
+            System.out.printf(Locale.ROOT, "    %.2f: %5.1f%% / %.1f%%%n", threshold, percent(offloaded, total), percent(leaked, positives));
+        }
+    }
+
+    static List<NgramClassifier.Example> readExamples(Path file) throws IOException {
+        if (Files.isDirectory(file) || file.getFileName().toString().endsWith(".bin")) {
+            return AuditLogReader.labeledExamples(file);
+        }
+        List<NgramClassifier.Example> examples = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab < 0) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected <label><TAB><message>");
+            }
+            String label = line.substring(0, tab).trim().toLowerCase(Locale.ROOT);
+            boolean unsafe = switch (label) {
+                case "1", "true", "spoiler" -> true;
+                case "0", "false", "ok" -> false;
+                default -> throw new IllegalArgumentException("Line " + lineNumber + ": unknown label " + label);
+            };
+            examples.add(new NgramClassifier.Example(line.substring(tab + 1), unsafe));
+        }
+        return examples;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private static double percent(int part, int total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+
+    private static double ratio(int part, int total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    private static void usage() {
+        System.out.println("usage: train --data=<tsv> --model=<out> [--bits=18] [--epochs=8] [--holdout=0.2] [--seed=1]"
+                + " [--safe-below=0.05] [--unsafe-above=0.95]");
+        System.out.println("       eval --data=<tsv> --model=<model> [--safe-below=0.05] [--unsafe-above=0.95]");
+    }
+}
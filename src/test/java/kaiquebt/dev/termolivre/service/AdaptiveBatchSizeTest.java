@@ -0,0 +1,51 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBatchSizeTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(2000);
+
+    @Test
+    void testOnResponse_WhenFast_ShouldGrowUpToMax() {
+        AdaptiveBatchSize size = new AdaptiveBatchSize(10, 2, 12, 1000);
+
+        size.onResponse(FAST);
+        assertEquals(11, size.current());
+        size.onResponse(FAST);
+        size.onResponse(FAST);
+        assertEquals(12, size.current());
+    }
+
+    @Test
+    void testOnResponse_WhenSlow_ShouldHalve() {
+        AdaptiveBatchSize size = new AdaptiveBatchSize(10, 2, 30, 1000);
+
+        size.onResponse(SLOW);
+
+        assertEquals(5, size.current());
+    }
+
+    @Test
+    void testOnMismatchAndFailure_ShouldHalveDownToMin() {
+        AdaptiveBatchSize size = new AdaptiveBatchSize(10, 2, 30, 1000);
+
+        size.onMismatch();
+        assertEquals(5, size.current());
+        size.onFailure();
+        size.onFailure();
+        size.onMismatch();
+        assertEquals(2, size.current());
+    }
+
+    @Test
+    void testConstructor_ShouldClampInitialSize() {
+        assertEquals(8, new AdaptiveBatchSize(50, 2, 8, 1000).current());
+        assertEquals(1, new AdaptiveBatchSize(0, 0, 0, 1000).current());
+    }
+}
@@ -0,0 +1,92 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerMatcherTest {
+
+    private AnswerMatcher matcherOf(String... words) {
+        AnswerMatcher.Builder builder = AnswerMatcher.builder();
+        for (String word : words) {
+            builder.addWord(word);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testFind_WithWholeWord_ShouldMatch() {
+        AnswerMatcher matcher = matcherOf("casa", "porta", "mesa");
+        AnswerMatcher.Match match = matcher.find("a palavra e porta hoje");
+        assertNotNull(match);
+        assertEquals("porta", match.answer());
+        assertEquals(12, match.start());
+        assertEquals(17, match.end());
+    }
+
+    @Test
+    void testFind_InsideLongerWord_ShouldNotMatch() {
+        AnswerMatcher matcher = matcherOf("casa", "porta");
+        assertNull(matcher.find("casamento importante"));
+        assertNull(matcher.find("acasa"));
+    }
+
+    @Test
+    void testFind_WithOverlappingPatterns_ShouldFollowSuffixLinks() {
+        // "sa" só aparece como sufixo de "casa" - precisa do link de saída
+        AnswerMatcher matcher = matcherOf("casas", "sa");
+        assertEquals("sa", matcher.find("ca sa").answer());
+        assertEquals("casas", matcher.find("as casas").answer());
+        assertNull(matcher.find("casa"));
+    }
+
+    @Test
+    void testFind_WithSubstringPattern_ShouldIgnoreBoundaries() {
+        AnswerMatcher matcher = AnswerMatcher.builder().add("c a s a", "casa", MatchKind.SPACED).build();
+        assertEquals("casa", matcher.find("xc a s ax").answer());
+    }
+
+    @Test
+    void testFind_WithManyAnswers_ShouldMatchEachOne() {
+        AnswerMatcher.Builder builder = AnswerMatcher.builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.addWord("w" + i);
+        }
+        AnswerMatcher matcher = builder.build();
+        assertEquals(1000, matcher.size());
+        assertEquals("w999", matcher.find("foi w999 mesmo").answer());
+        assertEquals("w1", matcher.find("w1").answer());
+        assertNull(matcher.find("w1000"));
+    }
+
+    @Test
+    void testFind_WithNonAsciiOrEmptyText_ShouldNotMatch() {
+        AnswerMatcher matcher = matcherOf("casa");
+        assertNull(matcher.find(""));
+        assertNull(matcher.find(null));
+        assertNull(matcher.find("cäsa"));
+    }
+
+    @Test
+    void testCompiledAnswerSet_ShouldTagEachVariantKind() {
+        CompiledAnswerSet answers = CompiledAnswerSet.compile(List.of("casa", "porta", "flore"));
+        assertEquals(MatchKind.DIRECT, answers.find("e casa").kind());
+        assertEquals(MatchKind.SPACED, answers.find("c a s a").kind());
+        assertEquals(MatchKind.DOUBLED, answers.find("ccaassaa").kind());
+        assertEquals(MatchKind.LEET, answers.find("fl0r3").kind());
+        assertEquals(MatchKind.REVERSED, answers.find("atrop").kind());
+        assertEquals(MatchKind.NO_VOWELS, answers.find("prt").kind());
+        // "casa" sem vogais tem só 2 letras e não é indexado
+        assertNull(answers.find("cs"));
+    }
+
+    @Test
+    void testCompiledAnswerSet_ShouldGetNewVersionOnEachCompile() {
+        CompiledAnswerSet first = CompiledAnswerSet.compile(List.of("casa"));
+        CompiledAnswerSet second = CompiledAnswerSet.compile(List.of("casa"));
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals(first.getAnswers(), second.getAnswers());
+    }
+}
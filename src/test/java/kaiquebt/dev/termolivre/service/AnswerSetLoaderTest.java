@@ -0,0 +1,92 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerSetLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final TermoFilter filter = new TermoFilter();
+    private final ChannelRegistry channels = ChannelRegistryTest.registryFor(filter, "canal_a,canal_b");
+    private AnswerSetLoader loader;
+
+    @AfterEach
+    void tearDown() {
+        if (loader != null) {
+            loader.cleanup();
+        }
+        channels.cleanup();
+    }
+
+    private AnswerSetLoader loaderFor(Path file) {
+        AnswerSetLoader answerSetLoader = new AnswerSetLoader(channels);
+        ReflectionTestUtils.setField(answerSetLoader, "answersFile", file.toString());
+        return answerSetLoader;
+    }
+
+    @Test
+    void testInit_ShouldLoadAnswersFromFile() throws Exception {
+        Path file = tempDir.resolve("answers.txt");
+        Files.write(file, List.of("# resposta de hoje", "Piano", "", "  ÁRVORE  "), StandardCharsets.UTF_8);
+        loader = loaderFor(file);
+        loader.init();
+
+        assertEquals(List.of("piano", "arvore"), List.copyOf(filter.getAnswerSet().getAnswers()));
+        assertNotNull(filter.findAnswer("acho que é piano"));
+        assertNull(filter.findAnswer("casa"));
+    }
+
+    @Test
+    void testWatcher_WhenFileChanges_ShouldSwapAnswerSet() throws Exception {
+        Path file = tempDir.resolve("answers.txt");
+        Files.write(file, List.of("piano"), StandardCharsets.UTF_8);
+        loader = loaderFor(file);
+        loader.init();
+        long firstVersion = filter.getAnswerSet().getVersion();
+
+        Files.write(file, List.of("trena"), StandardCharsets.UTF_8);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (filter.getAnswerSet().getVersion() == firstVersion && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertNotNull(filter.findAnswer("trena"));
+        assertNull(filter.findAnswer("piano"));
+    }
+
+    @Test
+    void testReplace_WithEmptyAnswers_ShouldKeepPreviousSet() {
+        loader = new AnswerSetLoader(channels);
+        CompiledAnswerSet before = filter.getAnswerSet();
+
+        assertThrows(IllegalArgumentException.class, () -> loader.replace(List.of(" ", "")));
+        assertSame(before, filter.getAnswerSet());
+    }
+
+    @Test
+    void testInit_WithAnswersDir_ShouldLoadEachChannelSeparately() throws Exception {
+        Files.write(tempDir.resolve("canal_a.txt"), List.of("piano"), StandardCharsets.UTF_8);
+        Files.write(tempDir.resolve("canal_b.txt"), List.of("trena"), StandardCharsets.UTF_8);
+        loader = new AnswerSetLoader(channels);
+        ReflectionTestUtils.setField(loader, "answersDir", tempDir.toString());
+        loader.init();
+
+        TermoFilter other = channels.get("canal_b").getFilter();
+        assertSame(filter, channels.get("canal_a").getFilter());
+        assertNotNull(filter.findAnswer("piano"));
+        assertNull(filter.findAnswer("trena"));
+        assertNotNull(other.findAnswer("trena"));
+        assertNull(other.findAnswer("piano"));
+    }
+}
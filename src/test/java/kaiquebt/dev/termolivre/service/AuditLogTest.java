@@ -0,0 +1,266 @@
+package kaiquebt.dev.termolivre.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() {
+        if (auditLog != null) {
+            auditLog.shutdown();
+        }
+    }
+
+    @Test
+    void testRecord_ShouldBeReadBackInOrder() throws Exception {
+        auditLog = auditLog(1.0, 100, 1 << 20, 10);
+        auditLog.record(AuditLog.Decision.RULE, "canal", "m1", MatchKind.LEET, false, 1_000, 3, "c4s4");
+        auditLog.record(AuditLog.Decision.AI, "canal", "m2", null, true, 250_000_000, 3, "boa noite chat");
+        auditLog.record(AuditLog.Decision.DEADLINE, "outro", "m3", null, false, 1_500_000_000, 4, "ação");
+        auditLog.shutdown();
+
+        List<AuditLog.Entry> entries = readAll();
+        assertEquals(3, entries.size());
+        AuditLog.Entry rule = entries.get(0);
+        assertEquals(AuditLog.Decision.RULE, rule.decision());
+        assertEquals(MatchKind.LEET, rule.ruleKind());
+        assertFalse(rule.safe());
+        assertEquals("c4s4", rule.content());
+        assertEquals(3, rule.answerSetVersion());
+        assertEquals(List.of("m1", "m2", "m3"), entries.stream().map(AuditLog.Entry::messageId).toList());
+        assertEquals("ação", entries.get(2).content());
+        assertEquals(250_000_000, entries.get(1).latencyNanos());
+        assertEquals(3.0, records("written"));
+    }
+
+    @Test
+    void testRecord_WithSampling_ShouldKeepEveryBlockedMessage() throws Exception {
+        auditLog = auditLog(0.0, 1000, 1 << 20, 10);
+        for (int i = 0; i < 50; i++) {
+            auditLog.record(AuditLog.Decision.AI, "canal", "safe" + i, null, true, 0, 1, "oi");
+        }
+        auditLog.record(AuditLog.Decision.AI, "canal", "blocked", null, false, 0, 1, "é barco");
+        auditLog.record(AuditLog.Decision.DEADLINE, "canal", "late", null, true, 0, 1, "hmm");
+        auditLog.shutdown();
+
+        assertEquals(List.of("blocked", "late"), readAll().stream().map(AuditLog.Entry::messageId).toList());
+    }
+
+    @Test
+    void testRecord_ShouldRotateAndKeepAtMostMaxFiles() throws Exception {
+        auditLog = auditLog(1.0, 10_000, 200, 3);
+        for (int i = 0; i < 100; i++) {
+            auditLog.record(AuditLog.Decision.AI, "canal", "m" + i, null, true, 0, 1, "mensagem número " + i);
+        }
+        auditLog.shutdown();
+
+        List<Path> files = AuditLog.listFiles(tempDir);
+        assertEquals(3, files.size());
+        // Só os mais antigos saem: o último registro está no último arquivo
+        List<AuditLog.Entry> entries = readAll();
+        assertEquals("m99", entries.get(entries.size() - 1).messageId());
+        assertTrue(entries.size() < 100);
+        for (Path file : files) {
+            // Cada arquivo passa do limite no máximo por um registro
+            assertTrue(Files.size(file) < 300, file + " has " + Files.size(file) + " bytes");
+        }
+    }
+
+    @Test
+    void testRecord_WhenQueueIsFull_ShouldDropAndCount() {
+        auditLog = new AuditLog();
+        ReflectionTestUtils.setField(auditLog, "metrics", new ModerationMetrics(registry));
+        ReflectionTestUtils.setField(auditLog, "queueSize", 2);
+        // Habilitado sem a thread de gravação: a fila só enche
+        ReflectionTestUtils.setField(auditLog, "enabled", true);
+
+        for (int i = 0; i < 5; i++) {
+            auditLog.record(AuditLog.Decision.AI, "canal", "m" + i, null, false, 0, 1, "x");
+        }
+
+        assertEquals(2, auditLog.getQueuedCount());
+        assertEquals(3.0, records("dropped"));
+    }
+
+    @Test
+    void testRecord_WhenDisabled_ShouldDoNothing() throws Exception {
+        auditLog = new AuditLog();
+        ReflectionTestUtils.invokeMethod(auditLog, "init");
+
+        auditLog.record(AuditLog.Decision.AI, "canal", "m", null, false, 0, 1, "x");
+        assertFalse(auditLog.isEnabled());
+        assertEquals(0, auditLog.getQueuedCount());
+    }
+
+    @Test
+    void testRead_WithTruncatedLastRecord_ShouldStopAtLastCompleteOne() throws Exception {
+        auditLog = auditLog(1.0, 100, 1 << 20, 10);
+        auditLog.record(AuditLog.Decision.AI, "canal", "m1", null, true, 0, 1, "primeira");
+        auditLog.record(AuditLog.Decision.AI, "canal", "m2", null, true, 0, 1, "segunda");
+        auditLog.shutdown();
+        byte[] bytes = Files.readAllBytes(AuditLog.listFiles(tempDir).get(0));
+
+        List<AuditLog.Entry> entries = new ArrayList<>();
+        long count = AuditLogReader.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)), entries::add);
+
+        assertEquals(1, count);
+        assertEquals("m1", entries.get(0).messageId());
+    }
+
+    @Test
+    void testRead_WithDamagedRecord_ShouldStopBeforeIt() throws Exception {
+        auditLog = auditLog(1.0, 100, 1 << 20, 10);
+        auditLog.record(AuditLog.Decision.AI, "canal", "m1", null, true, 0, 1, "primeira");
+        auditLog.record(AuditLog.Decision.AI, "canal", "m2", null, true, 0, 1, "segunda");
+        auditLog.record(AuditLog.Decision.AI, "canal", "m3", null, true, 0, 1, "terceira");
+        auditLog.shutdown();
+        byte[] bytes = Files.readAllBytes(AuditLog.listFiles(tempDir).get(0));
+        // Um byte trocado no texto do segundo registro
+        int damaged = indexOf(bytes, "segunda".getBytes(StandardCharsets.UTF_8));
+        bytes[damaged] ^= 0x20;
+
+        List<AuditLog.Entry> entries = new ArrayList<>();
+        long count = AuditLogReader.read(new ByteArrayInputStream(bytes), entries::add);
+
+        assertEquals(1, count);
+        assertEquals("m1", entries.get(0).messageId());
+    }
+
+    @Test
+    void testRead_WithFormat2File_ShouldStillRead() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(AuditLog.MAGIC);
+        out.writeInt(2);
+        out.writeDouble(0.5);
+        out.writeLong(1_000);
+        out.writeByte(AuditLog.Decision.RULE.ordinal());
+        out.writeUTF(MatchKind.LEET.name());
+        out.writeBoolean(false);
+        out.writeLong(10);
+        out.writeLong(2);
+        out.writeUTF("canal");
+        out.writeUTF("m1");
+        out.writeUTF("c4s4");
+
+        List<AuditLog.Entry> entries = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        AuditLogReader.readSampled(new ByteArrayInputStream(bytes.toByteArray()), (entry, rate) -> {
+            entries.add(entry);
+            rates.add(rate);
+        });
+
+        assertEquals(1, entries.size());
+        assertEquals(MatchKind.LEET, entries.get(0).ruleKind());
+        assertEquals("c4s4", entries.get(0).content());
+        assertEquals(List.of(0.5), rates);
+    }
+
+    @Test
+    void testText_WithEmojiAtLimit_ShouldNotSplitSurrogatePair() {
+        String emoji = "\uD83D\uDE00";
+        String text = AuditLog.text("a".repeat(1999) + emoji + "fim");
+
+        assertEquals(1999, text.length());
+        assertFalse(Character.isHighSurrogate(text.charAt(text.length() - 1)));
+        assertEquals(2000, AuditLog.text("a".repeat(1998) + emoji + "fim").length());
+    }
+
+    @Test
+    void testLabeledExamples_ShouldSkipDeadlinesAndKeepLatestVerdict() throws Exception {
+        auditLog = auditLog(1.0, 100, 1 << 20, 10);
+        auditLog.record(AuditLog.Decision.RULE, "canal", "m1", MatchKind.DIRECT, false, 0, 1, "é barco");
+        auditLog.record(AuditLog.Decision.DEADLINE, "canal", "m2", null, false, 0, 1, "talvez nuvem");
+        auditLog.record(AuditLog.Decision.AI, "canal", "m3", null, true, 0, 1, "boa");
+        auditLog.record(AuditLog.Decision.LATE, "canal", "m2", null, false, 0, 1, "talvez nuvem");
+        auditLog.shutdown();
+
+        assertEquals(List.of(new NgramClassifier.Example("é barco", true), new NgramClassifier.Example("boa", false),
+                        new NgramClassifier.Example("talvez nuvem", true)),
+                AuditLogReader.labeledExamples(tempDir));
+    }
+
+    @Test
+    void testLabeledExamples_ShouldSkipFallbackDegradedAndFloodRecords() throws Exception {
+        auditLog = auditLog(1.0, 100, 1 << 20, 10);
+        auditLog.record(AuditLog.Decision.FALLBACK, "canal", "m1", null, true, 0, 1, "começa com b");
+        auditLog.record(AuditLog.Decision.DEGRADED, "canal", "m2", null, true, 0, 1, "termina com o");
+        auditLog.record(AuditLog.Decision.FLOOD, "canal", "m4", null, true, 0, 1, "começa com b");
+        auditLog.record(AuditLog.Decision.AI, "canal", "m3", null, false, 0, 1, "termina com o");
+        auditLog.shutdown();
+
+        assertEquals(List.of(new NgramClassifier.Example("termina com o", true)), AuditLogReader.labeledExamples(tempDir));
+        assertEquals(AuditLog.Decision.DEGRADED, AuditLog.fallbackDecision(AiFallbackException.degraded("open", false)));
+        assertEquals(AuditLog.Decision.FALLBACK, AuditLog.fallbackDecision(new AiFallbackException("error", false)));
+    }
+
+    @Test
+    void testLabeledExamples_WithSampling_ShouldWeightSafeExamples() throws Exception {
+        auditLog = auditLog(0.25, 1000, 1 << 20, 10);
+        for (int i = 0; i < 200; i++) {
+            auditLog.record(AuditLog.Decision.AI, "canal", "safe" + i, null, true, 0, 1, "oi " + i);
+        }
+        auditLog.record(AuditLog.Decision.AI, "canal", "blocked", null, false, 0, 1, "é barco");
+        auditLog.shutdown();
+
+        List<NgramClassifier.Example> examples = AuditLogReader.labeledExamples(tempDir);
+        // Cada liberada gravada representa quatro; bloqueios não são amostrados
+        assertTrue(examples.size() > 1 && examples.size() < 201);
+        examples.forEach(example -> assertEquals(example.unsafe() ? 1.0 : 4.0, example.weight()));
+        assertEquals(new NgramClassifier.Example("é barco", true), examples.get(examples.size() - 1));
+    }
+
+    private AuditLog auditLog(double sampleRate, int queueSize, long maxFileBytes, int maxFiles) throws Exception {
+        AuditLog log = new AuditLog();
+        ReflectionTestUtils.setField(log, "metrics", new ModerationMetrics(registry));
+        ReflectionTestUtils.setField(log, "dir", tempDir.toString());
+        ReflectionTestUtils.setField(log, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(log, "queueSize", queueSize);
+        ReflectionTestUtils.setField(log, "maxFileBytes", maxFileBytes);
+        ReflectionTestUtils.setField(log, "maxFiles", maxFiles);
+        ReflectionTestUtils.setField(log, "flushIntervalMs", 10L);
+        log.init();
+        return log;
+    }
+
+    private List<AuditLog.Entry> readAll() throws Exception {
+        List<AuditLog.Entry> entries = new ArrayList<>();
+        AuditLogReader.read(tempDir, entries::add);
+        return entries;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        for (int i = 0; i + target.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("not found");
+    }
+
+    private double records(String result) {
+        return registry.get("moderation.audit.records").tag("result", result).counter().count();
+    }
+}
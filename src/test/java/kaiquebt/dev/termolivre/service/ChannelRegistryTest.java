@@ -0,0 +1,107 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelRegistryTest {
+
+    private ChannelRegistry registry;
+
+    static ChannelRegistry registryFor(TermoFilter filter, String channels) {
+        ChannelRegistry registry = new ChannelRegistry(filter, new ModerationMetrics());
+        ReflectionTestUtils.setField(registry, "twitchChannels", channels);
+        ReflectionTestUtils.setField(registry, "twitchChannelUrl", "https://www.twitch.tv/");
+        ReflectionTestUtils.setField(registry, "batchMaxSize", 20);
+        ReflectionTestUtils.setField(registry, "batchMaxWaitMs", 50L);
+        ReflectionTestUtils.setField(registry, "batchMaxInFlight", 2);
+        ReflectionTestUtils.setField(registry, "latencyBudgetMs", 1500L);
+        ReflectionTestUtils.setField(registry, "reorderMaxHoldMs", 250L);
+        ReflectionTestUtils.setField(registry, "backlogSize", 64);
+        registry.init();
+        return registry;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (registry != null) {
+            registry.cleanup();
+        }
+    }
+
+    @Test
+    void testInit_WithChannelList_ShouldIsolateFiltersAndDestinations() {
+        TermoFilter filter = new TermoFilter();
+        registry = registryFor(filter, " #Canal_A, canal_b,canal_a, nome inválido");
+
+        assertEquals(List.of("canal_a", "canal_b"),
+                registry.getChannels().stream().map(ChannelModeration::getChannel).toList());
+        assertSame(filter, registry.getDefault().getFilter());
+        assertNotSame(filter, registry.get("canal_b").getFilter());
+        assertNotSame(filter.getVerdictCache(), registry.get("canal_b").getFilter().getVerdictCache());
+        assertEquals("/topic/canal_b/messages", registry.get("CANAL_B").getMessagesDestination());
+        assertNull(registry.get("outro"));
+    }
+
+    @Test
+    void testWorkers_WithFullChannelQueue_ShouldRejectWithoutBlockingOtherChannels() throws Exception {
+        registry = new ChannelRegistry(new TermoFilter(), new ModerationMetrics());
+        ReflectionTestUtils.setField(registry, "twitchChannels", "canal_a,canal_b");
+        ReflectionTestUtils.setField(registry, "workerCount", 1);
+        ReflectionTestUtils.setField(registry, "workerQueueSize", 1);
+        ReflectionTestUtils.setField(registry, "batchMaxSize", 20);
+        ReflectionTestUtils.setField(registry, "batchMaxInFlight", 2);
+        ReflectionTestUtils.setField(registry, "backlogSize", 64);
+        registry.init();
+        ThreadPoolExecutor raided = registry.get("canal_a").getWorkers();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherChannel = new CountDownLatch(1);
+        try {
+            // Uma mensagem presa na thread e outra na fila: a seguinte é recusada na hora, sem rodar na chamadora
+            raided.execute(() -> awaitQuietly(release));
+            raided.execute(() -> { });
+            Thread caller = Thread.currentThread();
+            boolean[] ranOnCaller = {false};
+            assertThrows(RejectedExecutionException.class,
+                    () -> raided.execute(() -> ranOnCaller[0] = Thread.currentThread() == caller));
+            assertFalse(ranOnCaller[0]);
+
+            registry.get("canal_b").getWorkers().execute(otherChannel::countDown);
+            assertTrue(otherChannel.await(2, TimeUnit.SECONDS));
+            assertNotSame(raided, registry.get("canal_b").getWorkers());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testInit_WithoutChannelList_ShouldFallBackToChannelUrl() {
+        TermoFilter filter = new TermoFilter();
+        registry = new ChannelRegistry(filter, new ModerationMetrics());
+        ReflectionTestUtils.setField(registry, "twitchChannels", "");
+        ReflectionTestUtils.setField(registry, "twitchChannelUrl", "https://www.twitch.tv/algum_canal");
+        ReflectionTestUtils.setField(registry, "batchMaxSize", 20);
+        ReflectionTestUtils.setField(registry, "batchMaxInFlight", 2);
+        ReflectionTestUtils.setField(registry, "reorderMaxHoldMs", 250L);
+        ReflectionTestUtils.setField(registry, "backlogSize", 64);
+        registry.init();
+
+        assertEquals("algum_canal", registry.getDefault().getChannel());
+    }
+}
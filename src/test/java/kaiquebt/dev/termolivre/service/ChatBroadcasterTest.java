@@ -0,0 +1,84 @@
+package kaiquebt.dev.termolivre.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kaiquebt.dev.termolivre.model.ChatMessage;
+import kaiquebt.dev.termolivre.model.MessageUpdate;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+    private final SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+
+    private ChatBroadcaster broadcaster(long batchIntervalMs, int maxBatchSize) {
+        ChatBroadcaster broadcaster = new ChatBroadcaster(template, objectMapper, new ModerationMetrics());
+        ReflectionTestUtils.setField(broadcaster, "batchIntervalMs", batchIntervalMs);
+        ReflectionTestUtils.setField(broadcaster, "maxBatchSize", maxBatchSize);
+        return broadcaster;
+    }
+
+    private ChatMessage message(String content) {
+        return new ChatMessage(content, "user", 1_700_000_000_000L);
+    }
+
+    private JsonNode body(Message<?> message) throws Exception {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private String destination(Message<?> message) {
+        return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+
+    @Test
+    void testSendMessage_WithoutBatching_ShouldSendOneEncodedFramePerMessage() throws Exception {
+        ChatBroadcaster broadcaster = broadcaster(0, 100);
+        broadcaster.start();
+
+        broadcaster.sendMessage("/topic/a/messages", message("oi"));
+        broadcaster.sendMessage("/topic/a/messages", message("tudo bem"));
+
+        assertEquals(2, sent.size());
+        assertEquals("/topic/a/messages", destination(sent.get(0)));
+        JsonNode first = body(sent.get(0));
+        assertEquals("oi", first.get("content").asText());
+        assertEquals(1_700_000_000_000L, first.get("timestamp").asLong());
+        assertTrue(first.get("id").isTextual());
+    }
+
+    @Test
+    void testFlush_WithBatching_ShouldCoalescePerDestinationAndSendMessagesBeforeUpdates() throws Exception {
+        ChatBroadcaster broadcaster = broadcaster(60_000, 2);
+        broadcaster.start();
+
+        broadcaster.sendUpdate("/topic/a/message-updates", new MessageUpdate("1", "liberada", false));
+        broadcaster.sendMessage("/topic/a/messages", message("um"));
+        broadcaster.sendMessage("/topic/a/messages", message("dois"));
+        broadcaster.sendMessage("/topic/a/messages", message("três"));
+        broadcaster.sendMessage("/topic/b/messages", message("outro canal"));
+        assertTrue(sent.isEmpty());
+
+        broadcaster.stop();
+
+        assertEquals(4, sent.size());
+        List<String> destinations = sent.stream().map(this::destination).toList();
+        assertEquals("/topic/a/message-updates", destinations.get(3));
+        Message<?> firstFrame = sent.stream()
+                .filter(m -> "/topic/a/messages".equals(destination(m)))
+                .findFirst().orElseThrow();
+        JsonNode frame = body(firstFrame);
+        assertTrue(frame.isArray());
+        assertEquals(2, frame.size());
+        assertEquals("um", frame.get(0).get("content").asText());
+    }
+}
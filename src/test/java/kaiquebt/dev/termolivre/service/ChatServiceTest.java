@@ -0,0 +1,75 @@
+package kaiquebt.dev.termolivre.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kaiquebt.dev.termolivre.model.ChatMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+    private final ChannelRegistry registry = ChannelRegistryTest.registryFor(new TermoFilter(), "canal_a");
+
+    @AfterEach
+    void tearDown() {
+        registry.cleanup();
+    }
+
+    private ChatService service(DeadlinePolicy policy) {
+        ChatBroadcaster broadcaster = new ChatBroadcaster(
+                new SimpMessagingTemplate((message, timeout) -> sent.add(message)), objectMapper, new ModerationMetrics());
+        broadcaster.start();
+        ChatService service = new ChatService(registry, broadcaster, new ModerationMetrics(), new AuditLog());
+        ReflectionTestUtils.setField(service, "deadlinePolicy", policy);
+        return service;
+    }
+
+    // Mensagem recusada pela fila cheia do canal
+    private void shed(ChatService service, String content) {
+        ChannelModeration channel = registry.getDefault();
+        ChatMessage message = new ChatMessage(content, "user", 1L, "id-" + sent.size());
+        ReflectionTestUtils.invokeMethod(service, "shed", channel, message, channel.getReorderBuffer().next(), System.nanoTime());
+    }
+
+    @Test
+    void testShed_WithAnswer_ShouldBlockEvenUnderPublishPolicy() throws Exception {
+        shed(service(DeadlinePolicy.PUBLISH), "a resposta é casa");
+
+        assertEquals(1, sent.size());
+        assertEquals("/topic/canal_a/messages", destination(sent.get(0)));
+        assertEquals("Usuário tentou dizer a resposta!", body(sent.get(0)).get("content").asText());
+    }
+
+    @Test
+    void testShed_WithHoldPolicy_ShouldReleasePlaceholder() throws Exception {
+        shed(service(DeadlinePolicy.HOLD), "boa noite chat");
+
+        // O aviso sai e é trocado pelo conteúdo real logo em seguida
+        assertEquals(2, sent.size());
+        assertEquals("Mensagem em análise...", body(sent.get(0)).get("content").asText());
+        assertEquals("/topic/canal_a/message-updates", destination(sent.get(1)));
+        JsonNode update = body(sent.get(1));
+        assertEquals("boa noite chat", update.get("content").asText());
+        assertFalse(update.get("retracted").asBoolean());
+        assertEquals("boa noite chat", registry.getDefault().getRecentMessages().snapshot().get(0).getContent());
+    }
+
+    private JsonNode body(Message<?> message) throws Exception {
+        return objectMapper.readTree((byte[]) message.getPayload());
+    }
+
+    private String destination(Message<?> message) {
+        return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+}
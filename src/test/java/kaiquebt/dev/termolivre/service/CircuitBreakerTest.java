@@ -0,0 +1,123 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+    // Janela de 10, mínimo de 4 chamadas, abre com 50% de falhas ou 80% de chamadas acima de 100 ms
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 100, 0.8, 1_000, 2,
+            (from, to) -> transitions.add(to));
+
+    @Test
+    void testOnResult_BelowMinCalls_ShouldStayClosed() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire(0));
+            breaker.onResult(true, 0, 0);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testOnResult_WithFailureRateAtThreshold_ShouldOpenAndRejectCalls() {
+        breaker.onResult(false, 10 * MS, 0);
+        breaker.onResult(true, 0, 0);
+        breaker.onResult(false, 10 * MS, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onResult(true, 0, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(500 * MS));
+        assertEquals(List.of(CircuitBreaker.State.OPEN), transitions);
+    }
+
+    @Test
+    void testOnResult_WithSlowCalls_ShouldOpen() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(false, 150 * MS, 0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testOnResult_ShouldForgetCallsOutsideTheWindow() {
+        // 3 falhas em 10, depois 10 chamadas boas empurram todas para fora
+        for (int i = 0; i < 10; i++) {
+            breaker.onResult(i % 4 == 0, 10 * MS, 0);
+        }
+        for (int i = 0; i < 10; i++) {
+            breaker.onResult(false, 10 * MS, 0);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // 4 falhas nas últimas 10: abaixo do limite só se as antigas saíram
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, 0, 0);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testTryAcquire_AfterOpenTime_ShouldLetProbesThroughAndCloseWhenTheySucceed() {
+        open();
+
+        assertTrue(breaker.tryAcquire(1_000 * MS));
+        assertTrue(breaker.tryAcquire(1_000 * MS));
+        // Só halfOpenProbes chamadas de teste ao mesmo tempo
+        assertFalse(breaker.tryAcquire(1_000 * MS));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(false, 10 * MS, 1_010 * MS);
+        breaker.onResult(false, 10 * MS, 1_010 * MS);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire(1_020 * MS));
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+                transitions);
+    }
+
+    @Test
+    void testOnResult_WhenProbeIsSlow_ShouldOpenAgain() {
+        open();
+        assertTrue(breaker.tryAcquire(1_000 * MS));
+
+        breaker.onResult(false, 200 * MS, 1_200 * MS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        // Novo prazo a partir da reabertura
+        assertFalse(breaker.tryAcquire(2_100 * MS));
+        assertTrue(breaker.tryAcquire(2_200 * MS));
+    }
+
+    @Test
+    void testOnResult_WhileOpen_ShouldIgnoreCallsThatWereInFlight() {
+        open();
+        breaker.onResult(false, 10 * MS, 10 * MS);
+        breaker.onResult(true, 0, 20 * MS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire(1_000 * MS));
+    }
+
+    @Test
+    void testTryAcquire_WhenDisabled_ShouldNeverOpen() {
+        CircuitBreaker disabled = new CircuitBreaker(0, 4, 0.5, 100, 0.8, 1_000, 2, null);
+        for (int i = 0; i < 20; i++) {
+            disabled.onResult(true, 0, 0);
+        }
+        assertTrue(disabled.tryAcquire(0));
+        assertEquals(CircuitBreaker.State.CLOSED, disabled.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, 0, 0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
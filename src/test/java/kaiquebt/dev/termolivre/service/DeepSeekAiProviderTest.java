@@ -0,0 +1,334 @@
+package kaiquebt.dev.termolivre.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeepSeekAiProviderTest {
+
+    private HttpServer server;
+    private DeepSeekAiProvider provider;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<Integer> linesPerRequest = java.util.Collections.synchronizedList(new ArrayList<>());
+    private volatile long responseDelayMs = 0;
+    // Intervalo entre os vereditos quando a requisição pede streaming
+    private volatile long tokenDelayMs = 0;
+    // Responde 500 em vez dos vereditos
+    private volatile boolean failing = false;
+    // Acrescenta um veredito a mais na resposta
+    private volatile boolean miscount = false;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        // Responde "true" para cada linha numerada que contém "resposta"
+        server.createContext("/chat/completions", exchange -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                List<String> verdicts = new ArrayList<>();
+                for (String line : body.split("\\\\n")) {
+                    if (line.matches("^\\d+\\. .*")) {
+                        verdicts.add(String.valueOf(line.contains("resposta")));
+                    }
+                }
+                linesPerRequest.add(verdicts.size());
+                Thread.sleep(responseDelayMs);
+                if (failing) {
+                    exchange.sendResponseHeaders(500, -1);
+                    exchange.close();
+                    return;
+                }
+                if (body.contains("\"stream\":true")) {
+                    exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+                    exchange.sendResponseHeaders(200, 0);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        for (int i = 0; i < verdicts.size(); i++) {
+                            String token = (i > 0 ? "," : "") + verdicts.get(i);
+                            out.write(("data: {\"choices\":[{\"delta\":{\"content\":\"" + token + "\"}}]}\n\n")
+                                    .getBytes(StandardCharsets.UTF_8));
+                            out.flush();
+                            Thread.sleep(tokenDelayMs);
+                        }
+                        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+                    }
+                    return;
+                }
+                String content = String.join(",", verdicts) + (miscount ? ",true" : "");
+                byte[] response = ("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+
+        provider = new DeepSeekAiProvider();
+        ReflectionTestUtils.setField(provider, "apiKey", "");
+        ReflectionTestUtils.setField(provider, "apiUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions");
+        ReflectionTestUtils.setField(provider, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(provider, "readTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(provider, "maxInFlight", 3);
+        ReflectionTestUtils.setField(provider, "maxBatchSize", 30);
+        ReflectionTestUtils.setField(provider, "batchTokenBudget", 800);
+        ReflectionTestUtils.setField(provider, "batchTargetLatencyMs", 1500L);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(provider, "shutdown");
+        server.stop(0);
+    }
+
+    @Test
+    void testAnalyzeAsync_ShouldMapVerdictsBackToOriginalPositions() throws Exception {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            messages.add(i % 5 == 0 ? "qual a resposta " + i : "oi " + i);
+        }
+        // Mensagem longa demais não vai para a IA e conta como segura
+        messages.add(3, "x".repeat(600));
+
+        List<Boolean> results = provider.analyzeMessagesForTermoAnswersAsync(messages).get(5, TimeUnit.SECONDS);
+
+        assertEquals(messages.size(), results.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(messages.get(i).contains("resposta"), results.get(i), "index " + i);
+        }
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    void testAnalyzeAsync_ShouldDispatchBatchesConcurrentlyUpToLimit() throws Exception {
+        responseDelayMs = 200;
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            messages.add("mensagem " + i);
+        }
+
+        provider.analyzeMessagesForTermoAnswersAsync(messages).get(5, TimeUnit.SECONDS);
+
+        assertEquals(6, requests.get());
+        assertTrue(maxInFlight.get() > 1, "batches should overlap");
+        assertTrue(maxInFlight.get() <= 3, "in-flight limit exceeded: " + maxInFlight.get());
+    }
+
+    @Test
+    void testAnalyzeAsync_WithDuplicates_ShouldSendEachNormalizedMessageOnce() throws Exception {
+        List<String> messages = List.of("qual a resposta", "Qual a RESPOSTA!", "oi", "oi", "qual a resposta");
+
+        List<Boolean> results = provider.analyzeMessagesForTermoAnswersAsync(messages).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(true, true, false, false, true), results);
+        assertEquals(List.of(2), linesPerRequest);
+    }
+
+    @Test
+    void testAnalyzeAsync_WithLongMessages_ShouldSplitByTokenBudget() throws Exception {
+        ReflectionTestUtils.setField(provider, "batchTokenBudget", 110);
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            // ~50 tokens cada: duas por lote
+            messages.add(i + " " + "palavra ".repeat(24));
+        }
+
+        provider.analyzeMessagesForTermoAnswersAsync(messages).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, requests.get());
+        assertEquals(List.of(2, 2, 2), linesPerRequest);
+    }
+
+    @Test
+    void testAnalyzeEach_WithStreaming_ShouldReleaseVerdictsAsTheyArrive() throws Exception {
+        ReflectionTestUtils.setField(provider, "stream", true);
+        tokenDelayMs = 300;
+        List<String> messages = List.of("qual a resposta", "oi", "boa noite", "a resposta é");
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Boolean>> verdicts = provider.analyzeEachMessageAsync(messages);
+        assertTrue(verdicts.get(0).get(5, TimeUnit.SECONDS));
+        long firstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(verdicts.get(3).isDone(), "last verdict should still be streaming");
+        assertEquals(List.of(true, false, false, true),
+                provider.analyzeMessagesForTermoAnswersAsync(messages).get(5, TimeUnit.SECONDS));
+        assertTrue(verdicts.get(3).get(5, TimeUnit.SECONDS));
+        assertTrue(firstMillis < 600, "first verdict took " + firstMillis + " ms");
+    }
+
+    @Test
+    void testAnalyzeAsync_WhenApiTimesOut_ShouldTreatBatchAsSafe() throws Exception {
+        responseDelayMs = 3000;
+        List<Boolean> results = provider.analyzeMessagesForTermoAnswersAsync(List.of("qual a resposta"))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(false), results);
+    }
+
+    @Test
+    void testForEndpoint_WhenApiTimesOut_ShouldFailInsteadOfFallingBack() throws Exception {
+        DeepSeekAiProvider endpoint = provider.forEndpoint("outro", provider.getApiUrl(), null, null);
+        try {
+            responseDelayMs = 3000;
+            CompletableFuture<Boolean> verdict = endpoint.analyzeEachMessageAsync(List.of("qual a resposta")).get(0);
+            ExecutionException error = assertThrows(ExecutionException.class, () -> verdict.get(5, TimeUnit.SECONDS));
+            assertNotNull(error.getCause());
+        } finally {
+            endpoint.shutdown();
+        }
+    }
+
+    @Test
+    void testForEndpoint_WithMiscountedResponse_ShouldShrinkBatchSizeOnce() throws Exception {
+        DeepSeekAiProvider endpoint = provider.forEndpoint("outro", provider.getApiUrl(), null, null);
+        try {
+            AdaptiveBatchSize batchSize = (AdaptiveBatchSize) ReflectionTestUtils.getField(endpoint, "batchSize");
+            int before = batchSize.current();
+            miscount = true;
+            CompletableFuture<Boolean> verdict = endpoint.analyzeEachMessageAsync(List.of("qual a resposta")).get(0);
+            assertThrows(ExecutionException.class, () -> verdict.get(5, TimeUnit.SECONDS));
+
+            // Respondeu no prazo (cresce um) com a contagem errada (cai pela metade), e nada mais
+            assertEquals((before + 1) / 2, batchSize.current());
+        } finally {
+            endpoint.shutdown();
+        }
+    }
+
+    @Test
+    void testForEndpoint_ShouldAnswerLikeTheOriginal() throws Exception {
+        DeepSeekAiProvider endpoint = provider.forEndpoint("outro", provider.getApiUrl(), "outra-chave", "outro-modelo");
+        try {
+            assertEquals(List.of(true, false), endpoint.analyzeMessagesForTermoAnswersAsync(
+                    List.of("a resposta é barco", "boa noite")).get(5, TimeUnit.SECONDS));
+        } finally {
+            endpoint.shutdown();
+        }
+    }
+
+    @Test
+    void testAnalyzeAsync_WhenBreakerOpens_ShouldShortCircuitWithoutCallingApi() throws Exception {
+        DeepSeekAiProvider guarded = withBreaker(DegradedPolicy.RULES_ONLY);
+        try {
+            failing = true;
+            for (int i = 0; i < 4; i++) {
+                assertEquals(List.of(false), guarded.analyzeMessagesForTermoAnswersAsync(List.of("resposta " + i))
+                        .get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(CircuitBreaker.State.OPEN, guarded.getBreakerState());
+            int calls = requests.get();
+
+            failing = false;
+            assertEquals(List.of(false), guarded.analyzeMessagesForTermoAnswersAsync(List.of("qual a resposta"))
+                    .get(5, TimeUnit.SECONDS));
+            assertEquals(calls, requests.get());
+        } finally {
+            guarded.shutdown();
+        }
+    }
+
+    @Test
+    void testAnalyzeAsync_AfterOpenTime_ShouldProbeAndClose() throws Exception {
+        DeepSeekAiProvider guarded = withBreaker(DegradedPolicy.BLOCK);
+        try {
+            failing = true;
+            for (int i = 0; i < 4; i++) {
+                guarded.analyzeMessagesForTermoAnswersAsync(List.of("msg " + i)).get(5, TimeUnit.SECONDS);
+            }
+            // Aberto e com a política BLOCK: tudo que dependeria da IA fica bloqueado
+            assertEquals(List.of(true), guarded.analyzeMessagesForTermoAnswersAsync(List.of("boa noite"))
+                    .get(5, TimeUnit.SECONDS));
+
+            failing = false;
+            Thread.sleep(250);
+            assertEquals(List.of(false), guarded.analyzeMessagesForTermoAnswersAsync(List.of("boa noite"))
+                    .get(5, TimeUnit.SECONDS));
+            assertEquals(CircuitBreaker.State.CLOSED, guarded.getBreakerState());
+        } finally {
+            guarded.shutdown();
+        }
+    }
+
+    @Test
+    void testAnalyzeEach_WithBulkheadFull_ShouldDegradeExtraBatches() throws Exception {
+        ReflectionTestUtils.setField(provider, "maxInFlight", 1);
+        ReflectionTestUtils.setField(provider, "bulkheadQueueSize", 1);
+        ReflectionTestUtils.setField(provider, "degradedPolicy", DegradedPolicy.BLOCK);
+        DeepSeekAiProvider bounded = provider.forEndpoint("bounded", provider.getApiUrl(), null, null);
+        ReflectionTestUtils.setField(bounded, "failOnError", false);
+        try {
+            responseDelayMs = 300;
+            List<CompletableFuture<Boolean>> inFlight = bounded.analyzeEachMessageAsync(List.of("a resposta"));
+            Thread.sleep(100);
+            List<CompletableFuture<Boolean>> queued = bounded.analyzeEachMessageAsync(List.of("outra resposta"));
+            // Um em voo, um na fila: o terceiro nem espera
+            List<CompletableFuture<Boolean>> rejected = bounded.analyzeEachMessageAsync(List.of("boa noite"));
+
+            // Sem chamar a API: o veredito da política vem na exceção, fora do cache
+            assertTrue(rejected.get(0).isCompletedExceptionally());
+            ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(0).get());
+            assertTrue(AiFallbackException.unsafeVerdict(error.getCause()));
+            assertTrue(inFlight.get(0).get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals(2, requests.get());
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    void testAnalyzeAsync_WhenApiFails_ShouldCountEveryFailureButLogOncePerInterval() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(provider, "metrics", new ModerationMetrics(registry));
+        failing = true;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(List.of(false), provider.analyzeMessagesForTermoAnswersAsync(List.of("msg " + i))
+                    .get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(3.0, registry.get("moderation.ai.call.failures").tag("endpoint", "deepseek").counter().count());
+        // A primeira saiu no log; as outras esperam a próxima linha, dentro do intervalo
+        assertEquals(2, ((AtomicInteger) ReflectionTestUtils.getField(provider, "failuresSinceLog")).get());
+    }
+
+    // Abre com 2 falhas em 2 chamadas e testa a API de novo depois de 200 ms
+    private DeepSeekAiProvider withBreaker(DegradedPolicy policy) {
+        ReflectionTestUtils.setField(provider, "breakerWindowSize", 4);
+        ReflectionTestUtils.setField(provider, "breakerMinCalls", 2);
+        ReflectionTestUtils.setField(provider, "breakerFailureRate", 0.5);
+        ReflectionTestUtils.setField(provider, "breakerOpenMs", 200L);
+        ReflectionTestUtils.setField(provider, "breakerHalfOpenProbes", 1);
+        ReflectionTestUtils.setField(provider, "degradedPolicy", policy);
+        DeepSeekAiProvider guarded = provider.forEndpoint("guarded", provider.getApiUrl(), null, null);
+        // Provedor único: a política degradada vale, em vez da falha para o HedgedAiProvider
+        ReflectionTestUtils.setField(guarded, "failOnError", false);
+        return guarded;
+    }
+}
@@ -0,0 +1,119 @@
+package kaiquebt.dev.termolivre.service;
+
+import kaiquebt.dev.termolivre.model.ChatMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloodDetectorTest {
+
+    private final TermoFilter filter = new TermoFilter();
+    // Atualização periódica longa: os testes chamam flush com o relógio deles
+    private final FloodDetector detector = new FloodDetector(filter, 3, 1_000, 100, 60_000, "test");
+    private final List<FloodDetector.Repeats> published = new ArrayList<>();
+    private long seq;
+
+    FloodDetectorTest() {
+        detector.onRepeats(published::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.shutdown();
+    }
+
+    @Test
+    void testAbsorb_BelowThreshold_ShouldLetEveryCopyThrough() {
+        assertFalse(detector.absorb(message("KEKW", "a"), seq++, 0));
+        assertFalse(detector.absorb(message("kekw", "b"), seq++, 100));
+
+        detector.flush(200);
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void testAbsorb_WithFlood_ShouldFoldCopiesIntoTheThirdOne() {
+        assertFalse(detector.absorb(message("KEKW", "a"), seq++, 0));
+        assertFalse(detector.absorb(message("kekw", "b"), seq++, 10));
+        ChatMessage leader = message("KEKW!!", "c");
+        long leaderSeq = seq++;
+        assertFalse(detector.absorb(leader, leaderSeq, 20));
+
+        // Mesmo texto normalizado, de usuários repetidos ou não
+        assertTrue(detector.absorb(message("kekw", "d"), seq++, 30));
+        assertTrue(detector.absorb(message("KeKw?", "d"), seq++, 40));
+        assertTrue(detector.absorb(message("kekw", "e"), seq++, 50));
+
+        detector.flush(100);
+        assertEquals(List.of(new FloodDetector.Repeats(leader.getId(), leaderSeq, 4, 3)), published);
+
+        // Sem cópias novas, nada a atualizar
+        detector.flush(200);
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void testAbsorb_WithCopiesOutsideWindow_ShouldNotStartFlood() {
+        assertFalse(detector.absorb(message("boa", "a"), seq++, 0));
+        assertFalse(detector.absorb(message("boa", "b"), seq++, 800));
+        assertFalse(detector.absorb(message("boa", "c"), seq++, 1_600));
+        assertFalse(detector.absorb(message("boa", "d"), seq++, 2_400));
+    }
+
+    @Test
+    void testAbsorb_AfterFloodCoolsDown_ShouldPublishAgain() {
+        for (int i = 0; i < 3; i++) {
+            assertFalse(detector.absorb(message("gg", "u" + i), seq++, i));
+        }
+        assertTrue(detector.absorb(message("gg", "x"), seq++, 500));
+
+        assertFalse(detector.absorb(message("gg", "y"), seq++, 2_000));
+    }
+
+    @Test
+    void testAbsorb_AfterAnswerSetChange_ShouldNotFoldIntoOldVerdict() {
+        for (int i = 0; i < 3; i++) {
+            assertFalse(detector.absorb(message("palavra", "u" + i), seq++, i));
+        }
+        assertTrue(detector.absorb(message("palavra", "x"), seq++, 10));
+
+        // Com outras respostas o veredito pode mudar: a cópia volta a ser moderada
+        filter.updateAnswers(List.of("palavra"));
+        assertFalse(detector.absorb(message("palavra", "y"), seq++, 20));
+    }
+
+    @Test
+    void testFlush_ShouldForgetCooledMessages() {
+        detector.absorb(message("um", "a"), seq++, 0);
+        detector.absorb(message("dois", "a"), seq++, 0);
+        assertEquals(2, detector.getTrackedCount());
+
+        detector.flush(5_000);
+        assertEquals(0, detector.getTrackedCount());
+    }
+
+    @Test
+    void testAbsorb_ShouldKeepTrackedTextsBounded() {
+        for (int i = 0; i < 1_000; i++) {
+            detector.absorb(message("mensagem " + i, "a"), seq++, i);
+        }
+        assertEquals(100, detector.getTrackedCount());
+    }
+
+    @Test
+    void testAbsorb_WhenDisabled_ShouldNeverAbsorb() {
+        FloodDetector disabled = new FloodDetector(filter, 0, 1_000, 100, 500, "off");
+        for (int i = 0; i < 10; i++) {
+            assertFalse(disabled.absorb(message("kekw", "a"), i, i));
+        }
+        disabled.shutdown();
+    }
+
+    private static ChatMessage message(String content, String sender) {
+        return new ChatMessage(content, sender, 0L);
+    }
+}
@@ -0,0 +1,175 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyMatcherTest {
+
+    private final FuzzyMatcher matcher = FuzzyMatcher.compile(
+            List.of("casa", "porta", "livro", "cadeira", "chuva"), FuzzyMatcher.EditBudget.parse("5:1,7:2"));
+
+    @Test
+    void testFind_WithDisguisedShortAnswer_ShouldMatchFoldedForm() {
+        assertEquals("casa", matcher.find("eu acho que e caasa").answer());
+        assertEquals("casa", matcher.find("k4sa").answer());
+        assertEquals("casa", matcher.find("kaza kkk").answer());
+        assertEquals(MatchKind.FUZZY, matcher.find("kaza").kind());
+    }
+
+    @Test
+    void testFind_WithTyposWithinBudget_ShouldMatch() {
+        assertEquals("porta", matcher.find("sera porra").answer());
+        assertEquals("livro", matcher.find("lirvo").answer());
+        assertEquals("cadeira", matcher.find("cadiera").answer());
+        assertEquals("cadeira", matcher.find("cadeeiraa").answer());
+        assertEquals("cadeira", matcher.find("kadera").answer());
+    }
+
+    @Test
+    void testFind_WithSpacedLetters_ShouldJoinThem() {
+        AnswerMatcher.Match match = matcher.find("olha c a a s a a ai");
+
+        assertEquals("casa", match.answer());
+        assertEquals(5, match.start());
+    }
+
+    @Test
+    void testFind_BeyondBudget_ShouldNotMatch() {
+        // Respostas de 4 letras não aceitam edição, só a forma dobrada
+        assertNull(matcher.find("cara"));
+        assertNull(matcher.find("cases"));
+        assertNull(matcher.find("pasta"));
+        assertNull(matcher.find("boa noite chat"));
+        assertNull(matcher.find("2024"));
+    }
+
+    @Test
+    void testFind_WithDefaultBudget_ShouldNotBlockCommonWords() {
+        FuzzyMatcher defaults = FuzzyMatcher.compile(List.of("livro", "branco", "porta", "mesa", "vento"),
+                FuzzyMatcher.EditBudget.DEFAULT, FuzzyMatcher.Dictionary.DEFAULT);
+
+        assertNull(defaults.find("o chat e livre"));
+        assertNull(defaults.find("sentei no banco"));
+        assertNull(defaults.find("fui pro porto"));
+        assertNull(defaults.find("bati a meta"));
+        assertNull(defaults.find("ta lento hoje"));
+        // Respostas de 5 letras ainda pegam a forma dobrada
+        assertEquals("livro", defaults.find("l1vr0").answer());
+    }
+
+    @Test
+    void testFind_WithDictionaryWord_ShouldNotMatchEvenWithinBudget() {
+        FuzzyMatcher loose = FuzzyMatcher.compile(List.of("livro", "branco", "porta", "mesa", "vento"),
+                FuzzyMatcher.EditBudget.parse("4:1"), FuzzyMatcher.Dictionary.DEFAULT);
+
+        assertNull(loose.find("livre"));
+        assertNull(loose.find("banco"));
+        assertNull(loose.find("porto"));
+        assertNull(loose.find("meta"));
+        assertNull(loose.find("lento"));
+        // Disfarçada de palavra conhecida também não: "l1vre" é "livre"
+        assertNull(loose.find("l1vre"));
+        // Erros de digitação que não são palavras continuam pegos
+        assertEquals("livro", loose.find("lirvo").answer());
+        assertEquals("branco", loose.find("brancp").answer());
+        assertEquals("vento", loose.find("vnto").answer());
+    }
+
+    @Test
+    void testFind_WithOtherAnswersAndDictionary_ShouldOnlyMatchNonWords() {
+        FuzzyMatcher.Dictionary dictionary = FuzzyMatcher.Dictionary.of(
+                List.of("gato", "pato", "mato", "Tempo", "templo", "termo", "témpera"));
+        FuzzyMatcher matcher = FuzzyMatcher.compile(List.of("gato", "tempo"), FuzzyMatcher.EditBudget.parse("4:1"),
+                dictionary);
+
+        assertNull(matcher.find("olha o pato"));
+        assertNull(matcher.find("muito mato"));
+        assertNull(matcher.find("fui no templo"));
+        assertNull(matcher.find("jogando termo"));
+        // A própria resposta, mesmo sendo palavra do dicionário
+        assertEquals("gato", matcher.find("g4t0").answer());
+        assertEquals("tempo", matcher.find("tempo").answer());
+        assertEquals("gato", matcher.find("gaot").answer());
+        assertEquals("tempo", matcher.find("tenpo").answer());
+        // Sem dicionário, as mesmas palavras ficam a uma edição da resposta
+        assertEquals("gato", FuzzyMatcher.compile(List.of("gato"), FuzzyMatcher.EditBudget.parse("4:1"))
+                .find("pato").answer());
+    }
+
+    @Test
+    void testDictionary_ShouldLoadWordListFromFile(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("palavras.txt");
+        Files.writeString(file, "# frequência\npato\n\n  mato \n");
+        FuzzyMatcher.Dictionary dictionary = FuzzyMatcher.Dictionary.load(file);
+        CompiledAnswerSet answers = CompiledAnswerSet.compile(List.of("gato"), FuzzyMatcher.EditBudget.parse("4:1"),
+                dictionary);
+
+        assertEquals(2, dictionary.size());
+        assertNull(answers.find("mato"));
+        assertEquals(MatchKind.FUZZY, answers.find("gatto").kind());
+    }
+
+    @Test
+    void testEditBudget_ShouldPickByLength() {
+        FuzzyMatcher.EditBudget budget = FuzzyMatcher.EditBudget.parse("5:1, 8:2");
+
+        assertEquals(0, budget.editsFor(4));
+        assertEquals(1, budget.editsFor(7));
+        assertEquals(2, budget.editsFor(12));
+        assertTrue(FuzzyMatcher.EditBudget.parse("").isDisabled());
+        assertThrows(IllegalArgumentException.class, () -> FuzzyMatcher.EditBudget.parse("5"));
+        assertNull(FuzzyMatcher.compile(List.of("casa"), FuzzyMatcher.EditBudget.parse("")).find("caasa"));
+    }
+
+    @Test
+    void testDistance_ShouldCountTranspositionAsOneEdit() {
+        assertEquals(1, FuzzyMatcher.distance("livro", "lirvo", 2));
+        assertEquals(1, FuzzyMatcher.distance("porta", "prota", 1));
+        // Passou do limite: devolve limite + 1 sem terminar a conta
+        assertEquals(2, FuzzyMatcher.distance("casa", "saca", 1));
+        assertEquals(0, FuzzyMatcher.distance("casa", "casa", 0));
+    }
+
+    @Test
+    void testCompiledAnswerSet_ShouldFallBackToFuzzyAfterExactForms() {
+        CompiledAnswerSet answers = CompiledAnswerSet.compile(List.of("casa", "porta"));
+
+        assertEquals(MatchKind.DIRECT, answers.find("casa").kind());
+        assertEquals(MatchKind.FUZZY, answers.find("portta a").kind());
+    }
+
+    @Test
+    void testFind_WithThousandsOfAnswers_ShouldStayFast() {
+        Random random = new Random(42);
+        List<String> answers = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 5 + random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            answers.add(word.toString());
+        }
+        FuzzyMatcher big = FuzzyMatcher.compile(answers, FuzzyMatcher.EditBudget.DEFAULT);
+        String message = "alguem sabe qual e a palavra de hoje to travado aqui faz tempo";
+
+        for (int i = 0; i < 2_000; i++) {
+            big.find(message);
+        }
+        long start = System.nanoTime();
+        int runs = 2_000;
+        for (int i = 0; i < runs; i++) {
+            big.find(message);
+        }
+        long micros = (System.nanoTime() - start) / runs / 1_000;
+        assertTrue(micros < 200, "took " + micros + " us per message");
+    }
+}
@@ -0,0 +1,320 @@
+package kaiquebt.dev.termolivre.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgedAiProviderTest {
+
+    private static final IntFunction<Long> FAST = call -> 10L;
+    private static final IntPredicate NEVER = call -> false;
+    private static final IntPredicate ALWAYS = call -> true;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ModerationMetrics metrics = new ModerationMetrics(registry);
+    // Chamadas somadas de todos os stubs, para "só a primeira é lenta"
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void testAnalyze_WhenPrimaryIsSlow_ShouldHedgeAndTakeFirstAnswer() throws Exception {
+        // Quem for sorteado primeiro demora; o reserva responde logo
+        IntFunction<Long> firstSlow = call -> call == 0 ? 3_000L : 20L;
+        HedgedAiProvider provider = hedged(100, 3, 10_000, new Stub(firstSlow, NEVER), new Stub(firstSlow, NEVER));
+
+        long start = System.nanoTime();
+        List<Boolean> results = provider.analyzeMessagesForTermoAnswersAsync(List.of("a resposta é barco", "oi"))
+                .get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(true, false), results);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_500);
+        assertEquals(1.0, hedges("sent"));
+        // Contado quando o lote do reserva termina, logo depois dos vereditos
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (hedges("won") == 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, hedges("won"));
+    }
+
+    @Test
+    void testAnalyze_WhenPrimaryAnswersInTime_ShouldNotHedge() throws Exception {
+        HedgedAiProvider provider = hedged(200, 3, 10_000, new Stub(FAST, NEVER), new Stub(FAST, NEVER));
+
+        assertEquals(List.of(true), provider.analyzeMessagesForTermoAnswersAsync(List.of("resposta"))
+                .get(2, TimeUnit.SECONDS));
+        Thread.sleep(300);
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, hedges("sent"));
+    }
+
+    @Test
+    void testAnalyze_WhenPrimaryFails_ShouldHedgeWithoutWaitingForDelay() throws Exception {
+        IntPredicate firstFails = call -> call == 0;
+        HedgedAiProvider provider = hedged(5_000, 3, 10_000, new Stub(FAST, firstFails), new Stub(FAST, firstFails));
+
+        assertEquals(List.of(true), provider.analyzeMessagesForTermoAnswersAsync(List.of("resposta"))
+                .get(2, TimeUnit.SECONDS));
+        assertEquals(1.0, hedges("sent"));
+    }
+
+    @Test
+    void testAnalyze_WhenEveryEndpointFails_ShouldTreatMessagesAsSafe() throws Exception {
+        HedgedAiProvider provider = hedged(50, 3, 10_000, new Stub(FAST, ALWAYS), new Stub(FAST, ALWAYS));
+
+        assertEquals(List.of(false, false), provider.analyzeMessagesForTermoAnswersAsync(List.of("resposta", "resposta 2"))
+                .get(2, TimeUnit.SECONDS));
+        assertEquals(2.0, registry.get("moderation.ai.fallbacks").counter().count());
+    }
+
+    @Test
+    void testAnalyze_WithFailingEndpoint_ShouldEjectItAndUseTheOther() throws Exception {
+        Stub broken = new Stub(FAST, ALWAYS);
+        Stub healthy = new Stub(FAST, NEVER);
+        HedgedAiProvider provider = hedged(5_000, 1, 10_000, broken, healthy);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(List.of(true), provider.analyzeMessagesForTermoAnswersAsync(List.of("resposta"))
+                    .get(2, TimeUnit.SECONDS));
+        }
+
+        assertTrue(broken.calls.get() <= 1, "ejected endpoint was called " + broken.calls.get() + " times");
+        assertEquals(10, healthy.calls.get());
+        assertFalse(provider.getEndpoints().get(0).isHealthy());
+        assertEquals(broken.calls.get(), registry.get("moderation.ai.endpoint.ejections")
+                .tag("endpoint", "endpoint-0").counter().count());
+    }
+
+    @Test
+    void testEndpoint_AfterEjection_ShouldComeBackAndLeaveAgainOnFirstFailure() throws Exception {
+        HedgedAiProvider.Endpoint endpoint = new HedgedAiProvider.Endpoint("e", new Stub(FAST, NEVER));
+        long ejectNanos = TimeUnit.MILLISECONDS.toNanos(50);
+
+        for (int i = 0; i < 2; i++) {
+            endpoint.started();
+            assertFalse(endpoint.failed(3, ejectNanos));
+        }
+        endpoint.started();
+        assertTrue(endpoint.failed(3, ejectNanos));
+        assertFalse(endpoint.isHealthy());
+
+        // Falhas de lotes que já estavam em voo não prolongam a ejeção
+        endpoint.started();
+        assertFalse(endpoint.failed(3, ejectNanos));
+
+        Thread.sleep(80);
+        assertTrue(endpoint.isHealthy());
+        endpoint.started();
+        assertTrue(endpoint.failed(3, ejectNanos));
+        // Reincidente: fica fora o dobro do tempo
+        assertTrue(endpoint.ejectedUntil() - System.nanoTime() > ejectNanos);
+
+        endpoint.started();
+        endpoint.succeeded(1_000);
+        assertTrue(endpoint.isHealthy());
+    }
+
+    @Test
+    void testAnalyze_WithDeepSeekEndpoints_ShouldHedgeAwayFromSlowServer() throws Exception {
+        HttpServer fast = server(20);
+        HttpServer slow = server(1_500);
+        DeepSeekAiProvider base = new DeepSeekAiProvider();
+        ReflectionTestUtils.setField(base, "apiKey", "");
+        ReflectionTestUtils.setField(base, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(base, "readTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(base, "maxInFlight", 3);
+        ReflectionTestUtils.setField(base, "maxBatchSize", 30);
+        ReflectionTestUtils.setField(base, "batchTokenBudget", 800);
+        ReflectionTestUtils.setField(base, "batchTargetLatencyMs", 1500L);
+        HedgedAiProvider provider = hedged(150, 3, 10_000,
+                base.forEndpoint("fast", url(fast), null, null), base.forEndpoint("slow", url(slow), null, null));
+
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            assertEquals(List.of(true, false), provider.analyzeMessagesForTermoAnswersAsync(
+                    List.of("a resposta " + i, "boa noite " + i)).get(3, TimeUnit.SECONDS));
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(millis < 1_000, "batch " + i + " took " + millis + " ms");
+        }
+    }
+
+    @Test
+    void testAnalyze_WhenEveryBreakerIsOpen_ShouldApplyBlockPolicy() throws Exception {
+        HttpServer down = failingServer();
+        DeepSeekAiProvider base = new DeepSeekAiProvider();
+        ReflectionTestUtils.setField(base, "apiKey", "");
+        ReflectionTestUtils.setField(base, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(base, "readTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(base, "maxInFlight", 3);
+        ReflectionTestUtils.setField(base, "maxBatchSize", 30);
+        ReflectionTestUtils.setField(base, "batchTokenBudget", 800);
+        ReflectionTestUtils.setField(base, "batchTargetLatencyMs", 1500L);
+        ReflectionTestUtils.setField(base, "breakerWindowSize", 4);
+        ReflectionTestUtils.setField(base, "breakerMinCalls", 2);
+        ReflectionTestUtils.setField(base, "breakerFailureRate", 0.5);
+        ReflectionTestUtils.setField(base, "breakerOpenMs", 60_000L);
+        ReflectionTestUtils.setField(base, "degradedPolicy", DegradedPolicy.BLOCK);
+        DeepSeekAiProvider first = base.forEndpoint("first", url(down), null, null);
+        DeepSeekAiProvider second = base.forEndpoint("second", url(down), null, null);
+        for (DeepSeekAiProvider endpoint : List.of(first, second)) {
+            for (int i = 0; i < 2; i++) {
+                CompletableFuture<Boolean> verdict = endpoint.analyzeEachMessageAsync(List.of("msg " + i)).get(0);
+                assertThrows(ExecutionException.class, () -> verdict.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(CircuitBreaker.State.OPEN, endpoint.getBreakerState());
+        }
+        // Ejeção alta: os dois continuam sendo escolhidos e recusam sem chamar a API
+        List<HedgedAiProvider.Endpoint> endpoints = List.of(new HedgedAiProvider.Endpoint("first", first),
+                new HedgedAiProvider.Endpoint("second", second));
+        HedgedAiProvider provider = new HedgedAiProvider(endpoints, 0.95, 10, 100, 100, 10_000,
+                DegradedPolicy.BLOCK, metrics);
+        closeables.add(provider);
+
+        CompletableFuture<Boolean> verdict = provider.analyzeEachMessageAsync(List.of("boa noite")).get(0);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> verdict.get(5, TimeUnit.SECONDS));
+        assertTrue(AiFallbackException.of(error.getCause()).isDegraded());
+        assertTrue(AiFallbackException.unsafeVerdict(error.getCause()));
+    }
+
+    @Test
+    void testAnalyze_WhenEndpointsFail_ShouldStaySafeUnderBlockPolicy() throws Exception {
+        HedgedAiProvider provider = new HedgedAiProvider(List.of(
+                new HedgedAiProvider.Endpoint("a", new Stub(FAST, ALWAYS)),
+                new HedgedAiProvider.Endpoint("b", new Stub(FAST, ALWAYS))), 0.95, 10, 100, 3, 10_000,
+                DegradedPolicy.BLOCK, metrics);
+        closeables.add(provider);
+
+        CompletableFuture<Boolean> verdict = provider.analyzeEachMessageAsync(List.of("boa noite")).get(0);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> verdict.get(5, TimeUnit.SECONDS));
+        // A API foi chamada e falhou: não é a IA desligada de propósito, vale o fallback seguro
+        assertFalse(AiFallbackException.of(error.getCause()).isDegraded());
+        assertFalse(AiFallbackException.unsafeVerdict(error.getCause()));
+    }
+
+    private HedgedAiProvider hedged(long initialDelayMillis, int failuresToEject, long ejectMillis, AiProvider... providers) {
+        List<HedgedAiProvider.Endpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < providers.length; i++) {
+            endpoints.add(new HedgedAiProvider.Endpoint("endpoint-" + i, providers[i]));
+        }
+        HedgedAiProvider provider = new HedgedAiProvider(endpoints, 0.95, 10, initialDelayMillis,
+                failuresToEject, ejectMillis, metrics);
+        closeables.add(provider);
+        return provider;
+    }
+
+    private double hedges(String result) {
+        return registry.get("moderation.ai.hedges").tag("result", result).counter().count();
+    }
+
+    // Responde "true" para cada linha numerada que contém "resposta", depois de delayMs
+    private HttpServer server(long delayMs) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/chat/completions", exchange -> {
+            try {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                List<String> verdicts = new ArrayList<>();
+                for (String line : body.split("\\\\n")) {
+                    if (line.matches("^\\d+\\. .*")) {
+                        verdicts.add(String.valueOf(line.contains("resposta")));
+                    }
+                }
+                Thread.sleep(delayMs);
+                byte[] response = ("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\""
+                        + String.join(",", verdicts) + "\"}}]}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        closeables.add(() -> server.stop(0));
+        return server;
+    }
+
+    // Sempre 500, para abrir o disjuntor
+    private HttpServer failingServer() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+        closeables.add(() -> server.stop(0));
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions";
+    }
+
+    // Marca como resposta o que contém "resposta"; latência e falha dependem da ordem global da chamada
+    private class Stub implements AiProvider {
+
+        private final IntFunction<Long> delayMs;
+        private final IntPredicate failing;
+        final AtomicInteger calls = new AtomicInteger();
+
+        Stub(IntFunction<Long> delayMs, IntPredicate failing) {
+            this.delayMs = delayMs;
+            this.failing = failing;
+        }
+
+        @Override
+        public List<Boolean> analyzeMessagesForTermoAnswers(List<String> messages) {
+            return analyzeMessagesForTermoAnswersAsync(messages).join();
+        }
+
+        @Override
+        public List<CompletableFuture<Boolean>> analyzeEachMessageAsync(List<String> messages) {
+            calls.incrementAndGet();
+            int call = HedgedAiProviderTest.this.calls.getAndIncrement();
+            long delay = delayMs.apply(call);
+            boolean fail = failing.test(call);
+            CompletableFuture<List<Boolean>> batch = CompletableFuture.supplyAsync(() -> {
+                if (fail) {
+                    throw new IllegalStateException("endpoint down");
+                }
+                List<Boolean> results = new ArrayList<>();
+                messages.forEach(message -> results.add(message.contains("resposta")));
+                return results;
+            }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+            List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                int index = i;
+                verdicts.add(batch.thenApply(results -> results.get(index)));
+            }
+            return verdicts;
+        }
+    }
+}
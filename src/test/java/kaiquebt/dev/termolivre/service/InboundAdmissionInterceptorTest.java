@@ -0,0 +1,119 @@
+package kaiquebt.dev.termolivre.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboundAdmissionInterceptorTest {
+
+    private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ModerationMetrics metrics = new ModerationMetrics(registry);
+
+    private InboundAdmissionInterceptor interceptor(int maxBytes, double sessionRate, int sessionBurst,
+                                                    double globalRate, int globalBurst) {
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        InboundAdmissionInterceptor interceptor = new InboundAdmissionInterceptor(template, metrics);
+        ReflectionTestUtils.setField(interceptor, "maxMessageBytes", maxBytes);
+        ReflectionTestUtils.setField(interceptor, "sessionRate", sessionRate);
+        ReflectionTestUtils.setField(interceptor, "sessionBurst", sessionBurst);
+        ReflectionTestUtils.setField(interceptor, "globalRate", globalRate);
+        ReflectionTestUtils.setField(interceptor, "globalBurst", globalBurst);
+        interceptor.init();
+        return interceptor;
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String sessionId, String body) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination("/app/chat");
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private double rejected(String reason) {
+        return registry.get("chat.inbound.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void testPreSend_OverSessionBurst_ShouldDropAndReportToSession() throws Exception {
+        InboundAdmissionInterceptor interceptor = interceptor(2000, 0.001, 2, 0, 1);
+
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s1", "{}"), null));
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s1", "{}"), null));
+        assertNull(interceptor.preSend(frame(StompCommand.SEND, "s1", "{}"), null));
+        // Outra sessão tem o próprio balde
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s2", "{}"), null));
+
+        assertEquals(1.0, rejected("rate_limited"));
+        assertEquals(1, sent.size());
+        Message<?> error = sent.get(0);
+        assertEquals("/user/s1/queue/errors", SimpMessageHeaderAccessor.getDestination(error.getHeaders()));
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(error.getHeaders()));
+        assertEquals("rate_limited", new ObjectMapper().readTree((byte[]) error.getPayload()).get("reason").asText());
+    }
+
+    @Test
+    void testPreSend_WithLargeBody_ShouldDropWithoutSpendingTokens() {
+        InboundAdmissionInterceptor interceptor = interceptor(10, 0.001, 1, 0, 1);
+
+        assertNull(interceptor.preSend(frame(StompCommand.SEND, "s1", "{\"content\":\"longa demais\"}"), null));
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s1", "{}"), null));
+
+        assertEquals(1.0, rejected("too_large"));
+    }
+
+    @Test
+    void testPreSend_OverGlobalBurst_ShouldDropAcrossSessions() {
+        InboundAdmissionInterceptor interceptor = interceptor(2000, 0, 1, 0.001, 2);
+
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s1", "{}"), null));
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s2", "{}"), null));
+        assertNull(interceptor.preSend(frame(StompCommand.SEND, "s3", "{}"), null));
+
+        assertEquals(1.0, rejected("overloaded"));
+    }
+
+    @Test
+    void testPreSend_ShouldOnlyLimitSendAndForgetClosedSessions() {
+        InboundAdmissionInterceptor interceptor = interceptor(1, 0.001, 1, 0, 1);
+
+        assertNotNull(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "s1", "{}"), null));
+        assertNotNull(interceptor.preSend(frame(StompCommand.SEND, "s1", ""), null));
+        assertEquals(1, interceptor.getTrackedSessionCount());
+
+        interceptor.preSend(frame(StompCommand.DISCONNECT, "s1", ""), null);
+        assertEquals(0, interceptor.getTrackedSessionCount());
+    }
+
+    @Test
+    void testSessionDisconnectEvent_WithoutDisconnectFrame_ShouldForgetSession() {
+        InboundAdmissionInterceptor interceptor = interceptor(100, 0.001, 1, 0, 1);
+        interceptor.preSend(frame(StompCommand.SEND, "s1", "{}"), null);
+        interceptor.preSend(frame(StompCommand.SEND, "s2", "{}"), null);
+        assertEquals(2, interceptor.getTrackedSessionCount());
+
+        // Conexão caiu: o broker publica o evento, nenhum frame passa pelo interceptor
+        interceptor.onApplicationEvent(new SessionDisconnectEvent(this,
+                frame(StompCommand.DISCONNECT, "s1", ""), "s1", CloseStatus.SESSION_NOT_RELIABLE));
+
+        assertEquals(1, interceptor.getTrackedSessionCount());
+    }
+}
@@ -0,0 +1,67 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyBudgetTest {
+
+    private final LatencyBudget budget = new LatencyBudget(100, "test");
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        budget.shutdown();
+    }
+
+    @Test
+    void testWatch_WithVerdictInTime_ShouldOnlyCallOnTime() throws Exception {
+        CompletableFuture<Boolean> verdict = new CompletableFuture<>();
+        budget.watch(verdict, safe -> events.add("onTime:" + safe), () -> events.add("deadline"),
+                safe -> events.add("late:" + safe));
+
+        verdict.complete(true);
+        Thread.sleep(200);
+
+        assertEquals(List.of("onTime:true"), events);
+    }
+
+    @Test
+    void testWatch_WithSlowVerdict_ShouldCallDeadlineThenLate() throws Exception {
+        CompletableFuture<Boolean> verdict = new CompletableFuture<>();
+        CountDownLatch deadline = new CountDownLatch(1);
+        CountDownLatch late = new CountDownLatch(1);
+        budget.watch(verdict, safe -> events.add("onTime:" + safe),
+                () -> {
+                    events.add("deadline");
+                    deadline.countDown();
+                },
+                safe -> {
+                    events.add("late:" + safe);
+                    late.countDown();
+                });
+
+        assertTrue(deadline.await(2, TimeUnit.SECONDS));
+        verdict.complete(false);
+        assertTrue(late.await(2, TimeUnit.SECONDS));
+
+        assertEquals(List.of("deadline", "late:false"), events);
+    }
+
+    @Test
+    void testWatch_WithVerdictThatNeverArrives_ShouldStillReleaseAtDeadline() throws Exception {
+        CountDownLatch deadline = new CountDownLatch(1);
+        budget.watch(new CompletableFuture<>(), safe -> events.add("onTime"), deadline::countDown,
+                safe -> events.add("late"));
+
+        assertTrue(deadline.await(2, TimeUnit.SECONDS));
+        assertTrue(events.isEmpty());
+    }
+}
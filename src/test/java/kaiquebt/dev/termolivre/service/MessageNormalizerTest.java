@@ -0,0 +1,57 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageNormalizerTest {
+
+    @Test
+    void testNormalize_ShouldMatchLegacyRegexChain() {
+        assertEquals("a palavra e casa", MessageNormalizer.normalize("  A palavra é CASA!!! "));
+        assertEquals("porta", MessageNormalizer.normalize("pôrta"));
+        assertEquals("acao e coracao", MessageNormalizer.normalize("Ação   e\tcoração"));
+        assertEquals("c a s a", MessageNormalizer.normalize("c.a.s.a"));
+        assertEquals("", MessageNormalizer.normalize("   ?!  "));
+        assertEquals("", MessageNormalizer.normalize(null));
+    }
+
+    @Test
+    void testNormalize_ShouldFoldAccentsOutsideLegacyList() {
+        assertEquals("nandu", MessageNormalizer.normalize("ñandú"));
+        assertEquals("casa", MessageNormalizer.normalize("cẬsa"));
+    }
+
+    @Test
+    void testNormalize_WithFullWidthLetters_ShouldFoldToAscii() {
+        assertEquals("casa 123", MessageNormalizer.normalize("ＣＡｓａ　１２３"));
+    }
+
+    @Test
+    void testNormalize_WithCombiningMarks_ShouldKeepWordTogether() {
+        assertEquals("casa", MessageNormalizer.normalize("c\u0301a\u0327sa\u0308"));
+    }
+
+    @Test
+    void testNormalize_WithZeroWidthCharacters_ShouldKeepWordTogether() {
+        assertEquals("casa", MessageNormalizer.normalize("c\u200Ba\u200Ds\u2060a\uFEFF"));
+        assertEquals("casa", MessageNormalizer.normalize("ca\u00ADsa"));
+    }
+
+    @Test
+    void testNormalize_WithMathematicalAlphanumerics_ShouldFoldToAscii() {
+        assertEquals("casa", MessageNormalizer.normalize("𝐜𝐚𝐬𝐚"));
+        assertEquals("porta 7", MessageNormalizer.normalize("𝓅𝓸𝔯𝕥𝚊 𝟕"));
+    }
+
+    @Test
+    void testNormalize_WithCyrillicHomoglyphs_ShouldFoldToLatin() {
+        assertEquals("casa", MessageNormalizer.normalize("сАsа"));
+    }
+
+    @Test
+    void testNormalize_WithReusedBuffer_ShouldOverwritePreviousContent() {
+        StringBuilder buffer = new StringBuilder();
+        MessageNormalizer.normalize("uma mensagem bem comprida", buffer);
+        assertEquals("casa", MessageNormalizer.normalize("Casa", buffer).toString());
+    }
+}
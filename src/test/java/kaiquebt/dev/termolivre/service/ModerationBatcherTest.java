@@ -0,0 +1,108 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.AfterEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModerationBatcherTest {
+
+    // Guarda cada chamada à IA e marca como unsafe mensagens com "resposta"
+    private final List<List<String>> aiCalls = Collections.synchronizedList(new ArrayList<>());
+    private final AiProvider stubProvider = messages -> {
+        aiCalls.add(new ArrayList<>(messages));
+        List<Boolean> results = new ArrayList<>();
+        for (String message : messages) {
+            results.add(message.contains("resposta"));
+        }
+        return results;
+    };
+
+    private ModerationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void testSubmit_WithFullBatch_ShouldCallAiOnce() throws Exception {
+        batcher = new ModerationBatcher(new TermoFilter(stubProvider), 4, 5_000, "test");
+        batcher.start();
+
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>();
+        verdicts.add(batcher.submit("oi chat"));
+        verdicts.add(batcher.submit("qual a resposta"));
+        verdicts.add(batcher.submit("boa noite"));
+        verdicts.add(batcher.submit("kkkk"));
+
+        assertTrue(verdicts.get(0).get(2, TimeUnit.SECONDS));
+        assertFalse(verdicts.get(1).get(2, TimeUnit.SECONDS));
+        assertTrue(verdicts.get(2).get(2, TimeUnit.SECONDS));
+        assertTrue(verdicts.get(3).get(2, TimeUnit.SECONDS));
+        assertEquals(1, aiCalls.size());
+        assertEquals(4, aiCalls.get(0).size());
+    }
+
+    @Test
+    void testSubmit_WithPartialBatch_ShouldFlushAfterWindow() throws Exception {
+        batcher = new ModerationBatcher(new TermoFilter(stubProvider), 50, 50, "test");
+        batcher.start();
+
+        CompletableFuture<Boolean> first = batcher.submit("oi");
+        CompletableFuture<Boolean> second = batcher.submit("tudo bem?");
+
+        assertTrue(first.get(2, TimeUnit.SECONDS));
+        assertTrue(second.get(2, TimeUnit.SECONDS));
+        assertEquals(1, aiCalls.size());
+    }
+
+    @Test
+    void testSubmit_AfterStop_ShouldReleaseMessageAsSafe() throws Exception {
+        batcher = new ModerationBatcher(new TermoFilter(stubProvider), 10, 50, "test");
+        batcher.start();
+        batcher.stop();
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> batcher.submit("qual a resposta").get(2, TimeUnit.SECONDS));
+        assertFalse(AiFallbackException.unsafeVerdict(error.getCause()));
+        assertTrue(aiCalls.isEmpty());
+    }
+
+    @Test
+    void testSubmit_WithFullQueue_ShouldCountEachDrop() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        batcher = new ModerationBatcher(new TermoFilter(stubProvider), 1, 50, 1, "test", new ModerationMetrics(registry));
+        // Aceita sem o worker rodando: nada sai da fila (capacidade de 100 lotes de 1)
+        ReflectionTestUtils.setField(batcher, "running", true);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(batcher.submit("msg " + i).isDone());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> batcher.submit("sobrou").get(1, TimeUnit.SECONDS));
+            assertEquals("queue-full", AiFallbackException.of(error.getCause()).getReason());
+        }
+        assertEquals(3.0, registry.get("moderation.queue.rejected").tag("channel", "test").counter().count());
+        assertTrue(((AtomicBoolean) ReflectionTestUtils.getField(batcher, "full")).get());
+
+        // Com espaço de novo, sai do estado cheio
+        ((BlockingQueue<?>) ReflectionTestUtils.getField(batcher, "queue")).clear();
+        assertFalse(batcher.submit("voltou").isDone());
+        assertFalse(((AtomicBoolean) ReflectionTestUtils.getField(batcher, "full")).get());
+    }
+}
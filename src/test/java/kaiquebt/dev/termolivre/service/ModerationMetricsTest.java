@@ -0,0 +1,116 @@
+package kaiquebt.dev.termolivre.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModerationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ModerationMetrics metrics = new ModerationMetrics(registry);
+
+    private double ruleHits(String kind) {
+        return registry.get("moderation.rule.hits").tag("kind", kind).counter().count();
+    }
+
+    private long stageCount(String stage) {
+        return registry.get("moderation.stage.latency").tag("stage", stage).timer().count();
+    }
+
+    @Test
+    void testAreMessagesSafe_ShouldRecordStagesAndRuleHitsByKind() {
+        AiProvider safeAi = messages -> Collections.nCopies(messages.size(), false);
+        TermoFilter filter = new TermoFilter(safeAi, new VerdictCache(), metrics);
+
+        filter.areMessagesSafe(List.of("a resposta é casa", "c a s a", "mmeessaa", "boa noite chat"));
+
+        assertEquals(1.0, ruleHits("direct"));
+        assertEquals(1.0, ruleHits("spaced"));
+        assertEquals(1.0, ruleHits("doubled"));
+        assertEquals(0.0, ruleHits("leet"));
+        assertEquals(4, stageCount("normalize"));
+        assertEquals(4, stageCount("rules"));
+        assertEquals(1, stageCount("ai"));
+    }
+
+    @Test
+    void testCheckRules_ThenAfterRules_ShouldRecordRuleStagesOnce() {
+        AiProvider safeAi = messages -> Collections.nCopies(messages.size(), false);
+        TermoFilter filter = new TermoFilter(safeAi, new VerdictCache(), metrics);
+
+        // Caminho do ChatService: regras uma vez, depois só cache e IA com o texto já normalizado
+        TermoFilter.RuleCheck hit = filter.checkRules("a resposta é casa");
+        TermoFilter.RuleCheck miss = filter.checkRules("Boa Noite, chat!");
+        List<Boolean> verdicts = AiProvider.collect(
+                filter.isEachMessageSafeAfterRulesAsync(List.of("Boa Noite, chat!"), List.of(miss.cacheKey()))).join();
+
+        assertEquals(MatchKind.DIRECT, hit.match().kind());
+        assertNull(miss.match());
+        assertEquals(List.of(true), verdicts);
+        assertEquals(1.0, ruleHits("direct"));
+        assertEquals(2, stageCount("normalize"));
+        assertEquals(2, stageCount("rules"));
+        assertEquals(1, stageCount("ai"));
+        assertEquals(Boolean.FALSE, filter.getVerdictCache().get(filter.getAnswerSet().getVersion(), miss.cacheKey()));
+    }
+
+    @Test
+    void testParseAiResponse_WithWrongVerdictCount_ShouldCountMismatch() {
+        DeepSeekAiProvider provider = new DeepSeekAiProvider();
+        ReflectionTestUtils.setField(provider, "metrics", metrics);
+
+        provider.parseAiResponse("true,false", 2);
+        provider.parseAiResponse("true", 3);
+        provider.parseAiResponse(null, 1);
+
+        assertEquals(2.0, registry.get("moderation.ai.response.mismatches").counter().count());
+    }
+
+    @Test
+    void testRegisterQueue_ShouldExposeQueueDepthPerChannel() {
+        ModerationBatcher batcher = new ModerationBatcher(new TermoFilter(), 5, 1000, "metrics");
+        metrics.registerQueue("canal_a", batcher);
+
+        assertEquals(0.0, registry.get("moderation.queue.depth").tag("channel", "canal_a").gauge().value());
+    }
+
+    @Test
+    void testWorkerRejected_ShouldReuseOneCounterPerChannel() {
+        metrics.workerRejected("canal_a");
+        metrics.workerRejected("canal_a");
+        metrics.workerRejected("canal_b");
+        metrics.aiShortCircuited("deepseek", "open", 3);
+        metrics.aiShortCircuited("deepseek", "open", 2);
+
+        assertEquals(2.0, registry.get("moderation.workers.rejected").tag("channel", "canal_a").counter().count());
+        assertEquals(1.0, registry.get("moderation.workers.rejected").tag("channel", "canal_b").counter().count());
+        assertEquals(5.0, registry.get("moderation.ai.short.circuited").tag("reason", "open").counter().count());
+    }
+
+    @Test
+    void testRegisterChannel_ShouldExposeWorkerQueueAndReorderBuffer() {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES, new ArrayBlockingQueue<>(4));
+        ReorderBuffer reorderBuffer = new ReorderBuffer(10_000, "metrics");
+        try {
+            metrics.registerChannel("canal_a", workers, reorderBuffer);
+            long first = reorderBuffer.next();
+            reorderBuffer.next();
+            // A segunda ficou pronta antes da primeira: espera no buffer
+            reorderBuffer.complete(first + 1, () -> { });
+
+            assertEquals(0.0, registry.get("moderation.workers.queue.depth").tag("channel", "canal_a").gauge().value());
+            assertEquals(1.0, registry.get("moderation.reorder.waiting").tag("channel", "canal_a").gauge().value());
+        } finally {
+            workers.shutdownNow();
+            reorderBuffer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NgramClassifierTest {
+
+    private static final List<String> SMALL_TALK = List.of("boa noite chat", "kkkkkkk", "que jogada foi essa",
+            "essa foi difícil demais", "eu acertei em 3 hoje", "o chat tá muito rápido hoje", "PogChamp", "eita");
+    private static final List<String> SPOILER_TEMPLATES = List.of("a resposta é %s", "é %s gente", "digita %s streamer",
+            "a palavra é %s");
+    private static final List<String> WORDS = List.of("barco", "festa", "tigre", "nuvem", "piano", "lenha");
+
+    static List<NgramClassifier.Example> examples() {
+        List<NgramClassifier.Example> examples = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            SMALL_TALK.forEach(message -> examples.add(new NgramClassifier.Example(message, false)));
+        }
+        for (String template : SPOILER_TEMPLATES) {
+            WORDS.forEach(word -> examples.add(new NgramClassifier.Example(template.formatted(word), true)));
+        }
+        return examples;
+    }
+
+    @Test
+    void testTrain_ShouldSeparateSmallTalkFromSpoilers() {
+        NgramClassifier classifier = NgramClassifier.train(examples(), 14, 8, 1);
+
+        assertTrue(classifier.score("boa noite chat kkkk") < 0.2);
+        assertTrue(classifier.score("a resposta é vidro") > 0.8);
+    }
+
+    @Test
+    void testWriteAndRead_ShouldKeepScores() throws IOException {
+        NgramClassifier classifier = NgramClassifier.train(examples(), 12, 4, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        classifier.write(out);
+
+        NgramClassifier loaded = NgramClassifier.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(12, loaded.getBits());
+        assertEquals(classifier.score("é piano gente"), loaded.score("é piano gente"), 1e-9);
+        assertThrows(IOException.class, () -> NgramClassifier.read(new ByteArrayInputStream(new byte[16])));
+    }
+
+    @Test
+    void testTrain_WithInvalidSize_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> NgramClassifier.train(examples(), 30, 1, 1));
+    }
+}
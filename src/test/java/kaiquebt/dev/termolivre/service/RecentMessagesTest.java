@@ -0,0 +1,141 @@
+package kaiquebt.dev.termolivre.service;
+
+import kaiquebt.dev.termolivre.model.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessagesTest {
+
+    @Test
+    void testCapacity_ShouldRoundUpToPowerOfTwo() {
+        assertEquals(64, new RecentMessages(50).capacity());
+        assertEquals(64, new RecentMessages(64).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RecentMessages(0));
+    }
+
+    @Test
+    void testSnapshot_AfterWrapAround_ShouldKeepLatestInOrder() {
+        RecentMessages recent = new RecentMessages(4);
+        for (int i = 0; i < 10; i++) {
+            recent.add(message("id" + i, "msg" + i));
+        }
+
+        List<ChatMessage> snapshot = recent.snapshot();
+
+        assertEquals(List.of("id6", "id7", "id8", "id9"), snapshot.stream().map(ChatMessage::getId).toList());
+    }
+
+    @Test
+    void testUpdate_ShouldReplaceBufferedCopyOnly() {
+        RecentMessages recent = new RecentMessages(4);
+        ChatMessage original = message("a", "Mensagem em análise...");
+        recent.add(original);
+        recent.add(message("b", "oi"));
+
+        assertTrue(recent.update("a", "Usuário tentou dizer a resposta!"));
+
+        assertEquals("Usuário tentou dizer a resposta!", recent.snapshot().get(0).getContent());
+        // A mensagem já enviada não é alterada
+        assertEquals("Mensagem em análise...", original.getContent());
+    }
+
+    @Test
+    void testUpdate_WithEvictedMessage_ShouldReturnFalse() {
+        RecentMessages recent = new RecentMessages(2);
+        recent.add(message("a", "x"));
+        recent.add(message("b", "y"));
+        recent.add(message("c", "z"));
+
+        assertFalse(recent.update("a", "blocked"));
+        assertFalse(recent.update(null, "blocked"));
+    }
+
+    @Test
+    void testUpdateRepeats_ShouldKeepContentAndStoreCounts() {
+        RecentMessages recent = new RecentMessages(4);
+        recent.add(message("a", "kekw"));
+
+        assertTrue(recent.updateRepeats("a", 12, 9));
+        recent.update("a", "liberada");
+
+        ChatMessage stored = recent.snapshot().get(0);
+        assertEquals("liberada", stored.getContent());
+        assertEquals(12, stored.getRepeats());
+        assertEquals(9, stored.getSenders());
+    }
+
+    @Test
+    void testSnapshot_ShouldNotExposeBufferedInstances() {
+        RecentMessages recent = new RecentMessages(2);
+        recent.add(message("a", "x"));
+
+        recent.snapshot().get(0).setContent("changed");
+
+        assertEquals("x", recent.snapshot().get(0).getContent());
+    }
+
+    @Test
+    void testAdd_FromConcurrentWriters_ShouldKeepCapacityMessages() throws Exception {
+        RecentMessages recent = new RecentMessages(16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            int writer = t;
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    recent.add(message(writer + "-" + i, "msg"));
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(16, recent.snapshot().size());
+    }
+
+    @Test
+    void testUpdate_RacingWithUpdateRepeats_ShouldNeverLoseRetraction() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 200; round++) {
+                RecentMessages recent = new RecentMessages(4);
+                recent.add(message("flood", "é barco"));
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> repeats = executor.submit(() -> {
+                    start.await();
+                    for (int i = 1; i <= 500; i++) {
+                        assertTrue(recent.updateRepeats("flood", i, i));
+                    }
+                    return null;
+                });
+                Future<Boolean> retraction = executor.submit(() -> {
+                    start.await();
+                    return recent.update("flood", "this message was deleted");
+                });
+                start.countDown();
+                repeats.get(5, TimeUnit.SECONDS);
+
+                // CAS perdido para a contagem não pode virar "já saiu do buffer"
+                assertTrue(retraction.get(5, TimeUnit.SECONDS));
+                ChatMessage stored = recent.snapshot().get(0);
+                assertEquals("this message was deleted", stored.getContent());
+                assertEquals(500, stored.getRepeats());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ChatMessage message(String id, String content) {
+        return new ChatMessage(content, "user", 1L, id);
+    }
+}
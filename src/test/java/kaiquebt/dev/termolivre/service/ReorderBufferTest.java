@@ -0,0 +1,110 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReorderBufferTest {
+
+    private final ReorderBuffer buffer = new ReorderBuffer(100, "test");
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void testComplete_OutOfOrder_ShouldPublishInArrivalOrder() {
+        long first = buffer.next();
+        long second = buffer.next();
+        long third = buffer.next();
+
+        buffer.complete(third, () -> published.add("c"));
+        buffer.complete(second, () -> published.add("b"));
+        assertTrue(published.isEmpty());
+        assertEquals(2, buffer.getWaitingCount());
+
+        buffer.complete(first, () -> published.add("a"));
+
+        assertEquals(List.of("a", "b", "c"), published);
+        assertEquals(0, buffer.getWaitingCount());
+    }
+
+    @Test
+    void testComplete_WithDroppedMessage_ShouldReleaseTheNextOnes() {
+        long first = buffer.next();
+        long second = buffer.next();
+
+        buffer.complete(second, () -> published.add("b"));
+        buffer.complete(first, null);
+
+        assertEquals(List.of("b"), published);
+    }
+
+    @Test
+    void testComplete_WithSlowMessage_ShouldSkipItAfterMaxHold() throws Exception {
+        long slow = buffer.next();
+        long fast = buffer.next();
+
+        buffer.complete(fast, () -> published.add("fast"));
+        Thread.sleep(300);
+        assertEquals(List.of("fast"), published);
+
+        // A atrasada sai assim que fica pronta, sem segurar ninguém
+        buffer.complete(slow, () -> published.add("slow"));
+        assertEquals(List.of("fast", "slow"), published);
+        assertEquals(0, buffer.getWaitingCount());
+    }
+
+    @Test
+    void testAfter_WithWaitingMessage_ShouldRunAfterItsPublication() {
+        long first = buffer.next();
+        long second = buffer.next();
+
+        buffer.complete(second, () -> published.add("b"));
+        buffer.after(second, () -> published.add("b-update"));
+        assertTrue(published.isEmpty());
+
+        buffer.complete(first, () -> published.add("a"));
+        buffer.after(first, () -> published.add("a-update"));
+
+        assertEquals(List.of("a", "b", "b-update", "a-update"), published);
+    }
+
+    @Test
+    void testAfter_WithSkippedMessageStillModerating_ShouldWaitForItsPublication() throws Exception {
+        long slow = buffer.next();
+        long fast = buffer.next();
+
+        buffer.complete(fast, () -> published.add("fast"));
+        Thread.sleep(300);
+        // Pulada pelo maxHold, mas a atualização não pode chegar antes da mensagem
+        buffer.after(slow, () -> published.add("slow-update"));
+        assertEquals(List.of("fast"), published);
+
+        buffer.complete(slow, () -> published.add("slow"));
+        assertEquals(List.of("fast", "slow", "slow-update"), published);
+
+        // Já publicada: o after seguinte sai na hora
+        buffer.after(slow, () -> published.add("slow-update-2"));
+        assertEquals(List.of("fast", "slow", "slow-update", "slow-update-2"), published);
+    }
+
+    @Test
+    void testComplete_WithoutMaxHold_ShouldPublishImmediately() {
+        ReorderBuffer unordered = new ReorderBuffer(0, "unordered");
+        long first = unordered.next();
+        long second = unordered.next();
+
+        unordered.complete(second, () -> published.add("b"));
+        unordered.complete(first, () -> published.add("a"));
+
+        assertEquals(List.of("b", "a"), published);
+        unordered.shutdown();
+    }
+}
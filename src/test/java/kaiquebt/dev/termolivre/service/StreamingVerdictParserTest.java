@@ -0,0 +1,58 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingVerdictParserTest {
+
+    private final List<String> delivered = new ArrayList<>();
+
+    @Test
+    void testAccept_ShouldDeliverEachWordBeforeTheComma() {
+        StreamingVerdictParser parser = parser(3);
+
+        parser.accept("tr");
+        assertTrue(delivered.isEmpty());
+        parser.accept("ue");
+        assertEquals(List.of("0=true"), delivered);
+        parser.accept(", fal");
+        parser.accept("se,");
+        assertEquals(List.of("0=true", "1=false"), delivered);
+        parser.accept(" TRUE");
+
+        assertEquals(3, parser.finish());
+        assertEquals(List.of("0=true", "1=false", "2=true"), delivered);
+    }
+
+    @Test
+    void testAccept_WithUnexpectedText_ShouldTreatAsFalse() {
+        StreamingVerdictParser parser = parser(2);
+
+        parser.accept("Claro! Aqui está: true,true");
+
+        assertEquals(2, parser.finish());
+        assertEquals(List.of("0=false", "1=true"), delivered);
+    }
+
+    @Test
+    void testFinish_WithWrongCount_ShouldReportWhatArrived() {
+        StreamingVerdictParser fewer = parser(3);
+        fewer.accept("true,false,");
+        assertEquals(2, fewer.finish());
+
+        delivered.clear();
+        StreamingVerdictParser more = parser(1);
+        more.accept("false,true");
+        assertEquals(2, more.finish());
+        // Posições além do lote são ignoradas
+        assertEquals(List.of("0=false"), delivered);
+    }
+
+    private StreamingVerdictParser parser(int expected) {
+        return new StreamingVerdictParser(expected, (index, unsafe) -> delivered.add(index + "=" + unsafe));
+    }
+}
@@ -83,4 +83,11 @@ class TermoFilterTest {
         // "porta" está em "importante" - deve ser seguro
         assertTrue(termoFilter.isMessageSafe("importante"));
     }
+
+    @Test
+    void testIsMessageSafe_WithUnicodeTricks_ShouldReturnFalse() {
+        assertFalse(termoFilter.isMessageSafe("c\u200Basa"));
+        assertFalse(termoFilter.isMessageSafe("ＣＡＳＡ"));
+        assertFalse(termoFilter.isMessageSafe("po\u0301rta"));
+    }
 }
@@ -0,0 +1,51 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredAiProviderTest {
+
+    private final NgramClassifier classifier = NgramClassifier.train(NgramClassifierTest.examples(), 14, 8, 1);
+    private final List<List<String>> remoteCalls = Collections.synchronizedList(new ArrayList<>());
+    // Remoto marca como spoiler só o que tem "certeza"
+    private final AiProvider remote = messages -> {
+        remoteCalls.add(new ArrayList<>(messages));
+        List<Boolean> results = new ArrayList<>();
+        messages.forEach(message -> results.add(message.contains("certeza")));
+        return results;
+    };
+
+    @Test
+    void testAnalyze_ShouldOnlySendUncertainBandToRemote() throws Exception {
+        TieredAiProvider provider = new TieredAiProvider(classifier, remote, 0.2, 0.8, new ModerationMetrics());
+        String uncertain = "certeza";
+        double score = classifier.score(uncertain);
+        assertTrue(score >= 0.2 && score < 0.8, "test message should be uncertain, scored " + score);
+
+        List<Boolean> results = provider.analyzeMessagesForTermoAnswersAsync(
+                List.of("boa noite chat", uncertain, "a resposta é barco")).get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(false, true, true), results);
+        assertEquals(List.of(List.of(uncertain)), remoteCalls);
+    }
+
+    @Test
+    void testAnalyze_WithNoUncertainMessages_ShouldNotCallRemote() {
+        TieredAiProvider provider = new TieredAiProvider(classifier, remote, 0.5, 0.5, new ModerationMetrics());
+
+        assertEquals(List.of(false, true), provider.analyzeMessagesForTermoAnswers(List.of("eita", "é nuvem gente")));
+        assertTrue(remoteCalls.isEmpty());
+    }
+
+    @Test
+    void testConstructor_WithInvertedThresholds_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TieredAiProvider(classifier, remote, 0.9, 0.1, new ModerationMetrics()));
+    }
+}
@@ -0,0 +1,80 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTryAcquire_ShouldAllowBurstThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(2, 3);
+        long now = System.nanoTime();
+
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+
+        // Duas fichas por segundo: meia segunda depois há uma nova
+        assertTrue(bucket.tryAcquire(now + SECOND / 2));
+        assertFalse(bucket.tryAcquire(now + SECOND / 2));
+    }
+
+    @Test
+    void testTryAcquire_AfterIdle_ShouldNotAccumulateMoreThanBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime();
+
+        long later = now + 60 * SECOND;
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void testGetRetryAfterMillis_ShouldReportTimeUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        long now = System.nanoTime();
+
+        assertEquals(0, bucket.getRetryAfterMillis(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertEquals(1000, bucket.getRetryAfterMillis(now));
+        assertEquals(250, bucket.getRetryAfterMillis(now + SECOND * 3 / 4));
+    }
+
+    @Test
+    void testTryAcquire_FromConcurrentCallers_ShouldNeverExceedBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(0.001, 100);
+        AtomicInteger acquired = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire()) {
+                        acquired.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(100, acquired.get());
+    }
+
+    @Test
+    void testConstructor_WithoutRate_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    }
+}
@@ -0,0 +1,94 @@
+package kaiquebt.dev.termolivre.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictCacheTest {
+
+    @Test
+    void testGet_AfterPut_ShouldHitForSameVersion() {
+        VerdictCache cache = new VerdictCache(100, 60);
+        assertNull(cache.get(1, "oi chat"));
+        cache.put(1, "oi chat", false);
+        cache.put(1, "qual a resposta", true);
+
+        assertEquals(false, cache.get(1, "oi chat"));
+        assertEquals(true, cache.get(1, "qual a resposta"));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void testGet_WithNewAnswersVersion_ShouldInvalidateEverything() {
+        VerdictCache cache = new VerdictCache(100, 60);
+        cache.put(1, "oi chat", false);
+
+        assertNull(cache.get(2, "oi chat"));
+        assertEquals(0, cache.size());
+
+        // Veredito atrasado da versão antiga não volta para o cache
+        cache.put(1, "oi chat", true);
+        assertNull(cache.get(2, "oi chat"));
+    }
+
+    @Test
+    void testPut_OverMaxSize_ShouldEvictLeastRecentlyUsed() {
+        VerdictCache cache = new VerdictCache(2, 60);
+        cache.put(1, "a", false);
+        cache.put(1, "b", false);
+        cache.get(1, "a");
+        cache.put(1, "c", false);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1, "a"));
+        assertNull(cache.get(1, "b"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void testGet_AfterTtl_ShouldMiss() {
+        VerdictCache cache = new VerdictCache(100, 0);
+        cache.put(1, "oi chat", false);
+        assertNull(cache.get(1, "oi chat"));
+    }
+
+    @Test
+    void testTermoFilter_WithRepeatedMessage_ShouldCallAiOnce() {
+        List<String> aiCalls = Collections.synchronizedList(new ArrayList<>());
+        AiProvider stubProvider = messages -> {
+            aiCalls.addAll(messages);
+            return Collections.nCopies(messages.size(), false);
+        };
+        TermoFilter filter = new TermoFilter(stubProvider, new VerdictCache(100, 60));
+
+        assertTrue(filter.isMessageSafe("KKKKKK"));
+        assertTrue(filter.isMessageSafe("kkkkkk!!"));
+        assertEquals(List.of(true, true), filter.areMessagesSafe(List.of("kkkkkk", "boa noite")));
+
+        assertEquals(List.of("KKKKKK", "boa noite"), aiCalls);
+    }
+
+    @Test
+    void testTermoFilter_AfterAiError_ShouldNotCacheFallback() {
+        AtomicInteger calls = new AtomicInteger();
+        AiProvider stubProvider = messages -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("API fora do ar");
+            }
+            return Collections.nCopies(messages.size(), true);
+        };
+        TermoFilter filter = new TermoFilter(stubProvider, new VerdictCache(100, 60));
+
+        // Primeira chamada sem veredito: liberada pelo fallback, mas a segunda pergunta de novo
+        assertTrue(filter.isMessageSafe("acho que começa com b"));
+        assertFalse(filter.isMessageSafe("acho que começa com b"));
+        assertFalse(filter.isMessageSafe("acho que começa com b"));
+        assertEquals(2, calls.get());
+    }
+}